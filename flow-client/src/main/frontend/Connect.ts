@@ -16,14 +16,18 @@ interface ConnectExceptionData {
   validationErrorData?: ValidationErrorData[];
 }
 
-const throwConnectException = (errorJson: ConnectExceptionData) => {
+const createConnectException = (errorJson: ConnectExceptionData): EndpointError => {
   if (errorJson.validationErrorData) {
-    throw new EndpointValidationError(errorJson.message, errorJson.validationErrorData, errorJson.type);
+    return new EndpointValidationError(errorJson.message, errorJson.validationErrorData, errorJson.type);
   } else {
-    throw new EndpointError(errorJson.message, errorJson.type, errorJson.detail);
+    return new EndpointError(errorJson.message, errorJson.type, errorJson.detail);
   }
 };
 
+const throwConnectException = (errorJson: ConnectExceptionData) => {
+  throw createConnectException(errorJson);
+};
+
 /**
  * Throws a TypeError if the response is not 200 OK.
  * @param response The response to assert.
@@ -161,6 +165,11 @@ export interface ConnectClientOptions {
    * The `middlewares` property value.
    */
   middlewares?: Middleware[];
+
+  /**
+   * The `batch` property value.
+   */
+  batch?: boolean;
 }
 
 export interface EndpointCallMetaInfo {
@@ -221,6 +230,62 @@ type MiddlewareFunction = (context: MiddlewareContext, next: MiddlewareNext) =>
  */
 export type Middleware = MiddlewareClass | MiddlewareFunction;
 
+/**
+ * A call waiting to be sent in the next batch request.
+ */
+interface BatchedCall extends EndpointCallMetaInfo {
+  resolve: (value: any) => void;
+  reject: (error: any) => void;
+}
+
+/**
+ * The result of a single call in a batch response.
+ */
+interface BatchedCallResult {
+  status: number;
+  body?: any;
+}
+
+/**
+ * The request headers used for all the endpoint calls.
+ */
+const getRequestHeaders = (): Record<string, string> => ({
+  Accept: 'application/json',
+  'Content-Type': 'application/json',
+  'X-CSRF-Token': ($wnd.Vaadin.TypeScript && $wnd.Vaadin.TypeScript.csrfToken) || ''
+});
+
+// helper to keep the undefined value in object after JSON.stringify
+const nullForUndefined = (obj: any): any => {
+  for (const property in obj) {
+    if (obj[property] === undefined) {
+      obj[property] = null;
+    }
+  }
+  return obj;
+};
+
+// helper to transform null values to undefined in the response JSON data
+const parseResponseJson = (text: string): any =>
+  JSON.parse(text, (_, value: any) => (value === null ? undefined : value));
+
+/**
+ * Fetches the given request, keeping the connection state up to date.
+ * @ignore
+ */
+const fetchAndUpdateConnectionState = async (request: Request): Promise<Response> => {
+  $wnd.Vaadin.connectionState.loadingStarted();
+  return fetch(request)
+    .then((response) => {
+      $wnd.Vaadin.connectionState.loadingFinished();
+      return response;
+    })
+    .catch((error) => {
+      $wnd.Vaadin.connectionState.loadingFailed();
+      return Promise.reject(error);
+    });
+};
+
 /**
  * Vaadin Connect client class is a low-level network calling utility. It stores
  * a prefix and facilitates remote calls to endpoint class methods
@@ -242,6 +307,17 @@ export type Middleware = MiddlewareClass | MiddlewareFunction;
  *
  * The default prefix is '/connect'.
  *
+ * ### Batching
+ *
+ * The client can send the calls made within the same task in a single
+ * request to the `${prefix}/batch` URL:
+ * ```js
+ * const client = new ConnectClient({batch: true});
+ * ```
+ *
+ * Since middlewares operate on the request of a single call, calls are
+ * only batched when no middlewares are set.
+ *
  */
 export class ConnectClient {
   /**
@@ -254,6 +330,13 @@ export class ConnectClient {
    */
   middlewares: Middleware[] = [];
 
+  /**
+   * Whether the calls made within the same task are sent in a single request.
+   */
+  batch: boolean = false;
+
+  private batchedCalls: BatchedCall[] = [];
+
   /**
    * @param options Constructor options.
    */
@@ -262,6 +345,10 @@ export class ConnectClient {
       this.prefix = options.prefix;
     }
 
+    if (options.batch) {
+      this.batch = options.batch;
+    }
+
     if (options.middlewares) {
       this.middlewares = options.middlewares;
     }
@@ -299,25 +386,18 @@ export class ConnectClient {
       throw new TypeError(`2 arguments required, but got only ${arguments.length}`);
     }
 
-    const headers: Record<string, string> = {
-      Accept: 'application/json',
-      'Content-Type': 'application/json',
-      'X-CSRF-Token': ($wnd.Vaadin.TypeScript && $wnd.Vaadin.TypeScript.csrfToken) || ''
-    };
-
-    // helper to keep the undefined value in object after JSON.stringify
-    const nullForUndefined = (obj: any): any => {
-      for (const property in obj) {
-        if (obj[property] === undefined) {
-          obj[property] = null;
+    if (this.batch && this.middlewares.length === 0) {
+      return new Promise((resolve, reject) => {
+        if (this.batchedCalls.length === 0) {
+          setTimeout(() => this.sendBatchedCalls());
         }
-      }
-      return obj;
-    };
+        this.batchedCalls.push({ endpoint, method, params, resolve, reject });
+      });
+    }
 
     const request = new Request(`${this.prefix}/${endpoint}/${method}`, {
       method: 'POST',
-      headers,
+      headers: getRequestHeaders(),
       body: params !== undefined ? JSON.stringify(nullForUndefined(params)) : undefined
     });
 
@@ -340,25 +420,14 @@ export class ConnectClient {
     ): Promise<Response> => {
       const response = await next(context);
       await assertResponseIsOk(response);
-      const text = await response.text();
-      return JSON.parse(text, (_, value: any) => (value === null ? undefined : value));
+      return parseResponseJson(await response.text());
     };
 
     // The actual fetch call itself is expressed as a middleware
     // chain item for our convenience. Always having an ending of the chain
     // this way makes the folding down below more concise.
-    const fetchNext: MiddlewareNext = async (context: MiddlewareContext): Promise<Response> => {
-      $wnd.Vaadin.connectionState.loadingStarted();
-      return fetch(context.request)
-        .then((response) => {
-          $wnd.Vaadin.connectionState.loadingFinished();
-          return response;
-        })
-        .catch((error) => {
-          $wnd.Vaadin.connectionState.loadingFailed();
-          return Promise.reject(error);
-        });
-    };
+    const fetchNext: MiddlewareNext = async (context: MiddlewareContext): Promise<Response> =>
+      fetchAndUpdateConnectionState(context.request);
 
     // Assemble the final middlewares array from internal
     // and external middlewares
@@ -386,6 +455,45 @@ export class ConnectClient {
     return chain(initialContext);
   }
 
+  /**
+   * Sends the pending batched calls in a single request and settles the
+   * promises of the calls with their respective results.
+   */
+  private async sendBatchedCalls(): Promise<void> {
+    const calls = this.batchedCalls;
+    this.batchedCalls = [];
+
+    const request = new Request(`${this.prefix}/batch`, {
+      method: 'POST',
+      headers: getRequestHeaders(),
+      body: JSON.stringify(
+        calls.map(({ endpoint, method, params }) => ({
+          endpoint,
+          method,
+          params: params !== undefined ? nullForUndefined(params) : undefined
+        }))
+      )
+    });
+
+    try {
+      const response = await fetchAndUpdateConnectionState(request);
+      await assertResponseIsOk(response);
+      const results: BatchedCallResult[] = parseResponseJson(await response.text());
+      calls.forEach((call, index) => {
+        const result = results[index];
+        if (result.status >= 200 && result.status < 300) {
+          call.resolve(result.body);
+        } else if (result.body !== undefined && result.body.message !== undefined) {
+          call.reject(createConnectException(result.body));
+        } else {
+          call.reject(new EndpointError(`expected "200 OK" response, but got ${result.status}`));
+        }
+      });
+    } catch (error) {
+      calls.forEach((call) => call.reject(error));
+    }
+  }
+
   private isFlowLoaded(): boolean {
     return $wnd.Vaadin.Flow?.clients?.TypeScript !== undefined;
   }
@@ -502,4 +502,52 @@ describe('ConnectClient', () => {
       });
     });
   });
+
+  describe('batched calls', () => {
+    let client: ConnectClient;
+
+    beforeEach(() => {
+      client = new ConnectClient({batch: true});
+      fetchMock.post(base + '/connect/batch', [
+        {status: 200, body: {fooData: 'foo'}},
+        {status: 400, body: {message: 'Something bad happened', type: 'com.example.FooException'}},
+        {status: 404}
+      ]);
+    });
+
+    afterEach(() => fetchMock.restore());
+
+    it('should send calls made in the same task in a single request', async() => {
+      const results = [
+        client.call('FooEndpoint', 'fooMethod', {fooParam: 'foo'}),
+        client.call('FooEndpoint', 'failingMethod').catch(error => error),
+        client.call('FooEndpoint', 'missingMethod').catch(error => error)
+      ];
+
+      expect(await results[0]).to.deep.equal({fooData: 'foo'});
+      expect(fetchMock.calls()).to.have.lengthOf(1);
+      expect(JSON.parse(fetchMock.lastOptions().body)).to.deep.equal([
+        {endpoint: 'FooEndpoint', method: 'fooMethod', params: {fooParam: 'foo'}},
+        {endpoint: 'FooEndpoint', method: 'failingMethod'},
+        {endpoint: 'FooEndpoint', method: 'missingMethod'}
+      ]);
+
+      const error = await results[1];
+      expect(error).to.be.instanceOf(EndpointError);
+      expect(error).to.have.property('message').that.equals('Something bad happened');
+      expect(error).to.have.property('type').that.equals('com.example.FooException');
+
+      expect(await results[2]).to.be.instanceOf(EndpointError)
+        .and.have.property('message').that.has.string('404');
+    });
+
+    it('should not batch calls when middlewares are set', async() => {
+      fetchMock.post(base + '/connect/FooEndpoint/fooMethod', {fooData: 'foo'});
+      client.middlewares = [myMiddleware];
+
+      await client.call('FooEndpoint', 'fooMethod');
+
+      expect(fetchMock.lastUrl()).to.equal(base + '/connect/FooEndpoint/fooMethod');
+    });
+  });
 });
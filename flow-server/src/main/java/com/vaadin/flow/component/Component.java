@@ -364,6 +364,16 @@ public abstract class Component
         return eventBus != null && eventBus.hasListener(eventType);
     }
 
+    /**
+     * Gets the number of listeners registered for all event types of this
+     * component, without creating the event bus.
+     *
+     * @return the number of listeners
+     */
+    int getListenerCount() {
+        return eventBus == null ? 0 : eventBus.getListenerCount();
+    }
+
     /**
      * Dispatches the event to all listeners registered for the event type.
      *
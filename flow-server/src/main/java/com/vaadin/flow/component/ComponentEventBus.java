@@ -175,6 +175,20 @@ public class ComponentEventBus implements Serializable {
         return componentEventData.containsKey(eventType);
     }
 
+    /**
+     * Gets the number of listeners registered for all event types.
+     *
+     * @return the number of listeners
+     */
+    int getListenerCount() {
+        int count = 0;
+        for (List<ListenerWrapper<?>> listeners : componentEventData
+                .values()) {
+            count += listeners.size();
+        }
+        return count;
+    }
+
     /**
      * Dispatches the event to all listeners registered for the event type.
      *
@@ -333,6 +333,18 @@ public class ComponentUtil {
         return component.addListener(eventType, listener);
     }
 
+    /**
+     * Gets the number of component event listeners registered for all event
+     * types of the {@code component}. Used for diagnostics.
+     *
+     * @param component
+     *            the component to check, not <code>null</code>
+     * @return the number of listeners
+     */
+    public static int getListenerCount(Component component) {
+        return component.getListenerCount();
+    }
+
     /**
      * Adds a listener for an event of the given type to the {@code component},
      * and customizes the corresponding DOM event listener with the given
@@ -17,6 +17,7 @@
 package com.vaadin.flow.component;
 
 import java.net.URI;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -501,6 +502,36 @@ public class UI extends Component
         return access(command, null);
     }
 
+    /**
+     * Provides exclusive access to this UI from outside a request handling
+     * thread, replacing any pending command submitted for this UI with the
+     * same key which has not been run yet. The replaced command is cancelled,
+     * so only the most recent command for a key is run.
+     * <p>
+     * This is meant for frequent updates of the same component from
+     * background threads, e.g.
+     * <code>ui.accessLatest(label, () -&gt; label.setText(value))</code>,
+     * where only the most recent update matters. Keys are scoped to this UI.
+     * Otherwise this works like {@link #access(Command)}.
+     *
+     * @param key
+     *            the key identifying the commands which replace each other,
+     *            not <code>null</code>
+     * @param command
+     *            the command which accesses the UI
+     * @throws UIDetachedException
+     *             if the UI is not attached to a session (and locking can
+     *             therefore not be done)
+     * @return a future that can be used to check for task completion and to
+     *         cancel the task, cancelled if the command is replaced
+     * @see #access(Command)
+     * @see VaadinSession#accessLatest(Object, Command)
+     */
+    public Future<Void> accessLatest(Object key, Command command) {
+        Objects.requireNonNull(key, "Key cannot be null");
+        return access(command, null, Arrays.asList(this, key));
+    }
+
     /*
      * Yes, we are mixing legacy Command with newer SerializableRunnable. This
      * is done for this internal method since it helps preserve old APIs as-is
@@ -508,6 +539,11 @@ public class UI extends Component
      */
     private Future<Void> access(Command command,
             SerializableRunnable detachHandler) {
+        return access(command, detachHandler, null);
+    }
+
+    private Future<Void> access(Command command,
+            SerializableRunnable detachHandler, Object key) {
         VaadinSession session = getSession();
 
         if (session == null) {
@@ -515,7 +551,7 @@ public class UI extends Component
             return null;
         }
 
-        return session.access(new ErrorHandlingCommand() {
+        ErrorHandlingCommand accessCommand = new ErrorHandlingCommand() {
             @Override
             public void execute() {
                 accessSynchronously(command, detachHandler);
@@ -535,7 +571,9 @@ public class UI extends Component
                     getLogger().error(e.getMessage(), e);
                 }
             }
-        });
+        };
+        return key == null ? session.access(accessCommand)
+                : session.accessLatest(key, accessCommand);
     }
 
     /**
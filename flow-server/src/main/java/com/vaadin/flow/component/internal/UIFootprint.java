@@ -0,0 +1,269 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.internal;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.nodefeature.ComponentMapping;
+import com.vaadin.flow.internal.nodefeature.ElementListenerMap;
+import com.vaadin.flow.internal.nodefeature.NodeFeature;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * A snapshot of the server side footprint of a UI, aggregated by component
+ * type. Helps finding the views and components which use the most memory
+ * without taking heap dumps.
+ * <p>
+ * State nodes which are not mapped to a component, e.g. text nodes and the
+ * nodes of plain elements, are accounted to the closest component above
+ * them.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class UIFootprint implements Serializable {
+
+    /**
+     * The footprint of all components of one type in a UI.
+     */
+    public static class Entry implements Serializable {
+        private final String type;
+        private int componentCount;
+        private int nodeCount;
+        private int featureCount;
+        private int featureEntryCount;
+        private int domListenerCount;
+        private int componentListenerCount;
+
+        private Entry(String type) {
+            this.type = type;
+        }
+
+        private void add(Entry other) {
+            componentCount += other.componentCount;
+            nodeCount += other.nodeCount;
+            featureCount += other.featureCount;
+            featureEntryCount += other.featureEntryCount;
+            domListenerCount += other.domListenerCount;
+            componentListenerCount += other.componentListenerCount;
+        }
+
+        /**
+         * Gets the fully qualified name of the component type.
+         *
+         * @return the component type name
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Gets the number of components of this type.
+         *
+         * @return the number of components
+         */
+        public int getComponentCount() {
+            return componentCount;
+        }
+
+        /**
+         * Gets the number of state nodes accounted to components of this type.
+         *
+         * @return the number of state nodes
+         */
+        public int getNodeCount() {
+            return nodeCount;
+        }
+
+        /**
+         * Gets the number of initialized node features of the state nodes.
+         *
+         * @return the number of node features
+         */
+        public int getFeatureCount() {
+            return featureCount;
+        }
+
+        /**
+         * Gets the number of map keys and list items stored in the node
+         * features of the state nodes.
+         *
+         * @return the number of feature entries
+         */
+        public int getFeatureEntryCount() {
+            return featureEntryCount;
+        }
+
+        /**
+         * Gets the number of DOM event listeners of the state nodes.
+         *
+         * @return the number of DOM event listeners
+         */
+        public int getDomListenerCount() {
+            return domListenerCount;
+        }
+
+        /**
+         * Gets the number of component event listeners retained by the
+         * components.
+         *
+         * @return the number of component event listeners
+         */
+        public int getComponentListenerCount() {
+            return componentListenerCount;
+        }
+
+        private JsonObject toJson() {
+            JsonObject json = Json.createObject();
+            json.put("type", type);
+            json.put("components", componentCount);
+            json.put("nodes", nodeCount);
+            json.put("features", featureCount);
+            json.put("featureEntries", featureEntryCount);
+            json.put("domListeners", domListenerCount);
+            json.put("componentListeners", componentListenerCount);
+            return json;
+        }
+    }
+
+    private final int uiId;
+    private final Entry total = new Entry(UI.class.getName());
+    private final List<Entry> entries;
+
+    private UIFootprint(int uiId, List<Entry> entries) {
+        this.uiId = uiId;
+        this.entries = Collections.unmodifiableList(entries);
+        entries.forEach(total::add);
+    }
+
+    /**
+     * Collects the footprint of the given UI by walking its state tree. The
+     * session of the UI must be locked.
+     *
+     * @param ui
+     *            the UI to inspect, not <code>null</code>
+     * @return the footprint of the UI
+     */
+    public static UIFootprint collect(UI ui) {
+        Map<StateNode, Entry> owners = new IdentityHashMap<>();
+        Map<String, Entry> byType = new HashMap<>();
+
+        // Parents are visited before their children
+        ui.getInternals().getStateTree().getRootNode().visitNodeTree(node -> {
+            // Text nodes do not have a component mapping
+            Component component = node.hasFeature(ComponentMapping.class)
+                    ? node.getFeatureIfInitialized(ComponentMapping.class)
+                            .flatMap(ComponentMapping::getComponent)
+                            .orElse(null)
+                    : null;
+            Entry entry;
+            if (component != null) {
+                entry = byType.computeIfAbsent(component.getClass().getName(),
+                        Entry::new);
+                entry.componentCount++;
+                entry.componentListenerCount += ComponentUtil
+                        .getListenerCount(component);
+            } else {
+                entry = node.getParent() == null ? null
+                        : owners.get(node.getParent());
+                if (entry == null) {
+                    entry = byType.computeIfAbsent(
+                            StateNode.class.getName(), Entry::new);
+                }
+            }
+            Entry owner = entry;
+            owners.put(node, owner);
+            owner.nodeCount++;
+            node.getInitializedFeatures()
+                    .forEach(feature -> addFeature(owner, feature));
+        });
+
+        List<Entry> entries = new ArrayList<>(byType.values());
+        entries.sort(Comparator.comparingInt(Entry::getNodeCount).reversed()
+                .thenComparing(Entry::getType));
+        return new UIFootprint(ui.getUIId(), entries);
+    }
+
+    private static void addFeature(Entry entry, NodeFeature feature) {
+        entry.featureCount++;
+        entry.featureEntryCount += feature.getEntryCount();
+        if (feature instanceof ElementListenerMap) {
+            entry.domListenerCount += ((ElementListenerMap) feature)
+                    .getListenerCount();
+        }
+    }
+
+    /**
+     * Gets the id of the inspected UI.
+     *
+     * @return the UI id
+     */
+    public int getUIId() {
+        return uiId;
+    }
+
+    /**
+     * Gets the totals of the whole UI.
+     *
+     * @return the totals
+     */
+    public Entry getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the footprint of each component type in the UI, the types with
+     * the most state nodes first.
+     *
+     * @return an unmodifiable list of the footprints by component type
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Gets the footprint as JSON.
+     *
+     * @return the footprint as a JSON object
+     */
+    public JsonObject toJson() {
+        JsonObject json = total.toJson();
+        json.remove("type");
+        json.put("uiId", uiId);
+        JsonArray types = Json.createArray();
+        for (Entry entry : entries) {
+            types.set(types.length(), entry.toJson());
+        }
+        json.put("componentTypes", types);
+        return json;
+    }
+}
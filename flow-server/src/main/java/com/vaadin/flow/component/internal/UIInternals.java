@@ -158,7 +158,15 @@ public class UIInternals implements Serializable {
      * Updated to the current time whenever the application receives a heartbeat
      * or UIDL request from the client for the related UI.
      */
-    private long lastHeartbeatTimestamp = System.currentTimeMillis();
+    private volatile long lastHeartbeatTimestamp = System.currentTimeMillis();
+
+    /**
+     * Whether any heartbeat listener has been added. Never reset, so that it
+     * can be read without holding the session lock.
+     */
+    private volatile boolean heartbeatListenersAdded;
+
+    private long lastRequestTimestamp = System.currentTimeMillis();
 
     private List<PendingJavaScriptInvocation> pendingJsInvocations = new ArrayList<>();
 
@@ -348,6 +356,29 @@ public class UIInternals implements Serializable {
                 .forEach(listener -> listener.heartbeat(heartbeatEvent));
     }
 
+    /**
+     * Sets the last heartbeat request timestamp for the related UI unless
+     * {@link HeartbeatListener}s have been added to the UI. The listeners
+     * need to be notified with the session locked, in which case
+     * {@link #setLastHeartbeatTimestamp(long)} should be used instead.
+     * <p>
+     * Unlike {@link #setLastHeartbeatTimestamp(long)}, this method can be
+     * called without holding the session lock.
+     *
+     * @param lastHeartbeat
+     *            The time the last heartbeat request occurred, in milliseconds
+     *            since the epoch.
+     * @return <code>true</code> if the timestamp was set, <code>false</code>
+     *         if there may be listeners to notify
+     */
+    public boolean trySetLastHeartbeatTimestamp(long lastHeartbeat) {
+        if (heartbeatListenersAdded) {
+            return false;
+        }
+        lastHeartbeatTimestamp = lastHeartbeat;
+        return true;
+    }
+
     @SuppressWarnings("unchecked")
     private static Class<? extends NodeFeature>[] getRootNodeFeatures() {
         // Start with all element features
@@ -495,7 +526,47 @@ public class UIInternals implements Serializable {
         return addListener(AfterNavigationHandler.class, listener);
     }
 
+    /**
+     * Checks whether any {@link HeartbeatListener} has ever been added to the
+     * related UI.
+     * <p>
+     * This method can be called without holding the session lock.
+     *
+     * @return <code>true</code> if a heartbeat listener has been added,
+     *         <code>false</code> otherwise
+     */
+    public boolean hasHeartbeatListeners() {
+        return heartbeatListenersAdded;
+    }
+
+    /**
+     * Returns the timestamp of the last UIDL request processed for the related
+     * UI, or the time the UI was created if no such request has been received.
+     * Unlike {@link #getLastHeartbeatTimestamp()}, this only changes when the
+     * user interacts with the UI.
+     *
+     * @return the time of the last UIDL request, in milliseconds since the
+     *         epoch
+     */
+    public long getLastRequestTimestamp() {
+        return lastRequestTimestamp;
+    }
+
+    /**
+     * Sets the timestamp of the last UIDL request processed for the related
+     * UI. Called by the framework whenever a UIDL request is received for the
+     * UI.
+     *
+     * @param lastRequestTimestamp
+     *            the time of the last UIDL request, in milliseconds since the
+     *            epoch
+     */
+    public void setLastRequestTimestamp(long lastRequestTimestamp) {
+        this.lastRequestTimestamp = lastRequestTimestamp;
+    }
+
     public Registration addHeartbeatListener(HeartbeatListener listener) {
+        heartbeatListenersAdded = true;
         return addListener(HeartbeatListener.class, listener);
     }
 
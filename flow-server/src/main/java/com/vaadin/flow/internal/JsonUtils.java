@@ -16,6 +16,8 @@
 
 package com.vaadin.flow.internal;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.AbstractList;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -40,6 +42,7 @@ import elemental.json.JsonNumber;
 import elemental.json.JsonObject;
 import elemental.json.JsonType;
 import elemental.json.JsonValue;
+import elemental.json.impl.JsonUtil;
 
 /**
  * Helpers for using <code>elemental.json</code>.
@@ -335,4 +338,52 @@ public final class JsonUtils {
             throw new RuntimeException("Error converting map to JSON", e);
         }
     }
+
+    /**
+     * Writes the given JSON value to a writer.
+     * <p>
+     * The output is the same as for {@link JsonUtil#stringify(JsonValue)}, but
+     * objects and arrays are written one member at a time so that the full
+     * JSON string is never held in memory.
+     *
+     * @param value
+     *            the JSON value to write, not {@code null}
+     * @param writer
+     *            the writer to write to, not {@code null}
+     * @throws IOException
+     *             if writing fails
+     */
+    public static void writeJson(JsonValue value, Writer writer)
+            throws IOException {
+        switch (value.getType()) {
+        case OBJECT:
+            JsonObject object = (JsonObject) value;
+            writer.write('{');
+            boolean first = true;
+            for (String key : object.keys()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                writer.write(JsonUtil.quote(key));
+                writer.write(':');
+                writeJson(object.get(key), writer);
+            }
+            writer.write('}');
+            break;
+        case ARRAY:
+            JsonArray array = (JsonArray) value;
+            writer.write('[');
+            for (int i = 0; i < array.length(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeJson(array.get(i), writer);
+            }
+            writer.write(']');
+            break;
+        default:
+            writer.write(JsonUtil.stringify(value));
+        }
+    }
 }
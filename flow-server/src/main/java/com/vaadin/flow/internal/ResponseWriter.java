@@ -16,9 +16,13 @@
 
 package com.vaadin.flow.internal;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -28,10 +32,19 @@ import java.io.InputStream;
 import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URISyntaxException;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Stack;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -71,6 +84,12 @@ public class ResponseWriter implements Serializable {
      */
     private static final int MAX_OVERLAPPING_RANGE_COUNT = 2;
 
+    /**
+     * Files larger than this are written using non-blocking I/O when the
+     * request supports asynchronous processing.
+     */
+    private static final long ASYNC_WRITE_THRESHOLD = 1024L * 1024;
+
     private final int bufferSize;
     private final boolean brotliEnabled;
 
@@ -128,7 +147,7 @@ public class ResponseWriter implements Serializable {
                 if (url != null) {
                     connection = url.openConnection();
                     dataStream = connection.getInputStream();
-                    response.setHeader("Content-Encoding", "br");
+                    setContentEncoding(response, "br");
                 }
             } catch (Exception e) {
                 getLogger().debug(
@@ -145,7 +164,7 @@ public class ResponseWriter implements Serializable {
                 if (url != null) {
                     connection = url.openConnection();
                     dataStream = connection.getInputStream();
-                    response.setHeader("Content-Encoding", "gzip");
+                    setContentEncoding(response, "gzip");
                 }
             } catch (Exception e) {
                 getLogger().debug(
@@ -171,6 +190,16 @@ public class ResponseWriter implements Serializable {
                 writeRangeContents(range, response, url);
             } else {
                 final long contentLength = connection.getContentLengthLong();
+                Path file = isAsyncWritePossible(request, contentLength)
+                        ? getFilePath(url)
+                        : null;
+                if (file != null) {
+                    closeStream(dataStream);
+                    dataStream = null;
+                    setContentLength(response, contentLength);
+                    writeFileAsync(file, request, response);
+                    return;
+                }
                 if (0 <= contentLength) {
                     setContentLength(response, contentLength);
                 }
@@ -186,6 +215,203 @@ public class ResponseWriter implements Serializable {
         }
     }
 
+    /**
+     * Gets the ETag of the precompressed variant of a resource. Differently
+     * encoded representations of a resource must not share a strong ETag, so
+     * the encoding is added as a suffix inside the quotes.
+     *
+     * @param eTag
+     *            the quoted ETag of the resource, not <code>null</code>
+     * @param encoding
+     *            the content encoding of the variant, e.g. {@code "br"}
+     * @return the quoted ETag of the variant, not <code>null</code>
+     */
+    public static String getEncodedETag(String eTag, String encoding) {
+        return eTag.substring(0, eTag.length() - 1) + '-' + encoding + '"';
+    }
+
+    /**
+     * Finds the ETag in the given If-None-Match header which matches the
+     * given ETag using weak comparison.
+     *
+     * @param ifNoneMatch
+     *            the If-None-Match header value, or <code>null</code> if
+     *            there is no such header
+     * @param eTag
+     *            the quoted ETag of the resource
+     * @param anyEncoding
+     *            <code>true</code> to also match the ETags of the
+     *            precompressed variants of the resource
+     * @return the matching ETag or <code>null</code> if none matches
+     */
+    public static String findMatchingETag(String ifNoneMatch, String eTag,
+            boolean anyEncoding) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value)) {
+                return eTag;
+            }
+            if (eTag.equals(value) || (anyEncoding
+                    && (value.equals(getEncodedETag(eTag, "br")) || value
+                            .equals(getEncodedETag(eTag, "gzip"))))) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static void setContentEncoding(HttpServletResponse response,
+            String encoding) {
+        response.setHeader("Content-Encoding", encoding);
+        String eTag = response.getHeader("ETag");
+        if (eTag != null && eTag.endsWith("\"")) {
+            response.setHeader("ETag", getEncodedETag(eTag, encoding));
+        }
+    }
+
+    private static boolean isAsyncWritePossible(HttpServletRequest request,
+            long contentLength) {
+        return contentLength > ASYNC_WRITE_THRESHOLD
+                && request.isAsyncSupported() && !request.isAsyncStarted();
+    }
+
+    /**
+     * Writes the whole file into the response with a {@link WriteListener} so
+     * that slow clients do not block the request thread.
+     */
+    private void writeFileAsync(Path file, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        AsyncContext asyncContext = request.startAsync();
+        // The download may take longer than the default timeout of the
+        // container, failures are reported through the listeners
+        asyncContext.setTimeout(0);
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            ServletOutputStream outputStream = response.getOutputStream();
+            FileWriteListener listener = new FileWriteListener(channel,
+                    outputStream, asyncContext, bufferSize);
+            asyncContext.addListener(listener);
+            outputStream.setWriteListener(listener);
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                closeStream(channel);
+            }
+            asyncContext.complete();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the file system path of the given resource URL if it points to a
+     * regular file on the default file system.
+     *
+     * @param url
+     *            the resource URL, not <code>null</code>
+     * @return the path to the file, or <code>null</code> if the resource is
+     *         not a regular file
+     */
+    private static Path getFilePath(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            Path path = Paths.get(url.toURI());
+            return Files.isRegularFile(path) ? path : null;
+        } catch (URISyntaxException | IllegalArgumentException
+                | FileSystemNotFoundException | SecurityException e) {
+            getLogger().trace("Unable to use {} as a file path", url, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the file contents whenever the servlet container reports that the
+     * output stream is ready, completing the asynchronous request at the end.
+     * The servlet API only accepts byte arrays, so the file is copied through
+     * a reused heap buffer rather than transferred directly from the channel.
+     * The file channel is also closed if the asynchronous request times out,
+     * fails or is completed by the container.
+     */
+    private static class FileWriteListener
+            implements WriteListener, AsyncListener {
+        private final FileChannel channel;
+        private final ServletOutputStream outputStream;
+        private final AsyncContext asyncContext;
+        private final ByteBuffer buffer;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private FileWriteListener(FileChannel channel,
+                ServletOutputStream outputStream, AsyncContext asyncContext,
+                int bufferSize) {
+            this.channel = channel;
+            this.outputStream = outputStream;
+            this.asyncContext = asyncContext;
+            buffer = ByteBuffer.allocate(bufferSize);
+        }
+
+        @Override
+        public void onWritePossible() throws IOException {
+            while (outputStream.isReady()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    complete();
+                    return;
+                }
+                outputStream.write(buffer.array(), 0, read);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            getLogger().debug("Error writing static file to user", throwable);
+            complete();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // NOP
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            getLogger().debug("Timeout writing static file to user");
+            complete();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            onError(event.getThrowable());
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            closeChannel();
+        }
+
+        private void complete() {
+            if (completed.compareAndSet(false, true)) {
+                closeChannel();
+                asyncContext.complete();
+            }
+        }
+
+        private void closeChannel() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                getLogger().debug("Error closing file channel", e);
+            }
+        }
+    }
+
     private void closeStream(Closeable stream) {
         try {
             stream.close();
@@ -461,7 +687,17 @@ public class ResponseWriter implements Serializable {
         return acceptsEncoding(request, "br");
     }
 
-    private static boolean acceptsEncoding(HttpServletRequest request,
+    /**
+     * Returns whether the request accepts a response with the given content
+     * encoding, based on the "Accept-Encoding" header.
+     *
+     * @param request
+     *            the request for the resource
+     * @param encodingName
+     *            the content encoding, e.g. {@code "gzip"}
+     * @return true if the encoding is accepted, false otherwise
+     */
+    public static boolean acceptsEncoding(HttpServletRequest request,
             String encodingName) {
         String accept = request.getHeader("Accept-Encoding");
         if (accept == null) {
@@ -522,7 +758,7 @@ public class ResponseWriter implements Serializable {
         return Double.valueOf(0.000).equals(Double.valueOf(qValue));
     }
 
-    private Logger getLogger() {
-        return LoggerFactory.getLogger(getClass().getName());
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(ResponseWriter.class.getName());
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.vaadin.flow.function.SerializableFunction;
+
+/**
+ * Thread safe cache which bounds the total size of its values, evicting the
+ * least recently used entries first when the limit is exceeded.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ * @author Vaadin Ltd
+ * @since
+ */
+public class SizeBoundedLruCache<K, V> implements Serializable {
+
+    private final LinkedHashMap<K, V> values = new LinkedHashMap<>(16, 0.75f,
+            true);
+    private final long maxSize;
+    private final SerializableFunction<V, Integer> sizeFunction;
+    private long size;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxSize
+     *            the maximum total size of the cached values
+     * @param sizeFunction
+     *            gives the size of a value, not <code>null</code>
+     */
+    public SizeBoundedLruCache(long maxSize,
+            SerializableFunction<V, Integer> sizeFunction) {
+        this.maxSize = maxSize;
+        this.sizeFunction = sizeFunction;
+    }
+
+    /**
+     * Gets the value cached for the given key, marking it as the most
+     * recently used one.
+     *
+     * @param key
+     *            the key
+     * @return the cached value or <code>null</code> if there is none
+     */
+    public synchronized V get(K key) {
+        return values.get(key);
+    }
+
+    /**
+     * Caches the given value, evicting least recently used values until the
+     * total size is within the limit. A value larger than the limit is
+     * evicted right away.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value to cache, not <code>null</code>
+     */
+    public synchronized void put(K key, V value) {
+        V previous = values.put(key, value);
+        if (previous != null) {
+            size -= sizeFunction.apply(previous);
+        }
+        size += sizeFunction.apply(value);
+
+        Iterator<Map.Entry<K, V>> eldest = values.entrySet().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            size -= sizeFunction.apply(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Gets the total size of the cached values.
+     *
+     * @return the total size
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+}
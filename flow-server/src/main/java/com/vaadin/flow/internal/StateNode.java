@@ -127,6 +127,34 @@ public class StateNode implements Serializable {
                     .forEach(key -> mappings.put(key,
                             Integer.valueOf(mappings.size())));
         }
+
+        private Object writeReplace() {
+            return new SerializedFeatureSet(this);
+        }
+    }
+
+    /**
+     * Serialized form of a {@link FeatureSet}, containing only the feature
+     * types. Resolved to the cached instance when deserialized, so that
+     * deserialized nodes share feature sets just like new nodes.
+     */
+    private static class SerializedFeatureSet implements Serializable {
+        private final Class<? extends NodeFeature>[] reportedFeatures;
+        private final Class<? extends NodeFeature>[] allFeatures;
+
+        @SuppressWarnings("unchecked")
+        private SerializedFeatureSet(FeatureSet featureSet) {
+            reportedFeatures = featureSet.reportedFeatures
+                    .toArray(new Class[0]);
+            allFeatures = featureSet.mappings.keySet().toArray(new Class[0]);
+        }
+
+        private Object readResolve() {
+            return featureSetCache.computeIfAbsent(
+                    new FeatureSetKey(Arrays.asList(reportedFeatures),
+                            allFeatures),
+                    FeatureSet::new);
+        }
     }
 
     private static class ReplacedViaPreserveOnRefresh implements Serializable {
@@ -343,6 +371,26 @@ public class StateNode implements Serializable {
         }
     }
 
+    /**
+     * Runs the attach listeners of this node and its descendants again as for
+     * a non-initial attach, without changing the registration of the nodes.
+     * <p>
+     * This is used for a tree which has been restored from its serialized
+     * form after the original instance has been detached, e.g. when a
+     * passivated UI is restored.
+     * <p>
+     * For internal use only. May be renamed or removed in a future release.
+     */
+    public void fireReattachListeners() {
+        List<StateNode> nodes = new ArrayList<>();
+        visitNodeTreeBottomUp(nodes::add);
+        for (StateNode node : nodes) {
+            if (node.isRegistered() && node.hasBeenAttached) {
+                node.fireAttachListeners(false);
+            }
+        }
+    }
+
     private void forEachChild(Consumer<StateNode> action) {
         forEachFeature(n -> n.forEachChild(action));
     }
@@ -351,7 +399,12 @@ public class StateNode implements Serializable {
         getInitializedFeatures().forEach(action::accept);
     }
 
-    private Stream<NodeFeature> getInitializedFeatures() {
+    /**
+     * Gets the features of this node which have been initialized.
+     *
+     * @return a stream of the initialized features
+     */
+    public Stream<NodeFeature> getInitializedFeatures() {
         if (features == null) {
             return Stream.empty();
         } else if (features instanceof NodeFeature) {
@@ -162,6 +162,13 @@ public class StateTree implements NodeOwner {
 
     private Set<StateNode> pendingExecutionNodes = new HashSet<>();
 
+    /**
+     * Whether no node has changed since the last checkpoint. This is a single
+     * flag for the whole tree, the changed nodes are not tracked. Transient so
+     * that a deserialized tree counts as changed.
+     */
+    private transient boolean unchangedSinceCheckpoint;
+
     private int nextBeforeClientResponseIndex = 1;
 
     private final StateNode rootNode;
@@ -218,6 +225,7 @@ public class StateTree implements NodeOwner {
         }
 
         idToNode.put(nodeId, node);
+        unchangedSinceCheckpoint = false;
 
         if (node.hasBeforeClientResponseEntries()) {
             pendingExecutionNodes.add(node);
@@ -245,6 +253,7 @@ public class StateTree implements NodeOwner {
         }
 
         pendingExecutionNodes.remove(node);
+        unchangedSinceCheckpoint = false;
     }
 
     @Override
@@ -302,6 +311,27 @@ public class StateTree implements NodeOwner {
         checkHasLock();
 
         dirtyNodes.add(node);
+        unchangedSinceCheckpoint = false;
+    }
+
+    /**
+     * Checks whether any node has been attached, detached or marked as dirty
+     * since the previous call to this method, and starts a new checkpoint.
+     * <p>
+     * Unlike {@link #hasDirtyNodes()}, this is independent of what has been
+     * sent to the client and is meant for e.g. replicating the tree only when
+     * it has changed. Only the tree as a whole is tracked: the result does not
+     * tell which nodes have changed, so a changed tree must be replicated in
+     * full.
+     *
+     * @return <code>true</code> if the tree has changed since the previous
+     *         checkpoint, or if this is the first checkpoint,
+     *         <code>false</code> otherwise
+     */
+    public boolean checkpointChanges() {
+        boolean changed = !unchangedSinceCheckpoint;
+        unchangedSinceCheckpoint = true;
+        return changed;
     }
 
     /**
@@ -443,6 +443,24 @@ public class ElementListenerMap extends NodeMap {
         listeners.forEach(listener -> listener.handleEvent(event));
     }
 
+    /**
+     * Gets the number of DOM event listeners registered for all event types.
+     * Used for diagnostics.
+     *
+     * @return the number of listeners
+     */
+    public int getListenerCount() {
+        if (listeners == null) {
+            return 0;
+        }
+        int count = 0;
+        for (List<DomEventListenerWrapper> typeListeners : listeners
+                .values()) {
+            count += typeListeners.size();
+        }
+        return count;
+    }
+
     /**
      * Gets the event data expressions defined for the given event name. This
      * method is currently only provided to facilitate unit testing.
@@ -143,4 +143,15 @@ public abstract class NodeFeature implements Serializable {
     public boolean allowsChanges() {
         return true;
     }
+
+    /**
+     * Gets the number of entries stored in this feature, e.g. the number of
+     * keys of a map or the number of items of a list. Used for diagnostics.
+     *
+     * @return the number of entries, <code>0</code> if the feature doesn't
+     *         store entries
+     */
+    public int getEntryCount() {
+        return 0;
+    }
 }
@@ -356,6 +356,11 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
     public void forEachChild(Consumer<StateNode> action) {
     }
 
+    @Override
+    public int getEntryCount() {
+        return values == null ? 0 : values.size();
+    }
+
     @Override
     public void generateChangesFromEmpty() {
         if (isRemoveAllCalled) {
@@ -17,11 +17,16 @@
 package com.vaadin.flow.internal.nodefeature;
 
 import java.io.Serializable;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -46,6 +51,13 @@ public abstract class NodeMap extends NodeFeature {
     private static final Serializable REMOVED_MARKER = new UniqueSerializable() {
     };
 
+    /**
+     * The maximum number of values stored in arrays before switching to a hash
+     * map. A linear scan of a few keys is faster than hashing and the arrays
+     * take a fraction of the memory of a hash map.
+     */
+    static final int MAX_ARRAY_VALUES = 8;
+
     private interface Values extends Serializable {
         int size();
 
@@ -114,6 +126,153 @@ public abstract class NodeMap extends NodeFeature {
         }
     }
 
+    private static class ArrayValues implements Values {
+
+        private String[] keys;
+
+        private Serializable[] values;
+
+        private int size;
+
+        /**
+         * The number of times keys have been added or removed, for failing
+         * fast when the key set is modified while iterated.
+         */
+        private transient int modCount;
+
+        public ArrayValues(Values previousValues) {
+            int capacity = Math.max(4, previousValues.size() + 1);
+            keys = new String[capacity];
+            values = new Serializable[capacity];
+            previousValues.keySet()
+                    .forEach(key -> set(key, previousValues.get(key)));
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Serializable get(String key) {
+            int index = indexOf(key);
+            return index < 0 ? null : values[index];
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return new ArrayKeySet(this);
+        }
+
+        @Override
+        public boolean containsKey(String key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public Stream<Serializable> streamValues() {
+            return Arrays.stream(values, 0, size);
+        }
+
+        @Override
+        public void set(String key, Serializable value) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                values[index] = value;
+                return;
+            }
+            assert size < MAX_ARRAY_VALUES;
+            if (size == keys.length) {
+                int capacity = Math.min(size * 2, MAX_ARRAY_VALUES);
+                keys = Arrays.copyOf(keys, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            keys[size] = key;
+            values[size] = value;
+            size++;
+            modCount++;
+        }
+
+        public Serializable remove(String key) {
+            int index = indexOf(key);
+            if (index < 0) {
+                return null;
+            }
+            Serializable oldValue = values[index];
+            // Keep the insertion order
+            int moved = size - index - 1;
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+            size--;
+            keys[size] = null;
+            values[size] = null;
+            modCount++;
+            return oldValue;
+        }
+    }
+
+    private static class ArrayKeySet extends AbstractSet<String>
+            implements Serializable {
+
+        private final ArrayValues values;
+
+        private ArrayKeySet(ArrayValues values) {
+            this.values = values;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new ArrayKeyIterator(values);
+        }
+
+        @Override
+        public int size() {
+            return values.size;
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return key instanceof String
+                    && values.containsKey((String) key);
+        }
+    }
+
+    private static class ArrayKeyIterator implements Iterator<String> {
+        private final ArrayValues values;
+        private final int expectedModCount;
+        private int index;
+
+        private ArrayKeyIterator(ArrayValues values) {
+            this.values = values;
+            expectedModCount = values.modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < values.size;
+        }
+
+        @Override
+        public String next() {
+            if (values.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (index >= values.size) {
+                throw new NoSuchElementException();
+            }
+            return values.keys[index++];
+        }
+    }
+
     private static class HashMapValues extends HashMap<String, Serializable>
             implements Values {
 
@@ -199,11 +358,15 @@ public abstract class NodeMap extends NodeFeature {
             setUnChanged(key);
         }
 
-        // Optimize memory use when there's only one key
+        // Optimize memory use when there's only one or a few keys
         if (values == null) {
             values = new SingleValue(key, value);
         } else {
             if (values instanceof SingleValue && !values.containsKey(key)) {
+                values = new ArrayValues(values);
+            } else if (values instanceof ArrayValues
+                    && values.size() == MAX_ARRAY_VALUES
+                    && !values.containsKey(key)) {
                 values = new HashMapValues(values);
             }
             values.set(key, value);
@@ -350,6 +513,13 @@ public abstract class NodeMap extends NodeFeature {
             if (values.containsKey(key)) {
                 values = null;
             }
+        } else if (values instanceof ArrayValues) {
+            ArrayValues arrayValues = (ArrayValues) values;
+            oldValue = arrayValues.remove(key);
+
+            if (arrayValues.isEmpty()) {
+                values = null;
+            }
         } else {
             assert values instanceof HashMapValues;
             HashMapValues hashMapValues = (HashMapValues) values;
@@ -518,9 +688,19 @@ public abstract class NodeMap extends NodeFeature {
         return !hadValueEarlier || !Objects.equals(newValue, values.get(key));
     }
 
+    @Override
+    public int getEntryCount() {
+        return values == null ? 0 : values.size();
+    }
+
     // Exposed for testing purposes
     boolean usesSingleMap() {
         return values instanceof SingleValue;
     }
 
+    // Exposed for testing purposes
+    boolean usesArrayValues() {
+        return values instanceof ArrayValues;
+    }
+
 }
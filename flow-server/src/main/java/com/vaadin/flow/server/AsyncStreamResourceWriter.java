@@ -0,0 +1,100 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * Stream resource writer which produces its data in chunks whenever the client
+ * connection is ready to accept more data.
+ * <p>
+ * When the servlet container supports asynchronous processing, the request
+ * thread is released once the download has been started and the chunks are
+ * written by the container only when the previous ones have been sent, so a
+ * slow client does not hold a container thread for the duration of the
+ * download. Otherwise the chunks are written one after another on the request
+ * thread.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+@FunctionalInterface
+public interface AsyncStreamResourceWriter extends StreamResourceWriter {
+
+    /**
+     * Writer for the chunks of a single download.
+     */
+    @FunctionalInterface
+    interface ChunkWriter extends Closeable, Serializable {
+
+        /**
+         * Writes the next chunk of data to the {@code stream}.
+         * <p>
+         * Each invocation should write a limited amount of data, for instance
+         * up to some tens of kilobytes, and return without blocking for longer
+         * periods of time.
+         *
+         * @param stream
+         *            data output stream
+         * @return <code>true</code> if there is more data to write,
+         *         <code>false</code> if all data has been written
+         * @throws IOException
+         *             if an IO error occurred
+         */
+        boolean writeNext(OutputStream stream) throws IOException;
+
+        /**
+         * Releases the resources of the download. Called once the download
+         * has finished, failed or been aborted by the client.
+         *
+         * @throws IOException
+         *             if an IO error occurred
+         */
+        @Override
+        default void close() throws IOException {
+            // Nothing to release by default
+        }
+    }
+
+    /**
+     * Starts a new download using {@code session} as a context.
+     * <p>
+     * Note that the method is not called under the session lock. It means that
+     * if implementation requires access to the application/session data then
+     * the session has to be locked explicitly.
+     *
+     * @param session
+     *            vaadin session
+     * @return the writer for the chunks of the download, not
+     *         <code>null</code>
+     * @throws IOException
+     *             if an IO error occurred
+     */
+    ChunkWriter start(VaadinSession session) throws IOException;
+
+    @Override
+    default void accept(OutputStream stream, VaadinSession session)
+            throws IOException {
+        try (ChunkWriter chunkWriter = start(session)) {
+            while (chunkWriter.writeNext(stream)) {
+                // Write all chunks on the calling thread
+            }
+        }
+    }
+}
@@ -16,7 +16,9 @@
 package com.vaadin.flow.server;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * The {@link Attributes} class represents a set of attributes.
@@ -142,4 +144,13 @@ public class Attributes implements Serializable {
         return attributes.isEmpty();
     }
 
+    /**
+     * Gets all stored attributes.
+     *
+     * @return an unmodifiable map of the stored values by name, not
+     *         <code>null</code>
+     */
+    Map<String, Object> getMap() {
+        return Collections.unmodifiableMap(attributes);
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link UIPassivationStore} which keeps the serialized UIs as files in a
+ * local directory.
+ * <p>
+ * Since the files are local to the node, another node of a cluster can only
+ * restore the UIs included in a serialized copy of their session.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class FileUIPassivationStore implements UIPassivationStore {
+
+    private final Path directory;
+
+    /**
+     * Creates a new store keeping the serialized UIs in the given directory.
+     * The directory is created if it does not exist.
+     *
+     * @param directory
+     *            the directory to use, not <code>null</code>
+     * @throws IOException
+     *             if the directory could not be created
+     */
+    public FileUIPassivationStore(Path directory) throws IOException {
+        this.directory = Objects.requireNonNull(directory);
+        Files.createDirectories(directory);
+    }
+
+    @Override
+    public void store(String key, byte[] data) throws IOException {
+        Files.write(getFile(key), data);
+    }
+
+    @Override
+    public byte[] load(String key) throws IOException {
+        Path file = getFile(key);
+        try {
+            byte[] data = Files.readAllBytes(file);
+            Files.deleteIfExists(file);
+            return data;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public byte[] read(String key) throws IOException {
+        try {
+            return Files.readAllBytes(getFile(key));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        try {
+            Files.deleteIfExists(getFile(key));
+        } catch (IOException e) {
+            getLogger().debug("Failed to remove passivated UI {}", key, e);
+        }
+    }
+
+    /**
+     * Removes all stored UIs and the directory of the store.
+     */
+    @Override
+    public void destroy() {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> remove(file.getFileName().toString()));
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            getLogger().debug("Failed to remove the directory {}", directory,
+                    e);
+        }
+    }
+
+    private Path getFile(String key) {
+        Path file = directory.resolve(key);
+        if (!directory.equals(file.getParent())) {
+            throw new IllegalArgumentException("Invalid key: " + key);
+        }
+        return file;
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(FileUIPassivationStore.class);
+    }
+}
@@ -17,6 +17,7 @@ package com.vaadin.flow.server;
 
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +32,15 @@ import org.slf4j.LoggerFactory;
 public class FutureAccess extends FutureTask<Void> {
     private final VaadinSession session;
     private final Command command;
+    private final Object key;
+    private final long creationNanos = System.nanoTime();
+
+    /**
+     * The task to run in place of this one when dequeued: this task or the
+     * most recent task with the same key, or <code>null</code> once dequeued.
+     * Only used for tasks with a key.
+     */
+    private final AtomicReference<FutureAccess> latest;
 
     /**
      * Creates an instance for the given command.
@@ -41,9 +51,37 @@ public class FutureAccess extends FutureTask<Void> {
      *            the command to run when this task is purged from the queue
      */
     public FutureAccess(VaadinSession session, Command command) {
+        this(session, command, null);
+    }
+
+    /**
+     * Creates an instance for the given command, replacing any pending task
+     * with the same key when added to a {@link PendingAccessQueue}.
+     *
+     * @param session
+     *            the session to which the task belongs
+     * @param command
+     *            the command to run when this task is purged from the queue
+     * @param key
+     *            the key identifying the tasks which replace each other, or
+     *            <code>null</code> to never replace other tasks
+     */
+    public FutureAccess(VaadinSession session, Command command, Object key) {
         super(command::execute, null);
         this.session = session;
         this.command = command;
+        this.key = key;
+        latest = key == null ? null : new AtomicReference<>(this);
+    }
+
+    /**
+     * Gets the key identifying the tasks which replace each other.
+     *
+     * @return the key, or <code>null</code> if this task never replaces other
+     *         tasks
+     */
+    public Object getKey() {
+        return key;
     }
 
     @Override
@@ -91,6 +129,50 @@ public class FutureAccess extends FutureTask<Void> {
         }
     }
 
+    /**
+     * Makes the given task run in place of this queued task, unless this task
+     * has already been dequeued.
+     *
+     * @param replacement
+     *            the task with the same key to run instead
+     * @return the replaced task, i.e. this task or the task which previously
+     *         replaced it, or <code>null</code> if this task has already been
+     *         dequeued
+     */
+    FutureAccess replaceLatest(FutureAccess replacement) {
+        return latest.getAndUpdate(
+                current -> current == null ? null : replacement);
+    }
+
+    /**
+     * Gets the task to run in place of this queued task, without dequeuing
+     * it.
+     *
+     * @return the task to run, not <code>null</code>
+     */
+    FutureAccess getLatest() {
+        FutureAccess access = latest == null ? null : latest.get();
+        return access == null ? this : access;
+    }
+
+    /**
+     * Marks this task as dequeued, so that it can no longer be replaced.
+     *
+     * @return the task to run in place of this one, not <code>null</code>
+     */
+    FutureAccess dequeue() {
+        return latest == null ? this : latest.getAndSet(null);
+    }
+
+    /**
+     * Gets the time when this task was created, i.e. submitted.
+     *
+     * @return the creation time in {@link System#nanoTime()} units
+     */
+    long getCreationNanos() {
+        return creationNanos;
+    }
+
     private static Logger getLogger() {
         return LoggerFactory.getLogger(FutureAccess.class.getName());
     }
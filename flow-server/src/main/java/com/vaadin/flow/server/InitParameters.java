@@ -71,6 +71,84 @@ public class InitParameters implements Serializable {
      */
     public static final String SERVLET_PARAMETER_BROTLI = "brotli";
 
+    /**
+     * Configuration name for the parameter that determines whether static
+     * resources served by {@link StaticFileServer} in production mode should
+     * be cached in memory together with their ETag and available precompressed
+     * variants.
+     */
+    public static final String SERVLET_PARAMETER_STATIC_RESOURCE_CACHE = "staticResourceCache.enabled";
+
+    /**
+     * Configuration name for the maximum total size in bytes of the static
+     * resource contents kept in memory when
+     * {@link #SERVLET_PARAMETER_STATIC_RESOURCE_CACHE} is enabled.
+     */
+    public static final String SERVLET_PARAMETER_STATIC_RESOURCE_CACHE_SIZE = "staticResourceCache.maxSize";
+
+    /**
+     * Configuration name for the interval in seconds at which a background
+     * task closes and removes the UIs of all sessions whose heartbeat has
+     * expired. Disabled unless set to a positive value, in which case inactive
+     * UIs are only removed at the end of requests to their session.
+     */
+    public static final String SERVLET_PARAMETER_SESSION_SWEEP_INTERVAL = "sessionSweepInterval";
+
+    /**
+     * Configuration name for enabling the footprint report of the UIs of a
+     * session, requested with <code>v-r=footprint</code>. The report lists
+     * state node, node feature and listener counts by component type. Only
+     * the UIs of the requesting session are reported. Disabled by default.
+     */
+    public static final String SERVLET_PARAMETER_UI_FOOTPRINT_REPORT = "uiFootprintReport";
+
+    /**
+     * Configuration name for the maximum number of pending tasks submitted
+     * using {@link VaadinSession#access(Command)} by background threads, per
+     * session. Tasks submitted while handling a request are not limited.
+     * Unlimited unless set to a positive value.
+     *
+     * @see #SERVLET_PARAMETER_PENDING_ACCESS_QUEUE_OVERFLOW
+     */
+    public static final String SERVLET_PARAMETER_PENDING_ACCESS_QUEUE_LIMIT = "pendingAccessQueueLimit";
+
+    /**
+     * Configuration name for the {@link PendingAccessQueue.OverflowPolicy}
+     * applied when a background task is submitted to a session whose pending
+     * access queue is full, either <code>REJECT</code> (the default) or
+     * <code>DISCARD_OLDEST</code>.
+     *
+     * @see #SERVLET_PARAMETER_PENDING_ACCESS_QUEUE_LIMIT
+     */
+    public static final String SERVLET_PARAMETER_PENDING_ACCESS_QUEUE_OVERFLOW = "pendingAccessQueueOverflow";
+
+    /**
+     * Configuration name for the time in seconds after which a UI that has
+     * not received any UIDL requests is serialized to a
+     * {@link UIPassivationStore} and removed from its session. The UI is
+     * restored on the next request that needs it, heartbeat requests keep it
+     * alive without restoring it. UIs using push or polling are never
+     * passivated. Passivation is done by the session sweeper, see
+     * {@link #SERVLET_PARAMETER_SESSION_SWEEP_INTERVAL}. Disabled unless set
+     * to a positive value.
+     * <p>
+     * Only enable this for applications whose UIs are not referenced from
+     * outside their own component tree. The passivated UI instance is
+     * detached and its restored copy attached again, so references held by
+     * detach aware listeners are fine, but any other outside reference keeps
+     * pointing to the detached instance and {@code UI.access} on it fails.
+     * Objects shared with other UIs and not stored as session attributes are
+     * copied when the UI is restored.
+     */
+    public static final String SERVLET_PARAMETER_UI_PASSIVATION_TIMEOUT = "uiPassivationTimeout";
+
+    /**
+     * Configuration name for the number of session deltas passed to
+     * {@link SessionReplicationListener}s between two full snapshots of a
+     * session. Defaults to 20, 0 makes every replication a full snapshot.
+     */
+    public static final String SERVLET_PARAMETER_SESSION_REPLICATION_SNAPSHOT_INTERVAL = "sessionReplicationSnapshotInterval";
+
     /**
      * Configuration name for the WebPack profile statistics json file to use to
      * determine template contents.
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * The queue of tasks submitted using {@link VaadinSession#access(Command)}.
+ * <p>
+ * Tasks submitted while handling a request, i.e. in response to user
+ * interaction, are run before tasks submitted by background threads. Each
+ * group is run in submission order. A task with a
+ * {@link FutureAccess#getKey() key} replaces the pending task with the same
+ * key, which is cancelled. The replacement is run in the place of the
+ * replaced task in the queue. The number of pending background tasks
+ * can be limited with
+ * {@link InitParameters#SERVLET_PARAMETER_PENDING_ACCESS_QUEUE_LIMIT}.
+ * <p>
+ * The queue also collects metrics on its depth and on the time tasks wait in
+ * it before being run. It is safe to use without holding the session lock.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class PendingAccessQueue extends AbstractQueue<FutureAccess> {
+
+    /**
+     * What to do when a background task is submitted to a queue which has
+     * reached its limit.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Rejects the submitted task by throwing a
+         * {@link java.util.concurrent.RejectedExecutionException} to the
+         * submitting thread.
+         */
+        REJECT,
+        /**
+         * Cancels the oldest pending background task to make room for the
+         * submitted task.
+         */
+        DISCARD_OLDEST
+    }
+
+    private final Queue<FutureAccess> interactive = new ConcurrentLinkedQueue<>();
+    private final Queue<FutureAccess> background = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backgroundSize = new AtomicInteger();
+    private final Map<Object, FutureAccess> pendingByKey = new ConcurrentHashMap<>();
+
+    private final AtomicInteger maxSize = new AtomicInteger();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong discardedCount = new AtomicLong();
+    private final AtomicLong replacedCount = new AtomicLong();
+    private final AtomicLong polledCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Adds a background task to the queue.
+     *
+     * @param access
+     *            the task to add, not <code>null</code>
+     * @return <code>true</code>
+     */
+    @Override
+    public boolean offer(FutureAccess access) {
+        return offer(access, false);
+    }
+
+    /**
+     * Adds a task to the queue.
+     *
+     * @param access
+     *            the task to add, not <code>null</code>
+     * @param interactive
+     *            <code>true</code> if the task was submitted in response to
+     *            user interaction, <code>false</code> for background tasks
+     * @return <code>true</code>
+     */
+    public boolean offer(FutureAccess access, boolean interactive) {
+        if (access.getKey() == null) {
+            add(access, interactive);
+        } else {
+            // Atomic with polling the pending task, which removes its key
+            pendingByKey.compute(access.getKey(), (key, pending) -> {
+                if (pending != null && replace(pending, access)) {
+                    return pending;
+                }
+                add(access, interactive);
+                return access;
+            });
+        }
+        maxSize.accumulateAndGet(size(), Math::max);
+        return true;
+    }
+
+    private void add(FutureAccess access, boolean interactive) {
+        if (interactive) {
+            this.interactive.add(access);
+        } else {
+            background.add(access);
+            backgroundSize.incrementAndGet();
+        }
+    }
+
+    /**
+     * Adds a background task to the queue unless the number of pending
+     * background tasks has reached the given limit, in which case the given
+     * policy is applied.
+     *
+     * @param access
+     *            the task to add, not <code>null</code>
+     * @param limit
+     *            the maximum number of pending background tasks
+     * @param policy
+     *            what to do if the limit has been reached, not
+     *            <code>null</code>
+     * @return <code>true</code> if the task was added, <code>false</code> if
+     *         it was rejected
+     */
+    synchronized boolean offerBackground(FutureAccess access, int limit,
+            OverflowPolicy policy) {
+        // Replacing a pending task takes no room
+        if (replacePending(access)) {
+            return true;
+        }
+        while (backgroundSize.get() >= limit) {
+            if (policy == OverflowPolicy.REJECT) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            FutureAccess oldest = pollBackground();
+            if (oldest == null) {
+                break;
+            }
+            oldest.cancel(false);
+            discardedCount.incrementAndGet();
+        }
+        return offer(access, false);
+    }
+
+    private boolean replacePending(FutureAccess access) {
+        if (access.getKey() == null) {
+            return false;
+        }
+        return pendingByKey.computeIfPresent(access.getKey(),
+                (key, pending) -> replace(pending, access) ? pending
+                        : null) != null;
+    }
+
+    private boolean replace(FutureAccess pending, FutureAccess access) {
+        FutureAccess replaced = pending.replaceLatest(access);
+        // Not replaced if it has already been polled
+        if (replaced == null) {
+            return false;
+        }
+        replaced.cancel(false);
+        replacedCount.incrementAndGet();
+        return true;
+    }
+
+    private FutureAccess pollBackground() {
+        FutureAccess access = background.poll();
+        if (access != null) {
+            backgroundSize.decrementAndGet();
+            access = dequeue(access);
+        }
+        return access;
+    }
+
+    private FutureAccess dequeue(FutureAccess access) {
+        if (access.getKey() != null) {
+            pendingByKey.remove(access.getKey(), access);
+        }
+        return access.dequeue();
+    }
+
+    @Override
+    public FutureAccess poll() {
+        FutureAccess access = interactive.poll();
+        if (access != null) {
+            access = dequeue(access);
+        } else {
+            access = pollBackground();
+        }
+        if (access != null) {
+            long waitNanos = System.nanoTime() - access.getCreationNanos();
+            polledCount.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+        return access;
+    }
+
+    @Override
+    public FutureAccess peek() {
+        FutureAccess access = interactive.peek();
+        if (access == null) {
+            access = background.peek();
+        }
+        return access == null ? null : access.getLatest();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return interactive.isEmpty() && background.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return interactive.size() + backgroundSize.get();
+    }
+
+    /**
+     * Gets an iterator over the pending tasks in the order they will be run.
+     * The iterator doesn't support removing tasks.
+     *
+     * @return an iterator over the pending tasks
+     */
+    @Override
+    public Iterator<FutureAccess> iterator() {
+        return Stream.concat(interactive.stream(), background.stream())
+                .map(FutureAccess::getLatest).iterator();
+    }
+
+    /**
+     * Gets the number of pending background tasks.
+     *
+     * @return the number of pending background tasks
+     */
+    public int getBackgroundSize() {
+        return backgroundSize.get();
+    }
+
+    /**
+     * Gets the largest number of pending tasks seen at once.
+     *
+     * @return the maximum depth of the queue
+     */
+    public int getMaxSize() {
+        return maxSize.get();
+    }
+
+    /**
+     * Gets the number of background tasks rejected because the queue was
+     * full.
+     *
+     * @return the number of rejected tasks
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Gets the number of pending background tasks cancelled to make room for
+     * newer tasks.
+     *
+     * @return the number of discarded tasks
+     */
+    public long getDiscardedCount() {
+        return discardedCount.get();
+    }
+
+    /**
+     * Gets the number of pending tasks cancelled because a task with the same
+     * key was added.
+     *
+     * @return the number of replaced tasks
+     */
+    public long getReplacedCount() {
+        return replacedCount.get();
+    }
+
+    /**
+     * Gets the average time tasks have waited in the queue before being run.
+     *
+     * @return the average wait time in milliseconds, <code>0</code> if no
+     *         task has been run
+     */
+    public long getAverageWaitTime() {
+        long count = polledCount.get();
+        return count == 0 ? 0
+                : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / count);
+    }
+
+    /**
+     * Gets the longest time a task has waited in the queue before being run.
+     *
+     * @return the maximum wait time in milliseconds
+     */
+    public long getMaxWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+}
@@ -28,6 +28,8 @@ import java.util.Map;
 
 import org.jsoup.nodes.Element;
 
+import com.vaadin.flow.function.SerializableSupplier;
+
 /**
  * Implementation of icons used in PWA resources.
  *
@@ -59,6 +61,7 @@ public class PwaIcon implements Serializable {
     private String baseName;
     private Domain domain;
     private byte[] data;
+    private SerializableSupplier<byte[]> dataSupplier;
 
     private final Map<String, String> attributes = new HashMap<>();
     private String tag = "link";
@@ -211,6 +214,7 @@ public class PwaIcon implements Serializable {
             ImageIO.write(image, "png", stream);
             stream.flush();
             data = stream.toByteArray();
+            dataSupplier = null;
             fileHash = Arrays.hashCode(data);
             setRelativeName();
         } catch (IOException ioe) {
@@ -218,6 +222,45 @@ public class PwaIcon implements Serializable {
         }
     }
 
+    /**
+     * Sets the supplier of the png image data presenting the icon.
+     * <p>
+     * The image is produced only when the icon is written for the first time,
+     * so the {@code fileHash} identifying the image contents needs to be
+     * known upfront.
+     *
+     * @param fileHash
+     *            the hash identifying the image contents
+     * @param dataSupplier
+     *            the supplier of the image in png format, not
+     *            <code>null</code>
+     */
+    void setImage(long fileHash, SerializableSupplier<byte[]> dataSupplier) {
+        synchronized (this) {
+            this.data = null;
+            this.dataSupplier = dataSupplier;
+        }
+        this.fileHash = fileHash;
+        setRelativeName();
+    }
+
+    /**
+     * Gets the hash identifying the image contents.
+     *
+     * @return the hash of the image
+     */
+    public long getFileHash() {
+        return fileHash;
+    }
+
+    private synchronized byte[] getData() {
+        if (data == null && dataSupplier != null) {
+            data = dataSupplier.get();
+            dataSupplier = null;
+        }
+        return data;
+    }
+
     /**
      * Writes the icon image to output stream.
      *
@@ -226,7 +269,7 @@ public class PwaIcon implements Serializable {
      */
     public void write(OutputStream outputStream) {
         try {
-            outputStream.write(data);
+            outputStream.write(getData());
         } catch (IOException ioe) {
             throw new UncheckedIOException(
                     "Failed to store the icon image into the stream provided",
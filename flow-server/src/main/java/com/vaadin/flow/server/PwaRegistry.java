@@ -16,6 +16,7 @@
 package com.vaadin.flow.server;
 
 import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
 import javax.servlet.ServletContext;
 
 import java.awt.Color;
@@ -23,6 +24,9 @@ import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -32,14 +36,23 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.vaadin.flow.internal.MessageDigestUtil;
 import com.vaadin.flow.server.communication.PwaHandler;
 import com.vaadin.flow.server.startup.ApplicationConfiguration;
 import com.vaadin.flow.server.startup.ApplicationRouteRegistry;
@@ -71,6 +84,7 @@ public class PwaRegistry implements Serializable {
     private static final String APPLE_IMAGE_MEDIA = "(device-width: %dpx) and (device-height: %dpx) "
             + "and (-webkit-device-pixel-ratio: %d)";
     private static final String WORKBOX_CACHE_FORMAT = "{ url: '%s', revision: '%s' }";
+    private static final String ICONS_CACHE = "vaadin-pwa-icons";
 
     private String offlineHtml = "";
     private String manifestJson = "";
@@ -120,18 +134,16 @@ public class PwaRegistry implements Serializable {
 
             // Load base logo from servlet context if available
             // fall back to local image if unavailable
-            BufferedImage baseImage = getBaseImage(logo);
+            byte[] logoData = getLogoData(logo);
 
-            if (baseImage == null) {
+            if (!canReadImage(logoData)) {
                 LoggerFactory.getLogger(PwaRegistry.class).error(
                         "Image is not found or can't be loaded: " + logo);
             } else {
-                // Pick top-left pixel as fill color if needed for image
-                // resizing
-                int bgColor = baseImage.getRGB(0, 0);
-
-                // initialize icons
-                icons = initializeIcons(baseImage, bgColor);
+                // initialize icons, the images are rendered only once they
+                // are requested for the first time
+                icons = initializeIcons(new IconRenderer(logoData,
+                        getIconCacheDirectory(servletContext)));
             }
 
             // Load offline page as string, from servlet context if
@@ -161,52 +173,22 @@ public class PwaRegistry implements Serializable {
         return resourceUrl;
     }
 
-    private List<PwaIcon> initializeIcons(BufferedImage baseImage,
-            int bgColor) {
+    private List<PwaIcon> initializeIcons(IconRenderer renderer) {
         for (PwaIcon icon : getIconTemplates(pwaConfiguration.getIconPath())) {
-            // New image with wanted size
-            icon.setImage(drawIconImage(baseImage, bgColor, icon));
-            // Store byte array and hashcode of image (GeneratedImage)
+            int width = icon.getWidth();
+            int height = icon.getHeight();
+            // Image with wanted size is drawn on first use
+            icon.setImage(renderer.getFileHash(width, height),
+                    () -> renderer.render(width, height));
             icons.add(icon);
         }
         return icons;
     }
 
-    private BufferedImage drawIconImage(BufferedImage baseImage, int bgColor,
-            PwaIcon icon) {
-        BufferedImage bimage = new BufferedImage(icon.getWidth(),
-                icon.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        // Draw the image on to the buffered image
-        Graphics2D graphics = bimage.createGraphics();
-
-        // fill bg with fill-color
-        graphics.setBackground(new Color(bgColor, true));
-        graphics.clearRect(0, 0, icon.getWidth(), icon.getHeight());
-
-        // calculate ratio (bigger ratio) for resize
-        float ratio = (float) baseImage.getWidth()
-                / (float) icon.getWidth() > (float) baseImage.getHeight()
-                        / (float) icon.getHeight()
-                                ? (float) baseImage.getWidth()
-                                        / (float) icon.getWidth()
-                                : (float) baseImage.getHeight()
-                                        / (float) icon.getHeight();
-
-        // Forbid upscaling of image
-        ratio = ratio > 1.0f ? ratio : 1.0f;
-
-        // calculate sizes with ratio
-        int newWidth = Math.round(baseImage.getHeight() / ratio);
-        int newHeight = Math.round(baseImage.getWidth() / ratio);
-
-        // draw rescaled img in the center of created image
-        graphics.drawImage(
-                baseImage.getScaledInstance(newWidth, newHeight,
-                        Image.SCALE_SMOOTH),
-                (icon.getWidth() - newWidth) / 2,
-                (icon.getHeight() - newHeight) / 2, null);
-        graphics.dispose();
-        return bimage;
+    private static File getIconCacheDirectory(ServletContext servletContext) {
+        Object tempDir = servletContext.getAttribute(ServletContext.TEMPDIR);
+        return tempDir instanceof File ? new File((File) tempDir, ICONS_CACHE)
+                : null;
     }
 
     /**
@@ -384,11 +366,20 @@ public class PwaRegistry implements Serializable {
         }
     }
 
-    private BufferedImage getBaseImage(URL logo) throws IOException {
+    private byte[] getLogoData(URL logo) throws IOException {
         URLConnection logoResource = logo != null ? logo.openConnection()
                 : BootstrapHandler.class.getResource("default-logo.png")
                         .openConnection();
-        return ImageIO.read(logoResource.getInputStream());
+        try (InputStream stream = logoResource.getInputStream()) {
+            return IOUtils.toByteArray(stream);
+        }
+    }
+
+    private static boolean canReadImage(byte[] data) throws IOException {
+        try (ImageInputStream stream = ImageIO
+                .createImageInputStream(new ByteArrayInputStream(data))) {
+            return stream != null && ImageIO.getImageReaders(stream).hasNext();
+        }
     }
 
     /**
@@ -509,4 +500,128 @@ public class PwaRegistry implements Serializable {
         return icons;
     }
 
+    /**
+     * Renders the icon images from the base logo on demand.
+     * <p>
+     * Rendered images are stored into the given cache directory, if any, so
+     * that they are not rendered again after a restart as long as the logo
+     * stays the same.
+     */
+    private static class IconRenderer implements Serializable {
+        private final byte[] logoData;
+        private final byte[] logoDigest;
+        private final File cacheDirectory;
+
+        private transient BufferedImage baseImage;
+
+        private IconRenderer(byte[] logoData, File cacheDirectory) {
+            this.logoData = logoData;
+            this.logoDigest = MessageDigestUtil.sha256(logoData);
+            this.cacheDirectory = cacheDirectory;
+        }
+
+        private long getFileHash(int width, int height) {
+            return Objects.hash(Arrays.hashCode(logoDigest), width, height);
+        }
+
+        private byte[] render(int width, int height) {
+            File cacheFile = cacheDirectory == null ? null
+                    : new File(cacheDirectory,
+                            Base64.getUrlEncoder().withoutPadding()
+                                    .encodeToString(logoDigest) + "-" + width
+                                    + "x" + height + ".png");
+            if (cacheFile != null && cacheFile.isFile()) {
+                try {
+                    return Files.readAllBytes(cacheFile.toPath());
+                } catch (IOException e) {
+                    getLogger().debug("Failed to read cached icon {}",
+                            cacheFile, e);
+                }
+            }
+
+            byte[] data;
+            try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
+                ImageIO.write(drawIconImage(getBaseImage(), width, height),
+                        "png", stream);
+                data = stream.toByteArray();
+            } catch (IOException ioe) {
+                throw new UncheckedIOException("Failed to write an image ",
+                        ioe);
+            }
+
+            if (cacheFile != null) {
+                storeCachedIcon(cacheFile, data);
+            }
+            return data;
+        }
+
+        private synchronized BufferedImage getBaseImage() throws IOException {
+            if (baseImage == null) {
+                baseImage = ImageIO.read(new ByteArrayInputStream(logoData));
+                if (baseImage == null) {
+                    throw new IOException("Unable to decode the icon image");
+                }
+            }
+            return baseImage;
+        }
+
+        private static void storeCachedIcon(File cacheFile, byte[] data) {
+            Path target = cacheFile.toPath();
+            Path temp = null;
+            try {
+                Files.createDirectories(target.getParent());
+                temp = Files.createTempFile(target.getParent(),
+                        cacheFile.getName(), ".tmp");
+                Files.write(temp, data);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                getLogger().debug("Failed to cache icon {}", cacheFile, e);
+                if (temp != null) {
+                    temp.toFile().delete();
+                }
+            }
+        }
+
+        private static BufferedImage drawIconImage(BufferedImage baseImage,
+                int width, int height) {
+            BufferedImage bimage = new BufferedImage(width, height,
+                    BufferedImage.TYPE_INT_ARGB);
+            // Draw the image on to the buffered image
+            Graphics2D graphics = bimage.createGraphics();
+
+            // Pick top-left pixel as fill color if needed for image resizing
+            graphics.setBackground(new Color(baseImage.getRGB(0, 0), true));
+            graphics.clearRect(0, 0, width, height);
+
+            // calculate ratio (bigger ratio) for resize
+            float ratio = (float) baseImage.getWidth()
+                    / (float) width > (float) baseImage.getHeight()
+                            / (float) height
+                                    ? (float) baseImage.getWidth()
+                                            / (float) width
+                                    : (float) baseImage.getHeight()
+                                            / (float) height;
+
+            // Forbid upscaling of image
+            ratio = ratio > 1.0f ? ratio : 1.0f;
+
+            // calculate sizes with ratio
+            int newWidth = Math.round(baseImage.getHeight() / ratio);
+            int newHeight = Math.round(baseImage.getWidth() / ratio);
+
+            // draw rescaled img in the center of created image
+            graphics.drawImage(
+                    baseImage.getScaledInstance(newWidth, newHeight,
+                            Image.SCALE_SMOOTH),
+                    (width - newWidth) / 2, (height - newHeight) / 2, null);
+            graphics.dispose();
+            return bimage;
+        }
+
+        private static Logger getLogger() {
+            return LoggerFactory.getLogger(PwaRegistry.class);
+        }
+    }
+
 }
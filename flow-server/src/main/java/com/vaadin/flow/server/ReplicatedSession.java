@@ -0,0 +1,135 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The replicated state of a {@link VaadinSession}, built by applying the
+ * {@link SessionDelta}s received from the node owning the session.
+ * <p>
+ * A replication layer keeps one instance per replicated session and restores
+ * the session from it on failover. Instances are thread safe.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class ReplicatedSession implements Serializable {
+
+    private byte[] sessionData;
+    private final Map<String, byte[]> attributeData = new HashMap<>();
+    private final Set<String> removedAttributes = new HashSet<>();
+    private final Map<Integer, byte[]> uiData = new HashMap<>();
+    private final Set<Integer> removedUIs = new HashSet<>();
+
+    /**
+     * Applies a delta on top of the previously applied ones. A full snapshot
+     * replaces all previously applied state.
+     *
+     * @param delta
+     *            the delta to apply, not <code>null</code>
+     * @throws IllegalStateException
+     *             if the delta is not a full snapshot and no full snapshot
+     *             has been applied
+     */
+    public synchronized void apply(SessionDelta delta) {
+        if (delta.isFullSnapshot()) {
+            sessionData = delta.getSessionData();
+            attributeData.clear();
+            removedAttributes.clear();
+            uiData.clear();
+            removedUIs.clear();
+            return;
+        } else if (sessionData == null) {
+            throw new IllegalStateException(
+                    "A full snapshot must be applied before any delta");
+        }
+        attributeData.putAll(delta.getAttributeData());
+        removedAttributes.removeAll(delta.getAttributeData().keySet());
+        delta.getRemovedAttributes().forEach(attributeData::remove);
+        removedAttributes.addAll(delta.getRemovedAttributes());
+
+        uiData.putAll(delta.getUIData());
+        removedUIs.removeAll(delta.getUIData().keySet());
+        delta.getRemovedUIs().forEach(uiData::remove);
+        removedUIs.addAll(delta.getRemovedUIs());
+    }
+
+    /**
+     * Checks whether a full snapshot has been applied, i.e. whether the
+     * session can be restored.
+     *
+     * @return <code>true</code> if the session can be restored,
+     *         <code>false</code> otherwise
+     */
+    public synchronized boolean hasSnapshot() {
+        return sessionData != null;
+    }
+
+    /**
+     * Restores the session with its UIs. The restored session must be stored
+     * in the HTTP session in place of the one originally serialized, it is
+     * initialized by {@link VaadinService} when loaded.
+     * <p>
+     * The session attributes and UIs of the latest snapshot are replaced by
+     * those in the later deltas. A UI from a delta refers to the restored
+     * values of the session attributes it shared, but a UI or an attribute
+     * from the snapshot refers to its own copies of the objects it shared with
+     * an attribute or a UI which has been replaced by a delta.
+     *
+     * @param classLoader
+     *            the class loader to use, or <code>null</code> to use the
+     *            default resolution
+     * @return the restored session
+     * @throws IOException
+     *             if the data cannot be read
+     * @throws ClassNotFoundException
+     *             if a class of the serialized objects cannot be found
+     * @throws IllegalStateException
+     *             if no full snapshot has been applied
+     */
+    public synchronized VaadinSession restore(ClassLoader classLoader)
+            throws IOException, ClassNotFoundException {
+        if (sessionData == null) {
+            throw new IllegalStateException("No snapshot has been applied");
+        }
+        VaadinSession session = UISerializer.deserializeSession(sessionData,
+                classLoader);
+        for (String name : removedAttributes) {
+            session.restoreAttribute(name, null);
+        }
+        for (Map.Entry<String, byte[]> entry : attributeData.entrySet()) {
+            session.restoreAttribute(entry.getKey(),
+                    UISerializer.deserializeAttributeValue(session,
+                            entry.getValue(), classLoader));
+        }
+        // UIs are restored after the attributes they may refer to
+        for (Integer uiId : removedUIs) {
+            session.restoreUI(uiId, null);
+        }
+        for (Map.Entry<Integer, byte[]> entry : uiData.entrySet()) {
+            session.restoreUI(entry.getKey(),
+                    UISerializer.deserializeReferencingAttributes(session,
+                            entry.getValue(), classLoader));
+        }
+        return session;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.vaadin.flow.shared.ApplicationConstants;
+
+/**
+ * Dispatch table from request types to the request handlers which may handle
+ * them, computed once per service from the ordered request handlers.
+ * <p>
+ * The handlers for a request type are the handlers which are not
+ * {@link TypedRequestHandler}s and the typed handlers declaring the type, in
+ * their original order. Requests of undeclared types are only passed to the
+ * untyped handlers.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+class RequestHandlerDispatcher implements Serializable {
+
+    private final Map<String, List<RequestHandler>> handlersByType = new HashMap<>();
+    private final List<RequestHandler> untypedHandlers;
+
+    /**
+     * Creates a dispatch table for the given handlers.
+     *
+     * @param handlers
+     *            the handlers in the order they are invoked
+     */
+    RequestHandlerDispatcher(Iterable<RequestHandler> handlers) {
+        Set<String> types = new HashSet<>();
+        for (RequestHandler handler : handlers) {
+            if (handler instanceof TypedRequestHandler) {
+                types.addAll(((TypedRequestHandler) handler).getRequestTypes());
+            }
+        }
+        for (String type : types) {
+            handlersByType.put(type, filter(handlers, type));
+        }
+        untypedHandlers = filter(handlers, null);
+    }
+
+    private static List<RequestHandler> filter(
+            Iterable<RequestHandler> handlers, String type) {
+        List<RequestHandler> filtered = new ArrayList<>();
+        for (RequestHandler handler : handlers) {
+            if (!(handler instanceof TypedRequestHandler) || (type != null
+                    && ((TypedRequestHandler) handler).getRequestTypes()
+                            .contains(type))) {
+                filtered.add(handler);
+            }
+        }
+        return Collections.unmodifiableList(filtered);
+    }
+
+    /**
+     * Gets the handlers which may handle the given request.
+     *
+     * @param request
+     *            the request to handle
+     * @return the handlers in the order they should be invoked
+     */
+    List<RequestHandler> getHandlers(VaadinRequest request) {
+        String type = request
+                .getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER);
+        return handlersByType.getOrDefault(
+                type == null ? TypedRequestHandler.NO_REQUEST_TYPE : type,
+                untypedHandlers);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The changes of a {@link VaadinSession} since its previous replication, as
+ * provided to {@link SessionReplicationListener}s.
+ * <p>
+ * A full snapshot contains the whole session serialized with its UIs. Other
+ * deltas contain the serialized session attributes which have been set and
+ * the serialized UIs which have changed since the previous delta. Deltas are
+ * applied to the previous snapshot using a {@link ReplicatedSession}.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class SessionDelta implements Serializable {
+
+    private final byte[] sessionData;
+    private final Map<String, byte[]> attributeData;
+    private final Set<String> removedAttributes;
+    private final Map<Integer, byte[]> uiData;
+    private final Set<Integer> removedUIs;
+
+    /**
+     * Creates a new full snapshot.
+     *
+     * @param sessionData
+     *            the session serialized with its UIs
+     */
+    SessionDelta(byte[] sessionData) {
+        this.sessionData = sessionData;
+        attributeData = Collections.emptyMap();
+        removedAttributes = Collections.emptySet();
+        uiData = Collections.emptyMap();
+        removedUIs = Collections.emptySet();
+    }
+
+    /**
+     * Creates a new delta.
+     *
+     * @param attributeData
+     *            the values of the session attributes set since the previous
+     *            delta serialized, by attribute name
+     * @param removedAttributes
+     *            the names of the session attributes removed since the
+     *            previous delta
+     * @param uiData
+     *            the changed UIs serialized, by UI id
+     * @param removedUIs
+     *            the ids of the UIs removed since the previous delta
+     */
+    SessionDelta(Map<String, byte[]> attributeData,
+            Set<String> removedAttributes, Map<Integer, byte[]> uiData,
+            Set<Integer> removedUIs) {
+        sessionData = null;
+        this.attributeData = Collections.unmodifiableMap(attributeData);
+        this.removedAttributes = Collections
+                .unmodifiableSet(removedAttributes);
+        this.uiData = Collections.unmodifiableMap(uiData);
+        this.removedUIs = Collections.unmodifiableSet(removedUIs);
+    }
+
+    /**
+     * Checks whether this is a full snapshot which replaces any previously
+     * replicated state of the session.
+     *
+     * @return <code>true</code> for a full snapshot, <code>false</code> for a
+     *         delta to be applied on top of the previous ones
+     */
+    public boolean isFullSnapshot() {
+        return sessionData != null;
+    }
+
+    /**
+     * Gets the whole session serialized with its UIs.
+     *
+     * @return the serialized session for a full snapshot, <code>null</code>
+     *         otherwise
+     */
+    public byte[] getSessionData() {
+        return sessionData;
+    }
+
+    /**
+     * Gets the serialized values of the session attributes which have been
+     * set since the previous delta.
+     *
+     * @return an unmodifiable map of serialized attribute values by attribute
+     *         name, empty for a full snapshot
+     */
+    public Map<String, byte[]> getAttributeData() {
+        return attributeData;
+    }
+
+    /**
+     * Gets the names of the session attributes which have been removed since
+     * the previous delta.
+     *
+     * @return an unmodifiable set of attribute names, empty for a full
+     *         snapshot
+     */
+    public Set<String> getRemovedAttributes() {
+        return removedAttributes;
+    }
+
+    /**
+     * Gets the serialized UIs which have changed since the previous delta.
+     *
+     * @return an unmodifiable map of serialized UIs by UI id, empty for a
+     *         full snapshot
+     */
+    public Map<Integer, byte[]> getUIData() {
+        return uiData;
+    }
+
+    /**
+     * Gets the ids of the UIs which have been removed from the session since
+     * the previous delta.
+     *
+     * @return an unmodifiable set of UI ids, empty for a full snapshot
+     */
+    public Set<Integer> getRemovedUIs() {
+        return removedUIs;
+    }
+
+    /**
+     * Gets the total size of the serialized data in this delta.
+     *
+     * @return the size in bytes
+     */
+    public int getSize() {
+        int size = sessionData == null ? 0 : sessionData.length;
+        for (byte[] data : attributeData.values()) {
+            size += data.length;
+        }
+        for (byte[] data : uiData.values()) {
+            size += data.length;
+        }
+        return size;
+    }
+}
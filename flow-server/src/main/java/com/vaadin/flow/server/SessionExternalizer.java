@@ -0,0 +1,232 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serializes session attributes, such as a {@link VaadinSession} with its UIs
+ * and state trees, in a more compact form than default Java serialization.
+ * <p>
+ * The format differs from plain Java serialization in two ways:
+ * <ul>
+ * <li>Class descriptors are written as the class name, the serial version UID
+ * and a hash of the serializable fields instead of the full field layout. The
+ * field layout is taken from the local class when reading, so the data can
+ * only be read by a node running the same build of the application classes,
+ * which is the case for session replication within a cluster. Reading data
+ * written by different classes fails with an {@link InvalidClassException}.
+ * <li>Equal strings are written once and referenced afterwards, which avoids
+ * repeating e.g. tag names, attribute names and property names for every
+ * state node.
+ * </ul>
+ * <p>
+ * Session stores which allow plugging in a custom serializer, such as Spring
+ * Session or Hazelcast, can use this class instead of Java serialization.
+ * Instances are thread safe.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class SessionExternalizer implements Serializable {
+
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<>();
+
+    static {
+        for (Class<?> type : new Class<?>[] { boolean.class, byte.class,
+                char.class, short.class, int.class, long.class, float.class,
+                double.class, void.class }) {
+            PRIMITIVE_TYPES.put(type.getName(), type);
+        }
+    }
+
+    /**
+     * Writes the given object to the given stream. The stream is not closed.
+     *
+     * @param value
+     *            the object to write, may be <code>null</code>
+     * @param out
+     *            the stream to write to, not <code>null</code>
+     * @throws IOException
+     *             if writing fails, e.g. because some object is not
+     *             serializable
+     */
+    public void write(Object value, OutputStream out) throws IOException {
+        ObjectOutputStream objectOut = new CompactOutputStream(out);
+        objectOut.writeObject(value);
+        objectOut.flush();
+    }
+
+    /**
+     * Reads an object written by {@link #write(Object, OutputStream)} from the
+     * given stream. The stream is not closed.
+     *
+     * @param in
+     *            the stream to read from, not <code>null</code>
+     * @param classLoader
+     *            the class loader to load classes with, or <code>null</code>
+     *            to use the default class resolution of
+     *            {@link ObjectInputStream}
+     * @return the read object
+     * @throws IOException
+     *             if reading fails
+     * @throws ClassNotFoundException
+     *             if a class of the serialized objects cannot be found
+     */
+    public Object read(InputStream in, ClassLoader classLoader)
+            throws IOException, ClassNotFoundException {
+        return new CompactInputStream(in, classLoader).readObject();
+    }
+
+    /**
+     * Serializes the given object into a byte array.
+     *
+     * @param value
+     *            the object to serialize, may be <code>null</code>
+     * @return the serialized object
+     * @throws IOException
+     *             if serialization fails
+     */
+    public byte[] toBytes(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        write(value, bytes);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes an object serialized by {@link #toBytes(Object)}.
+     *
+     * @param data
+     *            the serialized object, not <code>null</code>
+     * @param classLoader
+     *            the class loader to load classes with, or <code>null</code>
+     *            to use the default class resolution of
+     *            {@link ObjectInputStream}
+     * @return the deserialized object
+     * @throws IOException
+     *             if deserialization fails
+     * @throws ClassNotFoundException
+     *             if a class of the serialized objects cannot be found
+     */
+    public Object fromBytes(byte[] data, ClassLoader classLoader)
+            throws IOException, ClassNotFoundException {
+        return read(new ByteArrayInputStream(data), classLoader);
+    }
+
+    private static int getFieldsHash(ObjectStreamClass desc) {
+        int hash = 1;
+        for (ObjectStreamField field : desc.getFields()) {
+            hash = 31 * hash + field.getName().hashCode();
+            hash = 31 * hash + field.getTypeCode();
+            if (!field.isPrimitive()) {
+                hash = 31 * hash + field.getTypeString().hashCode();
+            }
+        }
+        return hash;
+    }
+
+    private static class CompactOutputStream extends ObjectOutputStream {
+        private final Map<String, String> strings = new HashMap<>();
+
+        private CompactOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected void writeClassDescriptor(ObjectStreamClass desc)
+                throws IOException {
+            writeUTF(desc.getName());
+            writeLong(desc.getSerialVersionUID());
+            writeInt(getFieldsHash(desc));
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj instanceof String) {
+                // Equal strings become the same instance, which the stream
+                // writes as a back reference
+                return strings.computeIfAbsent((String) obj, key -> key);
+            }
+            return obj;
+        }
+    }
+
+    private static class CompactInputStream extends ObjectInputStream {
+        private final ClassLoader classLoader;
+
+        private CompactInputStream(InputStream in, ClassLoader classLoader)
+                throws IOException {
+            super(in);
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor()
+                throws IOException, ClassNotFoundException {
+            String name = readUTF();
+            long serialVersionUID = readLong();
+            int fieldsHash = readInt();
+            ObjectStreamClass desc = ObjectStreamClass
+                    .lookupAny(loadClass(name));
+            if (desc == null) {
+                throw new ClassNotFoundException(name);
+            }
+            if (desc.getSerialVersionUID() != serialVersionUID
+                    || getFieldsHash(desc) != fieldsHash) {
+                throw new InvalidClassException(name,
+                        "local class differs from the class used for "
+                                + "writing, the data can only be read by "
+                                + "the same build of the application");
+            }
+            return desc;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            return loadClass(desc.getName());
+        }
+
+        private Class<?> loadClass(String name)
+                throws ClassNotFoundException {
+            Class<?> primitive = PRIMITIVE_TYPES.get(name);
+            if (primitive != null) {
+                return primitive;
+            }
+            ClassLoader loader = classLoader;
+            if (loader == null) {
+                loader = Thread.currentThread().getContextClassLoader();
+            }
+            if (loader == null) {
+                loader = SessionExternalizer.class.getClassLoader();
+            }
+            return Class.forName(name, false, loader);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.UIInternals;
+
+/**
+ * Creates {@link SessionDelta}s for sessions, based on the names of the
+ * session attributes set since the previous delta and on whether the state
+ * trees of their UIs have changed.
+ * <p>
+ * A full snapshot serializes the whole session with its UIs in one stream. A
+ * delta only contains the session attributes which have been set since the
+ * previous delta and the UIs which have changed. Changes are tracked per UI,
+ * not per state node: a UI is serialized in full if any of its state nodes
+ * has changed or if a response has been written for it since the previous
+ * delta, since the server sync id must match on failover, and an unchanged UI
+ * is skipped. Any other change of the session, such as a new error handler,
+ * makes the next delta a full snapshot.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+final class SessionReplication {
+
+    /**
+     * The state of a session at its previous replication, and the names of
+     * the attributes set since then.
+     */
+    static class Checkpoint implements Serializable {
+        private final Map<Integer, Integer> serverSyncIds = new HashMap<>();
+        private final Set<String> changedAttributes = new HashSet<>();
+        private int deltaCount;
+
+        /**
+         * Records that a session attribute has been set.
+         *
+         * @param name
+         *            the name of the attribute
+         */
+        void attributeChanged(String name) {
+            changedAttributes.add(name);
+        }
+    }
+
+    private SessionReplication() {
+        // Static helpers only
+    }
+
+    /**
+     * Creates a delta of the changes in the given session since the previous
+     * call.
+     *
+     * @param session
+     *            the locked session
+     * @param snapshotInterval
+     *            the number of deltas between full snapshots
+     * @return the delta
+     * @throws IOException
+     *             if the session, some attribute or some UI cannot be
+     *             serialized, in which case the next delta is a full snapshot
+     */
+    static SessionDelta createDelta(VaadinSession session,
+            int snapshotInterval) throws IOException {
+        Checkpoint previous = session.getReplicationCheckpoint();
+        boolean fullSnapshot = previous == null
+                || previous.deltaCount >= snapshotInterval;
+        // Forces a full snapshot next time if serialization fails
+        session.setReplicationCheckpoint(null);
+
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.deltaCount = fullSnapshot ? 0 : previous.deltaCount + 1;
+
+        Map<Integer, byte[]> uiData = new HashMap<>();
+        for (UI ui : session.getUIs()) {
+            UIInternals internals = ui.getInternals();
+            boolean changed = internals.getStateTree().checkpointChanges();
+            Integer syncId = internals.getServerSyncId();
+            checkpoint.serverSyncIds.put(ui.getUIId(), syncId);
+
+            if (!fullSnapshot && (changed || !syncId
+                    .equals(previous.serverSyncIds.get(ui.getUIId())))) {
+                uiData.put(ui.getUIId(), UISerializer
+                        .serializeReferencingAttributes(session, ui));
+            }
+        }
+
+        SessionDelta delta;
+        if (fullSnapshot) {
+            delta = new SessionDelta(UISerializer.serializeSession(session));
+        } else {
+            Map<String, Object> attributes = session.getAttributeMap();
+            Map<String, byte[]> attributeData = new HashMap<>();
+            Set<String> removedAttributes = new HashSet<>();
+            for (String name : previous.changedAttributes) {
+                Object value = attributes.get(name);
+                if (value == null) {
+                    removedAttributes.add(name);
+                } else {
+                    attributeData.put(name, UISerializer
+                            .serializeAttributeValue(session, value));
+                }
+            }
+
+            Set<Integer> removedUIs = new HashSet<>(
+                    previous.serverSyncIds.keySet());
+            removedUIs.removeAll(checkpoint.serverSyncIds.keySet());
+
+            delta = new SessionDelta(attributeData, removedAttributes,
+                    uiData, removedUIs);
+        }
+        session.setReplicationCheckpoint(checkpoint);
+        return delta;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.EventObject;
+
+/**
+ * Event fired at the end of a request when the changes of a Vaadin service
+ * session can be replicated.
+ *
+ * @see SessionReplicationListener#sessionReplication(SessionReplicationEvent)
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class SessionReplicationEvent extends EventObject {
+
+    private final VaadinSession session;
+    private final SessionDelta delta;
+
+    /**
+     * Creates a new event.
+     *
+     * @param service
+     *            the Vaadin service from which the event originates
+     * @param session
+     *            the Vaadin service session to replicate
+     * @param delta
+     *            the changes of the session since its previous replication
+     */
+    public SessionReplicationEvent(VaadinService service,
+            VaadinSession session, SessionDelta delta) {
+        super(service);
+        this.session = session;
+        this.delta = delta;
+    }
+
+    @Override
+    public VaadinService getSource() {
+        return (VaadinService) super.getSource();
+    }
+
+    /**
+     * Gets the Vaadin service from which the event originates.
+     *
+     * @return the Vaadin service
+     */
+    public VaadinService getService() {
+        return getSource();
+    }
+
+    /**
+     * Gets the Vaadin service session to replicate.
+     *
+     * @return the Vaadin service session
+     */
+    public VaadinSession getSession() {
+        return session;
+    }
+
+    /**
+     * Gets the changes of the session since its previous replication.
+     *
+     * @return the session delta
+     */
+    public SessionDelta getDelta() {
+        return delta;
+    }
+
+}
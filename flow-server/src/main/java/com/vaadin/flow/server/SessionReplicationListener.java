@@ -0,0 +1,48 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+
+/**
+ * A listener that ships the changes of Vaadin service sessions to the other
+ * nodes of a cluster. Adding a listener enables tracking the changes of all
+ * sessions.
+ * <p>
+ * The receiving nodes apply the deltas to a {@link ReplicatedSession} and
+ * restore the session from it on failover.
+ * <p>
+ * Session attributes are only replicated when they are set. A value which is
+ * modified in place must be set again with
+ * {@link VaadinSession#setAttribute(String, Object)} for the change to be
+ * replicated, like with the attributes of an HTTP session.
+ *
+ * @see VaadinService#addSessionReplicationListener(SessionReplicationListener)
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+@FunctionalInterface
+public interface SessionReplicationListener extends Serializable {
+    /**
+     * Called at the end of a request which has locked the session, with the
+     * session still locked.
+     *
+     * @param event
+     *            the event with the changes of the session
+     */
+    void sessionReplication(SessionReplicationEvent event);
+}
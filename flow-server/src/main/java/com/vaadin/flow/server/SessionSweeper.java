@@ -0,0 +1,222 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+
+/**
+ * Periodically closes the UIs of live sessions whose heartbeat has expired and
+ * removes them from their sessions, detaching their state trees.
+ * <p>
+ * Without the sweeper, inactive UIs are only cleaned up at the end of a
+ * request to the same session, so the UIs of abandoned sessions stay in
+ * memory until the HTTP session expires. The sweeper is enabled with
+ * {@link InitParameters#SERVLET_PARAMETER_SESSION_SWEEP_INTERVAL}.
+ * <p>
+ * Sessions which are locked when swept are skipped, they are cleaned up at
+ * the end of the request holding the lock.
+ * <p>
+ * If {@link InitParameters#SERVLET_PARAMETER_UI_PASSIVATION_TIMEOUT} is set,
+ * the sweeper also passivates idle UIs.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class SessionSweeper {
+
+    private final VaadinService service;
+    private final Set<VaadinSession> sessions = Collections
+            .synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final AtomicLong sweepCount = new AtomicLong();
+    private final AtomicLong removedUICount = new AtomicLong();
+    private final AtomicLong reclaimedNodeCount = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * Creates a new sweeper for the sessions of the given service.
+     *
+     * @param service
+     *            the service whose sessions to sweep, not <code>null</code>
+     */
+    SessionSweeper(VaadinService service) {
+        this.service = service;
+    }
+
+    /**
+     * Starts sweeping the registered sessions periodically.
+     *
+     * @param intervalSeconds
+     *            the interval between sweeps in seconds
+     */
+    synchronized void start(int intervalSeconds) {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "vaadin-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::sweep, intervalSeconds,
+                intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops sweeping the sessions.
+     */
+    synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        sessions.clear();
+    }
+
+    /**
+     * Registers a live session to be swept.
+     *
+     * @param session
+     *            the session to register
+     */
+    void register(VaadinSession session) {
+        sessions.add(session);
+    }
+
+    /**
+     * Unregisters a session which has been destroyed.
+     *
+     * @param session
+     *            the session to unregister
+     */
+    void unregister(VaadinSession session) {
+        sessions.remove(session);
+    }
+
+    /**
+     * Sweeps all registered sessions once.
+     */
+    void sweep() {
+        List<VaadinSession> toSweep;
+        synchronized (sessions) {
+            toSweep = new ArrayList<>(sessions);
+        }
+        int removedUIs = 0;
+        int reclaimedNodes = 0;
+        for (VaadinSession session : toSweep) {
+            try {
+                int[] counts = sweep(session);
+                removedUIs += counts[0];
+                reclaimedNodes += counts[1];
+            } catch (RuntimeException e) {
+                getLogger().debug("Failed to sweep a session", e);
+            } finally {
+                CurrentInstance.clearAll();
+            }
+        }
+        sweepCount.incrementAndGet();
+        removedUICount.addAndGet(removedUIs);
+        reclaimedNodeCount.addAndGet(reclaimedNodes);
+        if (removedUIs > 0) {
+            getLogger().debug(
+                    "Removed {} inactive UIs with {} state nodes from {} sessions",
+                    removedUIs, reclaimedNodes, toSweep.size());
+        }
+    }
+
+    private int[] sweep(VaadinSession session) {
+        int[] counts = new int[2];
+        if (session.getStateWithoutLock() != VaadinSessionState.OPEN
+                || session.getSession() == null
+                || !session.getLockInstance().tryLock()) {
+            return counts;
+        }
+        try {
+            if (session.getState() != VaadinSessionState.OPEN) {
+                return counts;
+            }
+            service.restoreExpiredPassivatedUIs(session);
+            service.closeInactiveUIs(session);
+            for (UI ui : session.getUIs()) {
+                if (ui.isClosing()) {
+                    counts[0]++;
+                    counts[1] += countNodes(ui);
+                }
+            }
+            service.removeClosedUIs(session);
+            service.passivateIdleUIs(session);
+        } finally {
+            session.unlock();
+        }
+        return counts;
+    }
+
+    private static int countNodes(UI ui) {
+        int[] count = new int[1];
+        ui.getInternals().getStateTree().getRootNode()
+                .visitNodeTree(node -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Gets the number of sweeps done so far.
+     *
+     * @return the number of sweeps
+     */
+    public long getSweepCount() {
+        return sweepCount.get();
+    }
+
+    /**
+     * Gets the number of inactive UIs removed from their sessions by the
+     * sweeper so far.
+     *
+     * @return the number of removed UIs
+     */
+    public long getRemovedUICount() {
+        return removedUICount.get();
+    }
+
+    /**
+     * Gets the number of state nodes in the UIs removed by the sweeper so far.
+     *
+     * @return the number of reclaimed state nodes
+     */
+    public long getReclaimedNodeCount() {
+        return reclaimedNodeCount.get();
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(SessionSweeper.class);
+    }
+}
@@ -37,11 +37,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.ResponseWriter;
+import com.vaadin.flow.server.StaticResourceCache.CachedResource;
 import com.vaadin.flow.server.frontend.FrontendUtils;
 
 import static com.vaadin.flow.server.Constants.VAADIN_BUILD_FILES_PATH;
@@ -58,6 +60,12 @@ import static com.vaadin.flow.shared.ApplicationConstants.VAADIN_STATIC_FILES_PA
  * production mode site you should consider serving static resources directly
  * from the servlet (using a default servlet if such exists) or through a stand
  * alone static file server.
+ * <p>
+ * In production mode, resource metadata and the contents of small resources
+ * can be cached in memory by enabling
+ * {@link InitParameters#SERVLET_PARAMETER_STATIC_RESOURCE_CACHE}. Cached
+ * resources are served with a strong ETag and conditional requests using
+ * "If-None-Match" are supported.
  *
  * @author Vaadin Ltd
  * @since 1.0
@@ -72,6 +80,8 @@ public class StaticFileServer implements StaticFileHandler {
     private final VaadinService vaadinService;
     private DeploymentConfiguration deploymentConfiguration;
     private final List<String> manifestPaths;
+    private final Map<String, String> contentHashes;
+    private final StaticResourceCache staticResourceCache;
 
     // Matcher to match string starting with '/themes/[theme-name]/'
     public static final Pattern APP_THEME_PATTERN = Pattern
@@ -92,6 +102,8 @@ public class StaticFileServer implements StaticFileHandler {
         deploymentConfiguration = vaadinService.getDeploymentConfiguration();
         responseWriter = new ResponseWriter(deploymentConfiguration);
         manifestPaths = getManifestPathsFromJson();
+        contentHashes = getContentHashesFromJson();
+        staticResourceCache = createStaticResourceCache();
     }
 
     @Override
@@ -260,6 +272,59 @@ public class StaticFileServer implements StaticFileHandler {
             return true;
         }
 
+        if (staticResourceCache != null) {
+            return serveCachedResource(filenameWithPath, request, response);
+        }
+
+        URL resourceUrl = findResourceUrl(filenameWithPath);
+        if (resourceUrl == null) {
+            // Not found in webcontent or in META-INF/resources in some JAR
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return true;
+        }
+
+        // There is a resource!
+
+        // Intentionally writing cache headers also for 304 responses
+        writeCacheHeaders(filenameWithPath, response);
+
+        String contentHash = contentHashes.get(filenameWithPath);
+        if (contentHash != null) {
+            String eTag = '"' + contentHash + '"';
+            response.setHeader("ETag", eTag);
+            // The content encoding is chosen only when writing the contents,
+            // so the ETag of any precompressed variant is accepted as well
+            String matchingETag = ResponseWriter.findMatchingETag(
+                    request.getHeader("If-None-Match"), eTag, true);
+            if (matchingETag != null) {
+                response.setHeader("ETag", matchingETag);
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+        }
+
+        long timestamp = writeModificationTimestamp(resourceUrl, request,
+                response);
+        if (browserHasNewestVersion(request, timestamp)) {
+            // Browser is up to date, nothing further to do than set the
+            // response code
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        responseWriter.writeResponseContents(filenameWithPath, resourceUrl,
+                request, response);
+        return true;
+    }
+
+    /**
+     * Resolves the URL of the resource for the given request path.
+     *
+     * @param filenameWithPath
+     *            the requested path
+     * @return the resource URL or <code>null</code> if there is no resource
+     *         for the path
+     */
+    private URL findResourceUrl(String filenameWithPath) {
         URL resourceUrl = null;
         if (isAllowedVAADINBuildOrStaticUrl(filenameWithPath)
                 || manifestPaths.contains(filenameWithPath)) {
@@ -284,30 +349,100 @@ public class StaticFileServer implements StaticFileHandler {
                     fixIncorrectWebjarPath(filenameWithPath));
         }
 
-        if (resourceUrl == null) {
+        return resourceUrl;
+    }
+
+    private boolean serveCachedResource(String filenameWithPath,
+            HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        CachedResource resource = staticResourceCache.get(filenameWithPath,
+                contentHashes.get(filenameWithPath), this::findResourceUrl);
+        if (resource == null) {
             // Not found in webcontent or in META-INF/resources in some JAR
             response.sendError(HttpServletResponse.SC_NOT_FOUND);
             return true;
         }
 
-        // There is a resource!
-
         // Intentionally writing cache headers also for 304 responses
         writeCacheHeaders(filenameWithPath, response);
+        if (resource.getLastModified() != -1L) {
+            response.setDateHeader("Last-Modified",
+                    resource.getLastModified());
+        }
 
-        long timestamp = writeModificationTimestamp(resourceUrl, request,
-                response);
-        if (browserHasNewestVersion(request, timestamp)) {
-            // Browser is up to date, nothing further to do than set the
-            // response code
+        String encoding = null;
+        CachedResource variant = null;
+        if (deploymentConfiguration.isBrotli()
+                && ResponseWriter.acceptsEncoding(request, "br")) {
+            encoding = "br";
+            variant = resource.getEncodedVariant(encoding);
+        }
+        if (variant == null
+                && ResponseWriter.acceptsEncoding(request, "gzip")) {
+            encoding = "gzip";
+            variant = resource.getEncodedVariant(encoding);
+        }
+        if (variant != null) {
+            response.setHeader("Vary", "Accept-Encoding");
+        } else {
+            encoding = null;
+            variant = resource;
+        }
+        response.setHeader("ETag", variant.getETag());
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null
+                ? ResponseWriter.findMatchingETag(ifNoneMatch,
+                        variant.getETag(), false) != null
+                : browserHasNewestVersion(request,
+                        resource.getLastModified())) {
             response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
             return true;
         }
-        responseWriter.writeResponseContents(filenameWithPath, resourceUrl,
-                request, response);
+
+        if (request.getHeader("Range") != null) {
+            // The writer chooses the encoding again and adds its suffix to
+            // the ETag
+            response.setHeader("ETag", resource.getETag());
+            responseWriter.writeResponseContents(filenameWithPath,
+                    resource.getUrl(), request, response);
+            return true;
+        }
+
+        String mimetype = request.getServletContext()
+                .getMimeType(filenameWithPath);
+        if (mimetype != null) {
+            response.setContentType(mimetype);
+        }
+        if (encoding != null) {
+            response.setHeader("Content-Encoding", encoding);
+        }
+
+        try {
+            writeCachedContents(variant, response);
+        } catch (IOException e) {
+            getLogger().debug("Error writing static file to user", e);
+        }
         return true;
     }
 
+    private void writeCachedContents(CachedResource resource,
+            HttpServletResponse response) throws IOException {
+        byte[] contents = staticResourceCache.getContents(resource);
+        if (contents != null) {
+            response.setContentLengthLong(contents.length);
+            response.getOutputStream().write(contents);
+            return;
+        }
+        if (resource.getSize() >= 0) {
+            response.setContentLengthLong(resource.getSize());
+        }
+        try (InputStream stream = resource.getUrl().openStream()) {
+            IOUtils.copyLarge(stream, response.getOutputStream(),
+                    new byte[32 * 1024]);
+        }
+    }
+
     /**
      * Returns a URL to the static Web resource at the given URI or null if no
      * file found.
@@ -442,6 +577,10 @@ public class StaticFileServer implements StaticFileHandler {
         String cacheControl;
         if (!deploymentConfiguration.isProductionMode()) {
             cacheControl = "no-cache";
+        } else if (resourceCacheTime > 0
+                && contentHashes.containsKey(filenameWithPath)) {
+            // Content hashed files never change, the hash would change
+            cacheControl = "max-age=" + resourceCacheTime + ", immutable";
         } else if (resourceCacheTime > 0) {
             cacheControl = "max-age=" + resourceCacheTime;
         } else {
@@ -480,7 +619,8 @@ public class StaticFileServer implements StaticFileHandler {
      * Calculates the cache lifetime for the given filename in seconds.
      * <p>
      * By default filenames containing ".nocache." return 0, filenames
-     * containing ".cache." return one year and all other files return 1 hour.
+     * containing ".cache." or listed in the content hash manifest generated by
+     * the production build return one year and all other files return 1 hour.
      *
      * @param filenameWithPath
      *            the name of the file being sent
@@ -500,7 +640,8 @@ public class StaticFileServer implements StaticFileHandler {
         if (filenameWithPath.contains(".nocache.")) {
             return 0;
         }
-        if (filenameWithPath.contains(".cache.")) {
+        if (filenameWithPath.contains(".cache.")
+                || contentHashes.containsKey(filenameWithPath)) {
             return 60 * 60 * 24 * 365;
         }
         /*
@@ -553,6 +694,49 @@ public class StaticFileServer implements StaticFileHandler {
         return false;
     }
 
+    /**
+     * Load content-hashes.json, if exists, and extract the content hashes of
+     * the production bundle files.
+     *
+     * @return map of paths to content hashes, or an empty map
+     */
+    private Map<String, String> getContentHashesFromJson() {
+        InputStream stream = vaadinService.getClassLoader().getResourceAsStream(
+                VAADIN_WEBAPP_RESOURCES + FrontendUtils.CONTENT_HASHES_JSON);
+        if (stream == null) {
+            // content-hashes.json does not exist, probably dev mode
+            return Collections.emptyMap();
+        }
+
+        return FrontendUtils
+                .parseContentHashes(FrontendUtils.streamToString(stream));
+    }
+
+    private StaticResourceCache createStaticResourceCache() {
+        if (!deploymentConfiguration.isProductionMode()
+                || !deploymentConfiguration.getBooleanProperty(
+                        InitParameters.SERVLET_PARAMETER_STATIC_RESOURCE_CACHE,
+                        false)) {
+            return null;
+        }
+        long maxSize = StaticResourceCache.DEFAULT_MAX_CONTENTS_SIZE;
+        String maxSizeValue = deploymentConfiguration.getStringProperty(
+                InitParameters.SERVLET_PARAMETER_STATIC_RESOURCE_CACHE_SIZE,
+                null);
+        if (maxSizeValue != null) {
+            try {
+                maxSize = Long.parseLong(maxSizeValue.trim());
+            } catch (NumberFormatException e) {
+                getLogger().warn(
+                        "Invalid value '{}' for '{}', using the default of {} bytes",
+                        maxSizeValue,
+                        InitParameters.SERVLET_PARAMETER_STATIC_RESOURCE_CACHE_SIZE,
+                        maxSize);
+            }
+        }
+        return new StaticResourceCache(maxSize);
+    }
+
     /**
      * Load manifest.json, if exists, and extract manifest paths.
      *
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
+
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.internal.ResponseWriter;
+import com.vaadin.flow.internal.SizeBoundedLruCache;
+
+/**
+ * In-memory cache of static resource metadata used by
+ * {@link StaticFileServer} in production mode.
+ * <p>
+ * For every resolved request path the cache keeps the resource URL, its size
+ * and modification timestamp, a strong ETag and the precompressed variants
+ * that are available for it. The ETag is the content hash from the bundle
+ * manifest when there is one and the SHA-256 hash of the contents otherwise.
+ * Precompressed variants get the same ETag with the content encoding as a
+ * suffix. The contents of small resources are additionally kept in memory,
+ * bounded by a total size limit with least recently used entries evicted
+ * first. Evicted contents are read again when next requested.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+class StaticResourceCache implements Serializable {
+
+    /**
+     * Default value for the maximum total size of cached contents.
+     */
+    static final long DEFAULT_MAX_CONTENTS_SIZE = 32L * 1024 * 1024;
+
+    /**
+     * Resources larger than this are never kept in memory, only their
+     * metadata.
+     */
+    static final int MAX_CACHED_RESOURCE_SIZE = 256 * 1024;
+
+    private static final String[] ENCODINGS = { "br", "gzip" };
+    private static final String[] ENCODING_SUFFIXES = { ".br", ".gz" };
+
+    private static final int BUFFER_SIZE = 32 * 1024;
+
+    /**
+     * Metadata of a single cached resource.
+     */
+    static class CachedResource implements Serializable {
+        private final URL url;
+        private final long lastModified;
+        private final long size;
+        private final String eTag;
+        private final Map<String, CachedResource> encodedVariants;
+
+        private CachedResource(URL url, long lastModified, long size,
+                String eTag, Map<String, CachedResource> encodedVariants) {
+            this.url = url;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.eTag = eTag;
+            this.encodedVariants = encodedVariants;
+        }
+
+        /**
+         * Gets the URL the resource was loaded from.
+         *
+         * @return the resource URL, not <code>null</code>
+         */
+        URL getUrl() {
+            return url;
+        }
+
+        /**
+         * Gets the modification timestamp of the resource, without
+         * milliseconds.
+         *
+         * @return the modification timestamp or -1 if not known
+         */
+        long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Gets the size of the resource in bytes.
+         *
+         * @return the size of the resource or -1 if not known
+         */
+        long getSize() {
+            return size;
+        }
+
+        /**
+         * Gets the quoted strong ETag of the resource.
+         *
+         * @return the ETag, not <code>null</code>
+         */
+        String getETag() {
+            return eTag;
+        }
+
+        /**
+         * Gets the precompressed variant of the resource for the given
+         * content encoding.
+         *
+         * @param encoding
+         *            the content encoding, e.g. {@code "gzip"}
+         * @return the variant or <code>null</code> if none is available
+         */
+        CachedResource getEncodedVariant(String encoding) {
+            return encodedVariants.get(encoding);
+        }
+    }
+
+    private final Map<String, CachedResource> resources = new ConcurrentHashMap<>();
+
+    private final SizeBoundedLruCache<String, byte[]> contents;
+    private final long maxContentsSize;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxContentsSize
+     *            the maximum total size of resource contents to keep in memory
+     */
+    StaticResourceCache(long maxContentsSize) {
+        this.maxContentsSize = maxContentsSize;
+        contents = new SizeBoundedLruCache<>(maxContentsSize,
+                bytes -> bytes.length);
+    }
+
+    /**
+     * Gets the cached metadata for the given request path, loading it using
+     * the given resolver unless already cached.
+     * <p>
+     * Paths which cannot be resolved are not cached.
+     *
+     * @param filenameWithPath
+     *            the requested path
+     * @param contentHash
+     *            the content hash of the resource from the bundle manifest,
+     *            or <code>null</code> to hash the contents instead
+     * @param resolver
+     *            resolves a path to a resource URL or <code>null</code> if
+     *            there is no such resource
+     * @return the cached resource or <code>null</code> if there is no
+     *         resource for the path
+     * @throws IOException
+     *             if reading the resource fails
+     */
+    CachedResource get(String filenameWithPath, String contentHash,
+            SerializableFunction<String, URL> resolver) throws IOException {
+        CachedResource resource = resources.get(filenameWithPath);
+        if (resource != null) {
+            return resource;
+        }
+        URL url = resolver.apply(filenameWithPath);
+        if (url == null) {
+            return null;
+        }
+
+        Map<String, CachedResource> variants = new LinkedHashMap<>();
+        resource = load(url,
+                contentHash != null ? '"' + contentHash + '"' : null,
+                variants);
+        for (int i = 0; i < ENCODINGS.length; i++) {
+            URL variantUrl = resolver
+                    .apply(filenameWithPath + ENCODING_SUFFIXES[i]);
+            if (variantUrl != null) {
+                variants.put(ENCODINGS[i], load(variantUrl,
+                        ResponseWriter.getEncodedETag(resource.getETag(),
+                                ENCODINGS[i]),
+                        Collections.emptyMap()));
+            }
+        }
+
+        CachedResource previous = resources.putIfAbsent(filenameWithPath,
+                resource);
+        return previous != null ? previous : resource;
+    }
+
+    /**
+     * Gets the contents of the given resource if small enough to be kept in
+     * memory, reading them again if they have been evicted.
+     *
+     * @param resource
+     *            the cached resource
+     * @return the contents or <code>null</code> if the contents need to be
+     *         read from the resource URL
+     * @throws IOException
+     *             if reading evicted contents fails
+     */
+    byte[] getContents(CachedResource resource) throws IOException {
+        String key = resource.getUrl().toExternalForm();
+        byte[] data = contents.get(key);
+        if (data == null && isContentsKept(resource.getSize())) {
+            try (InputStream stream = resource.getUrl().openStream()) {
+                data = IOUtils.toByteArray(stream);
+            }
+            contents.put(key, data);
+        }
+        return data;
+    }
+
+    private boolean isContentsKept(long size) {
+        return 0 <= size && size <= MAX_CACHED_RESOURCE_SIZE
+                && size <= maxContentsSize;
+    }
+
+    private CachedResource load(URL url, String eTag,
+            Map<String, CachedResource> encodedVariants) throws IOException {
+        URLConnection connection = url.openConnection();
+        long lastModified = connection.getLastModified();
+        if (lastModified > 0) {
+            // Browsers do not send milliseconds in If-Modified-Since
+            lastModified -= lastModified % 1000;
+        } else {
+            lastModified = -1L;
+        }
+        long size = connection.getContentLengthLong();
+        boolean keepContents = isContentsKept(size);
+
+        if (eTag != null && !keepContents) {
+            // Nothing to read, release the connection
+            connection.getInputStream().close();
+            return new CachedResource(url, lastModified, size, eTag,
+                    encodedVariants);
+        }
+
+        MessageDigest digest = eTag == null ? createDigest() : null;
+        ByteArrayOutputStream data = keepContents
+                ? new ByteArrayOutputStream((int) size)
+                : null;
+        InputStream input = connection.getInputStream();
+        try (InputStream stream = digest != null
+                ? new DigestInputStream(input, digest)
+                : input) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = stream.read(buffer)) >= 0) {
+                if (data != null) {
+                    data.write(buffer, 0, read);
+                }
+            }
+        }
+        if (data != null) {
+            contents.put(url.toExternalForm(), data.toByteArray());
+        }
+
+        if (digest != null) {
+            eTag = '"' + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(digest.digest()) + '"';
+        }
+        return new CachedResource(url, lastModified, size, eTag,
+                encodedVariants);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new UnsupportedOperationException(
+                    "Your Java implementation does not support SHA-256, "
+                            + "even though it is required by the Java specification.",
+                    e);
+        }
+    }
+
+}
@@ -117,6 +117,8 @@ public class StreamResource extends AbstractStreamResource {
      * a data producer. {@code writer} should write data in the output stream
      * provided as an argument to its
      * {@link StreamResourceWriter#accept(OutputStream, VaadinSession)} method.
+     * Use an {@link AsyncStreamResourceWriter} to write long downloads without
+     * holding a request thread while the client is reading the data.
      * <p>
      * {@code name} parameter value will be used in URI (generated when resource
      * is registered) in a way that the {@code name} is the last segment of the
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.Set;
+
+import com.vaadin.flow.shared.ApplicationConstants;
+
+/**
+ * A {@link RequestHandler} which only handles requests of known request types,
+ * identified by the {@link ApplicationConstants#REQUEST_TYPE_PARAMETER}
+ * parameter.
+ * <p>
+ * {@link VaadinService} uses the request types to call only the handlers which
+ * may handle a request, instead of calling all of them in turn. Handlers which
+ * don't implement this interface are called for all requests.
+ * <p>
+ * Subclasses of a typed handler which also handle other requests must
+ * override {@link #getRequestTypes()} accordingly.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public interface TypedRequestHandler extends RequestHandler {
+
+    /**
+     * The request type of requests without the
+     * {@link ApplicationConstants#REQUEST_TYPE_PARAMETER} parameter.
+     */
+    String NO_REQUEST_TYPE = "";
+
+    /**
+     * Gets the request types which this handler may handle. The handler is
+     * never called for requests of other types.
+     *
+     * @return the request types, {@link #NO_REQUEST_TYPE} for requests without
+     *         a request type
+     */
+    Set<String> getRequestTypes();
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.IOException;
+
+/**
+ * Stores the serialized state of UIs which have been passivated because they
+ * have been idle for longer than
+ * {@link InitParameters#SERVLET_PARAMETER_UI_PASSIVATION_TIMEOUT}.
+ * <p>
+ * A passivated UI is removed from its session and restored from the store on
+ * the next request which needs it. Implementations may keep the data e.g. on
+ * local disk, off-heap or in an external store shared by the nodes of a
+ * cluster. Implementations must be thread safe.
+ * <p>
+ * The store used by a service is created by
+ * {@link VaadinService#createUIPassivationStore()}.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public interface UIPassivationStore {
+
+    /**
+     * Stores the serialized state of a UI.
+     *
+     * @param key
+     *            the unique key of the data, not <code>null</code>
+     * @param data
+     *            the serialized UI, not <code>null</code>
+     * @throws IOException
+     *             if the data could not be stored
+     */
+    void store(String key, byte[] data) throws IOException;
+
+    /**
+     * Loads and removes the serialized state of a UI.
+     *
+     * @param key
+     *            the key of the data, not <code>null</code>
+     * @return the serialized UI or <code>null</code> if there is no data for
+     *         the key
+     * @throws IOException
+     *             if the data could not be loaded
+     */
+    byte[] load(String key) throws IOException;
+
+    /**
+     * Reads the serialized state of a UI without removing it, e.g. to include
+     * it when the session of the UI is serialized.
+     * <p>
+     * The default implementation loads the data and stores it again.
+     *
+     * @param key
+     *            the key of the data, not <code>null</code>
+     * @return the serialized UI or <code>null</code> if there is no data for
+     *         the key
+     * @throws IOException
+     *             if the data could not be read
+     */
+    default byte[] read(String key) throws IOException {
+        byte[] data = load(key);
+        if (data != null) {
+            store(key, data);
+        }
+        return data;
+    }
+
+    /**
+     * Removes the serialized state of a UI without loading it. Does nothing if
+     * there is no data for the key.
+     *
+     * @param key
+     *            the key of the data, not <code>null</code>
+     */
+    void remove(String key);
+
+    /**
+     * Releases the resources of the store. Called when the service using the
+     * store is destroyed.
+     */
+    default void destroy() {
+        // Nothing to release by default
+    }
+}
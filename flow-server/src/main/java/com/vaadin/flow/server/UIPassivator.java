@@ -0,0 +1,242 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.UIInternals;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.VaadinSession.PassivatedUI;
+
+/**
+ * Passivates UIs which have been idle for too long by serializing them into a
+ * {@link UIPassivationStore} and restores them when they are needed again.
+ * <p>
+ * A UI is serialized on its own using {@link UISerializer}. Objects which the
+ * UI shares with session attributes are kept in memory and not copied. The
+ * UI instance is then detached as if it had been closed, so detach listeners
+ * can release resources, e.g. unregister from application wide event buses,
+ * and any later {@link UI#access(Command)} on that instance fails with a
+ * {@link com.vaadin.flow.component.UIDetachedException}.
+ * When the UI is restored, the attach listeners of the restored copy are run
+ * again so that they can register again.
+ * <p>
+ * Passivation is only safe for UIs which are not referenced from outside
+ * their own component tree other than through detach aware listeners, since
+ * such references keep pointing to the detached instance. UIs which may be
+ * updated without a request from the client, i.e. UIs using push or polling,
+ * and UIs with heartbeat listeners are never passivated.
+ * <p>
+ * All methods must be called with the session locked.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+class UIPassivator {
+
+    private final UIPassivationStore store;
+    private final long idleTimeout;
+
+    // UIs which could not be serialized are not tried again
+    private final Set<UI> failedUIs = Collections
+            .synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    /**
+     * Creates a new passivator.
+     *
+     * @param store
+     *            the store for the passivated UIs
+     * @param idleTimeout
+     *            the time in milliseconds after which an idle UI is passivated
+     */
+    UIPassivator(UIPassivationStore store, long idleTimeout) {
+        this.store = store;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Passivates the UIs of the given session which have not received a UIDL
+     * request within the idle timeout.
+     *
+     * @param session
+     *            the locked session
+     */
+    void passivateIdleUIs(VaadinSession session) {
+        if (!session.getPendingAccessQueue().isEmpty()) {
+            // Pending tasks may refer to the current UI instances
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (UI ui : new ArrayList<>(session.getUIs())) {
+            if (isPassivable(ui, now)) {
+                passivate(session, ui);
+            }
+        }
+    }
+
+    private boolean isPassivable(UI ui, long now) {
+        UIInternals internals = ui.getInternals();
+        return !ui.isClosing()
+                && now - internals.getLastRequestTimestamp() > idleTimeout
+                && !ui.getPushConfiguration().getPushMode().isEnabled()
+                && ui.getPollInterval() <= 0
+                && !internals.hasHeartbeatListeners()
+                && !failedUIs.contains(ui);
+    }
+
+    private void passivate(VaadinSession session, UI ui) {
+        byte[] data;
+        List<Object> sharedObjects = new ArrayList<>();
+        try {
+            data = UISerializer.serialize(session, ui, sharedObjects);
+        } catch (IOException e) {
+            getLogger().debug("UI {} cannot be passivated", ui.getUIId(), e);
+            failedUIs.add(ui);
+            return;
+        }
+        String key = UUID.randomUUID().toString();
+        try {
+            store.store(key, data);
+        } catch (IOException e) {
+            getLogger().warn("Failed to store passivated UI {}", ui.getUIId(),
+                    e);
+            return;
+        }
+        Map<Class<?>, CurrentInstance> old = CurrentInstance.setCurrent(ui);
+        try {
+            session.passivateUI(ui, store, key, sharedObjects);
+        } finally {
+            CurrentInstance.restoreInstances(old);
+        }
+        getLogger().debug("Passivated UI {} ({} bytes)", ui.getUIId(),
+                data.length);
+    }
+
+    /**
+     * Restores a passivated UI to the given session.
+     *
+     * @param session
+     *            the locked session
+     * @param uiId
+     *            the id of the UI
+     * @return the restored UI or <code>null</code> if the UI has not been
+     *         passivated or could not be restored
+     */
+    UI restore(VaadinSession session, int uiId) {
+        PassivatedUI passivated = session.removePassivatedUI(uiId);
+        if (passivated == null) {
+            return null;
+        }
+        // The client of a UI which cannot be restored gets the same response
+        // as for a closed UI
+        UI ui;
+        try {
+            byte[] data = store.load(passivated.getKey());
+            if (data == null) {
+                // Serialized with the session, e.g. on another node of a
+                // cluster
+                data = passivated.getData();
+            }
+            if (data == null) {
+                getLogger().error(
+                        "No data found for passivated UI {}, the UI is lost",
+                        uiId);
+                return null;
+            }
+            ui = UISerializer.deserialize(session, data,
+                    passivated.getSharedObjects(),
+                    session.getService().getClassLoader());
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            getLogger().error("Failed to restore passivated UI {}, the UI is "
+                    + "lost", uiId, e);
+            store.remove(passivated.getKey());
+            return null;
+        }
+        UIInternals internals = ui.getInternals();
+        internals.setLastHeartbeatTimestamp(
+                passivated.getLastHeartbeatTimestamp());
+        internals.setLastRequestTimestamp(System.currentTimeMillis());
+        session.addUI(ui);
+
+        Map<Class<?>, CurrentInstance> old = CurrentInstance.setCurrent(ui);
+        try {
+            ui.getElement().getNode().fireReattachListeners();
+        } finally {
+            CurrentInstance.restoreInstances(old);
+        }
+        getLogger().debug("Restored passivated UI {}", uiId);
+        return ui;
+    }
+
+    /**
+     * Restores the passivated UIs of the given session whose heartbeat has
+     * expired, so that they can be closed like any other inactive UI.
+     *
+     * @param session
+     *            the locked session
+     * @param heartbeatTimeout
+     *            the heartbeat timeout in milliseconds, or a negative number if
+     *            heartbeats never expire
+     */
+    void restoreExpiredUIs(VaadinSession session, long heartbeatTimeout) {
+        if (heartbeatTimeout < 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Integer, PassivatedUI> entry : session
+                .getPassivatedUIs().entrySet()) {
+            if (now - entry.getValue()
+                    .getLastHeartbeatTimestamp() > heartbeatTimeout) {
+                restore(session, entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Restores all passivated UIs of the given session.
+     *
+     * @param session
+     *            the locked session
+     */
+    void restoreAll(VaadinSession session) {
+        for (Integer uiId : new ArrayList<>(
+                session.getPassivatedUIs().keySet())) {
+            restore(session, uiId);
+        }
+    }
+
+    /**
+     * Releases the passivation store.
+     */
+    void destroy() {
+        store.destroy();
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(UIPassivator.class);
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+
+/**
+ * Serializes UIs and session attribute values separately from their session.
+ * <p>
+ * When a UI is serialized, references to its session and service are replaced
+ * by placeholders which are resolved to the given session and its service when
+ * the UI is deserialized. Objects which the UI shares with the attributes of
+ * its session can also be kept out of the serialized data, so that the
+ * deserialized UI refers to the same instances instead of copies.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+final class UISerializer {
+
+    private enum Placeholder {
+        SESSION, SERVICE
+    }
+
+    private static class SharedObjectPlaceholder implements Serializable {
+        private final Serializable key;
+
+        private SharedObjectPlaceholder(Serializable key) {
+            this.key = key;
+        }
+    }
+
+    private UISerializer() {
+        // Static helpers only
+    }
+
+    /**
+     * Serializes a UI without its session.
+     *
+     * @param session
+     *            the locked session of the UI
+     * @param ui
+     *            the UI to serialize
+     * @return the serialized UI
+     * @throws IOException
+     *             if the UI cannot be serialized
+     */
+    static byte[] serialize(VaadinSession session, UI ui) throws IOException {
+        return serialize(session, ui, obj -> null);
+    }
+
+    /**
+     * Serializes a UI without its session. Objects of the UI which are also
+     * values of session attributes are not serialized but added to the given
+     * list, and written as references to their index in the list.
+     *
+     * @param session
+     *            the locked session of the UI
+     * @param ui
+     *            the UI to serialize
+     * @param sharedObjects
+     *            the list to add the objects shared with the session to, not
+     *            <code>null</code>
+     * @return the serialized UI
+     * @throws IOException
+     *             if the UI cannot be serialized
+     */
+    static byte[] serialize(VaadinSession session, UI ui,
+            List<Object> sharedObjects) throws IOException {
+        Map<Object, String> shareable = getShareableAttributes(session);
+        Map<Object, Integer> indexes = new IdentityHashMap<>();
+        return serialize(session, ui, obj -> {
+            if (!shareable.containsKey(obj)) {
+                return null;
+            }
+            return indexes.computeIfAbsent(obj, value -> {
+                sharedObjects.add(value);
+                return sharedObjects.size() - 1;
+            });
+        });
+    }
+
+    /**
+     * Serializes a UI without its session. Objects of the UI which are also
+     * values of session attributes are not serialized but written as
+     * references to the name of the attribute.
+     *
+     * @param session
+     *            the locked session of the UI
+     * @param ui
+     *            the UI to serialize
+     * @return the serialized UI
+     * @throws IOException
+     *             if the UI cannot be serialized
+     */
+    static byte[] serializeReferencingAttributes(VaadinSession session,
+            UI ui) throws IOException {
+        Map<Object, String> names = getShareableAttributes(session);
+        return serialize(session, ui, names::get);
+    }
+
+    private static byte[] serialize(VaadinSession session, UI ui,
+            Function<Object, Serializable> sharedKeys) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Map<Class<?>, CurrentInstance> old = CurrentInstance.setCurrent(ui);
+        try (ObjectOutputStream out = new UIOutputStream(bytes, session,
+                sharedKeys)) {
+            out.writeObject(ui);
+        } finally {
+            CurrentInstance.restoreInstances(old);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Map<Object, String> getShareableAttributes(
+            VaadinSession session) {
+        Map<Object, String> names = new IdentityHashMap<>();
+        session.getAttributeMap().forEach((name, value) -> {
+            // Immutable values may be the same instance by coincidence
+            if (!(value instanceof String || value instanceof Number
+                    || value instanceof Boolean || value instanceof Character
+                    || value instanceof Enum)) {
+                names.put(value, name);
+            }
+        });
+        return names;
+    }
+
+    /**
+     * Deserializes a UI serialized by {@link #serialize(VaadinSession, UI)}.
+     * The UI is not added to the session.
+     *
+     * @param session
+     *            the session to which the UI belongs
+     * @param data
+     *            the serialized UI
+     * @param classLoader
+     *            the class loader to use, or <code>null</code> to use the
+     *            default resolution
+     * @return the deserialized UI
+     * @throws IOException
+     *             if the data cannot be read
+     * @throws ClassNotFoundException
+     *             if a class of the serialized objects cannot be found
+     */
+    static UI deserialize(VaadinSession session, byte[] data,
+            ClassLoader classLoader)
+            throws IOException, ClassNotFoundException {
+        return deserialize(session, data, Collections.emptyList(),
+                classLoader);
+    }
+
+    /**
+     * Deserializes a UI serialized by
+     * {@link #serialize(VaadinSession, UI, List)}. The UI is not added to the
+     * session.
+     *
+     * @param session
+     *            the session to which the UI belongs
+     * @param data
+     *            the serialized UI
+     * @param sharedObjects
+     *            the objects shared with the session, as collected when
+     *            serializing the UI
+     * @param classLoader
+     *            the class loader to use, or <code>null</code> to use the
+     *            default resolution
+     * @return the deserialized UI
+     * @throws IOException
+     *             if the data cannot be read
+     * @throws ClassNotFoundException
+     *             if a class of the serialized objects cannot be found
+     */
+    static UI deserialize(VaadinSession session, byte[] data,
+            List<Object> sharedObjects, ClassLoader classLoader)
+            throws IOException, ClassNotFoundException {
+        return (UI) deserialize(session, data,
+                key -> sharedObjects.get((Integer) key), classLoader);
+    }
+
+    /**
+     * Deserializes a UI serialized by
+     * {@link #serializeReferencingAttributes(VaadinSession, UI)}. References
+     * to session attributes are resolved to the current values of the
+     * attributes in the given session. The UI is not added to the session.
+     *
+     * @param session
+     *            the session to which the UI belongs
+     * @param data
+     *            the serialized UI
+     * @param classLoader
+     *            the class loader to use, or <code>null</code> to use the
+     *            default resolution
+     * @return the deserialized UI
+     * @throws IOException
+     *             if the data cannot be read
+     * @throws ClassNotFoundException
+     *             if a class of the serialized objects cannot be found
+     */
+    static UI deserializeReferencingAttributes(VaadinSession session,
+            byte[] data, ClassLoader classLoader)
+            throws IOException, ClassNotFoundException {
+        Map<String, Object> attributes = session.getAttributeMap();
+        return (UI) deserialize(session, data, attributes::get, classLoader);
+    }
+
+    /**
+     * Serializes the value of a session attribute without the session.
+     *
+     * @param session
+     *            the locked session of the attribute
+     * @param value
+     *            the attribute value to serialize
+     * @return the serialized value
+     * @throws IOException
+     *             if the value cannot be serialized
+     */
+    static byte[] serializeAttributeValue(VaadinSession session, Object value)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Map<Class<?>, CurrentInstance> old = CurrentInstance
+                .setCurrent(session);
+        try (ObjectOutputStream out = new UIOutputStream(bytes, session,
+                obj -> null)) {
+            out.writeObject(value);
+        } finally {
+            CurrentInstance.restoreInstances(old);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes a session attribute value serialized by
+     * {@link #serializeAttributeValue(VaadinSession, Object)}.
+     *
+     * @param session
+     *            the session of the attribute
+     * @param data
+     *            the serialized value
+     * @param classLoader
+     *            the class loader to use, or <code>null</code> to use the
+     *            default resolution
+     * @return the deserialized value
+     * @throws IOException
+     *             if the data cannot be read
+     * @throws ClassNotFoundException
+     *             if a class of the serialized objects cannot be found
+     */
+    static Object deserializeAttributeValue(VaadinSession session,
+            byte[] data, ClassLoader classLoader)
+            throws IOException, ClassNotFoundException {
+        return deserialize(session, data, key -> null, classLoader);
+    }
+
+    private static Object deserialize(VaadinSession session, byte[] data,
+            Function<Serializable, Object> sharedObjects,
+            ClassLoader classLoader)
+            throws IOException, ClassNotFoundException {
+        Map<Class<?>, CurrentInstance> old = CurrentInstance
+                .setCurrent(session);
+        try (ObjectInputStream in = new UIInputStream(
+                new ByteArrayInputStream(data), session, sharedObjects,
+                classLoader)) {
+            return in.readObject();
+        } finally {
+            CurrentInstance.restoreInstances(old);
+        }
+    }
+
+    /**
+     * Serializes a session with its UIs in a single stream, so that objects
+     * shared between the UIs and the session are restored as shared.
+     *
+     * @param session
+     *            the locked session to serialize
+     * @return the serialized session
+     * @throws IOException
+     *             if the session cannot be serialized
+     */
+    static byte[] serializeSession(VaadinSession session) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(session);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes a session serialized by
+     * {@link #serializeSession(VaadinSession)}.
+     *
+     * @param data
+     *            the serialized session
+     * @param classLoader
+     *            the class loader to use, or <code>null</code> to use the
+     *            default resolution
+     * @return the deserialized session
+     * @throws IOException
+     *             if the data cannot be read
+     * @throws ClassNotFoundException
+     *             if a class of the serialized objects cannot be found
+     */
+    static VaadinSession deserializeSession(byte[] data,
+            ClassLoader classLoader)
+            throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new UIInputStream(
+                new ByteArrayInputStream(data), null, key -> null,
+                classLoader)) {
+            return (VaadinSession) in.readObject();
+        }
+    }
+
+    private static class UIOutputStream extends ObjectOutputStream {
+        private final VaadinSession session;
+        private final Function<Object, Serializable> sharedKeys;
+
+        private UIOutputStream(OutputStream out, VaadinSession session,
+                Function<Object, Serializable> sharedKeys) throws IOException {
+            super(out);
+            this.session = session;
+            this.sharedKeys = sharedKeys;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj == session) {
+                return Placeholder.SESSION;
+            } else if (obj == session.getService()) {
+                return Placeholder.SERVICE;
+            }
+            Serializable key = sharedKeys.apply(obj);
+            return key == null ? obj : new SharedObjectPlaceholder(key);
+        }
+    }
+
+    private static class UIInputStream extends ObjectInputStream {
+        private final VaadinSession session;
+        private final Function<Serializable, Object> sharedObjects;
+        private final ClassLoader classLoader;
+
+        private UIInputStream(InputStream in, VaadinSession session,
+                Function<Serializable, Object> sharedObjects,
+                ClassLoader classLoader)
+                throws IOException {
+            super(in);
+            this.session = session;
+            this.sharedObjects = sharedObjects;
+            this.classLoader = classLoader;
+            enableResolveObject(session != null);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            if (obj == Placeholder.SESSION) {
+                return session;
+            } else if (obj == Placeholder.SERVICE) {
+                return session.getService();
+            } else if (obj instanceof SharedObjectPlaceholder) {
+                return sharedObjects
+                        .apply(((SharedObjectPlaceholder) obj).key);
+            }
+            return obj;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            if (classLoader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    // Fall back to the default resolution, e.g. for primitives
+                }
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
@@ -30,6 +30,7 @@ import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -39,12 +40,15 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -75,6 +79,7 @@ import com.vaadin.flow.server.communication.JavaScriptBootstrapHandler;
 import com.vaadin.flow.server.communication.PwaHandler;
 import com.vaadin.flow.server.communication.SessionRequestHandler;
 import com.vaadin.flow.server.communication.StreamRequestHandler;
+import com.vaadin.flow.server.communication.UIFootprintHandler;
 import com.vaadin.flow.server.communication.UidlRequestHandler;
 import com.vaadin.flow.server.communication.WebComponentBootstrapHandler;
 import com.vaadin.flow.server.communication.WebComponentProvider;
@@ -138,6 +143,8 @@ public abstract class VaadinService implements Serializable {
 
     private static final String REQUEST_START_TIME_ATTRIBUTE = "requestStartTime";
 
+    private static final int DEFAULT_REPLICATION_SNAPSHOT_INTERVAL = 20;
+
     /**
      * Should never be used directly, always use
      * {@link #getDeploymentConfiguration()}.
@@ -157,6 +164,14 @@ public abstract class VaadinService implements Serializable {
     private final List<UIInitListener> uiInitListeners = new CopyOnWriteArrayList<>();
     private final List<SessionDestroyListener> sessionDestroyListeners = new CopyOnWriteArrayList<>();
 
+    private final List<SessionReplicationListener> sessionReplicationListeners = new CopyOnWriteArrayList<>();
+
+    private int replicationSnapshotInterval = DEFAULT_REPLICATION_SNAPSHOT_INTERVAL;
+
+    private int pendingAccessQueueLimit = -1;
+
+    private PendingAccessQueue.OverflowPolicy pendingAccessQueueOverflow = PendingAccessQueue.OverflowPolicy.REJECT;
+
     private SystemMessagesProvider systemMessagesProvider = DefaultSystemMessagesProvider
             .get();
 
@@ -164,10 +179,16 @@ public abstract class VaadinService implements Serializable {
 
     private Iterable<RequestHandler> requestHandlers;
 
+    private RequestHandlerDispatcher requestHandlerDispatcher;
+
     private Iterable<BootstrapListener> bootstrapListeners;
 
     private transient Iterable<IndexHtmlRequestListener> indexHtmlRequestListeners;
 
+    private transient SessionSweeper sessionSweeper;
+
+    private transient UIPassivator uiPassivator;
+
     private Iterable<DependencyFilter> dependencyFilters;
 
     private boolean atmosphereAvailable = checkAtmosphereSupport();
@@ -246,6 +267,8 @@ public abstract class VaadinService implements Serializable {
             Collections.reverse(handlers);
 
             requestHandlers = Collections.unmodifiableCollection(handlers);
+            requestHandlerDispatcher = new RequestHandlerDispatcher(
+                    requestHandlers);
 
             dependencyFilters = Collections.unmodifiableCollection(instantiator
                     .getDependencyFilters(event.getAddedDependencyFilters())
@@ -274,9 +297,102 @@ public abstract class VaadinService implements Serializable {
             UsageStatistics.markAsUsed("flow/pnpm", null);
         }
 
+        int passivationTimeout = getIntParameter(
+                InitParameters.SERVLET_PARAMETER_UI_PASSIVATION_TIMEOUT);
+        if (passivationTimeout > 0) {
+            uiPassivator = new UIPassivator(createUIPassivationStore(),
+                    TimeUnit.SECONDS.toMillis(passivationTimeout));
+        }
+
+        int snapshotInterval = getIntParameter(
+                InitParameters.SERVLET_PARAMETER_SESSION_REPLICATION_SNAPSHOT_INTERVAL);
+        if (snapshotInterval >= 0) {
+            replicationSnapshotInterval = snapshotInterval;
+        }
+
+        pendingAccessQueueLimit = getIntParameter(
+                InitParameters.SERVLET_PARAMETER_PENDING_ACCESS_QUEUE_LIMIT);
+        String overflow = getDeploymentConfiguration().getStringProperty(
+                InitParameters.SERVLET_PARAMETER_PENDING_ACCESS_QUEUE_OVERFLOW,
+                null);
+        if (overflow != null) {
+            try {
+                pendingAccessQueueOverflow = PendingAccessQueue.OverflowPolicy
+                        .valueOf(overflow.trim().toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                getLogger().warn("Invalid value '{}' for '{}', using {}",
+                        overflow,
+                        InitParameters.SERVLET_PARAMETER_PENDING_ACCESS_QUEUE_OVERFLOW,
+                        pendingAccessQueueOverflow);
+            }
+        }
+
+        int sweepInterval = getIntParameter(
+                InitParameters.SERVLET_PARAMETER_SESSION_SWEEP_INTERVAL);
+        if (sweepInterval > 0) {
+            sessionSweeper = new SessionSweeper(this);
+            sessionSweeper.start(sweepInterval);
+        } else if (uiPassivator != null) {
+            getLogger().warn("UI passivation requires '{}' to be set",
+                    InitParameters.SERVLET_PARAMETER_SESSION_SWEEP_INTERVAL);
+        }
+
         initialized = true;
     }
 
+    private int getIntParameter(String name) {
+        String value = getDeploymentConfiguration().getStringProperty(name,
+                null);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            getLogger().warn("Invalid value '{}' for '{}', the feature is "
+                    + "disabled", value, name);
+            return -1;
+        }
+    }
+
+    /**
+     * Creates the store for the state of UIs passivated because of
+     * inactivity. Only called if
+     * {@link InitParameters#SERVLET_PARAMETER_UI_PASSIVATION_TIMEOUT} has been
+     * set.
+     * <p>
+     * By default, the passivated UIs are stored as files in a temporary
+     * directory. A custom Vaadin service implementation can override this
+     * method to store them e.g. off-heap or in a store shared by the nodes of
+     * a cluster.
+     *
+     * @return the passivation store to use, not <code>null</code>
+     * @throws ServiceException
+     *             if the store could not be created
+     */
+    protected UIPassivationStore createUIPassivationStore()
+            throws ServiceException {
+        try {
+            return new FileUIPassivationStore(
+                    Files.createTempDirectory("vaadin-passivated-uis"));
+        } catch (IOException e) {
+            throw new ServiceException(
+                    "Failed to create a directory for passivated UIs", e);
+        }
+    }
+
+    /**
+     * Gets the sweeper which periodically removes inactive UIs from the
+     * sessions of this service.
+     *
+     * @return the session sweeper or <code>null</code> if it has not been
+     *         enabled using
+     *         {@link InitParameters#SERVLET_PARAMETER_SESSION_SWEEP_INTERVAL}
+     */
+    public SessionSweeper getSessionSweeper() {
+        return sessionSweeper;
+    }
+
     private void addRouterUsageStatistics() {
         if (UsageStatistics.getEntries().anyMatch(
                 e -> Constants.STATISTIC_ROUTING_CLIENT.equals(e.getName()))) {
@@ -331,6 +447,11 @@ public abstract class VaadinService implements Serializable {
         handlers.add(new UnsupportedBrowserHandler());
         handlers.add(new StreamRequestHandler());
         handlers.add(new PwaHandler(() -> getPwaRegistry()));
+        DeploymentConfiguration configuration = getDeploymentConfiguration();
+        if (configuration != null && configuration.getBooleanProperty(
+                InitParameters.SERVLET_PARAMETER_UI_FOOTPRINT_REPORT, false)) {
+            handlers.add(new UIFootprintHandler());
+        }
 
         handlers.add(new WebComponentProvider());
         handlers.add(new WebComponentBootstrapHandler());
@@ -583,6 +704,28 @@ public abstract class VaadinService implements Serializable {
         return Registration.addAndRemove(sessionDestroyListeners, listener);
     }
 
+    /**
+     * Adds a listener that gets notified at the end of each request which has
+     * locked a session, with the changes of the session since the previous
+     * notification.
+     * <p>
+     * The changes are tracked only while there are listeners. The first
+     * event for a session, and every
+     * {@link InitParameters#SERVLET_PARAMETER_SESSION_REPLICATION_SNAPSHOT_INTERVAL}th
+     * event after it, contain a full snapshot of the session.
+     *
+     * @param listener
+     *            the session replication listener
+     * @return a handle that can be used for removing the listener
+     * @see SessionDelta
+     * @see ReplicatedSession
+     */
+    public Registration addSessionReplicationListener(
+            SessionReplicationListener listener) {
+        return Registration.addAndRemove(sessionReplicationListeners,
+                listener);
+    }
+
     /**
      * Fires the
      * {@link BootstrapListener#modifyBootstrapPage(BootstrapPageResponse)}
@@ -620,6 +763,19 @@ public abstract class VaadinService implements Serializable {
                 listener -> listener.modifyIndexHtmlResponse(response));
     }
 
+    /**
+     * Checks whether any {@link IndexHtmlRequestListener} has been registered
+     * for this service.
+     * <p>
+     * For internal use only. May be renamed or removed in a future release.
+     *
+     * @return <code>true</code> if there is at least one listener,
+     *         <code>false</code> otherwise
+     */
+    public boolean hasIndexHtmlRequestListeners() {
+        return indexHtmlRequestListeners.iterator().hasNext();
+    }
+
     /**
      * Handles destruction of the given session. Internally ensures proper
      * locking is done.
@@ -629,6 +785,9 @@ public abstract class VaadinService implements Serializable {
      */
     public void fireSessionDestroy(VaadinSession vaadinSession) {
         final VaadinSession session = vaadinSession;
+        if (sessionSweeper != null) {
+            sessionSweeper.unregister(session);
+        }
         session.access(() -> {
             if (session.getState() == VaadinSessionState.CLOSED) {
                 return;
@@ -636,6 +795,10 @@ public abstract class VaadinService implements Serializable {
             if (session.getState() == VaadinSessionState.OPEN) {
                 closeSession(session);
             }
+            if (uiPassivator != null) {
+                // Restored so that they are detached like any other UI
+                uiPassivator.restoreAll(session);
+            }
             List<UI> uis = new ArrayList<>(session.getUIs());
             for (final UI ui : uis) {
                 ui.accessSynchronously(() -> {
@@ -822,6 +985,15 @@ public abstract class VaadinService implements Serializable {
         WrappedSession wrappedSession = getWrappedSession(request,
                 requestCanCreateSession);
 
+        if (HandlerHelper.isRequestType(request, RequestType.HEARTBEAT)) {
+            // Heartbeats only need an already initialized session, do not
+            // wait for the lock which may be held by a long request
+            VaadinSession session = findOpenSessionWithoutLock(wrappedSession);
+            if (session != null) {
+                return session;
+            }
+        }
+
         try {
             lockSession(wrappedSession);
         } catch (IllegalStateException e) {
@@ -837,6 +1009,34 @@ public abstract class VaadinService implements Serializable {
 
     }
 
+    /**
+     * Finds the open Vaadin session stored in the given HTTP session without
+     * locking it. Sessions which have just been deserialized are not returned,
+     * since their transient fields need to be refreshed with the session
+     * locked.
+     *
+     * @param wrappedSession
+     *            the underlying HTTP session
+     * @return the open session or <code>null</code> if there is no session
+     *         which can be used without locking
+     */
+    private VaadinSession findOpenSessionWithoutLock(
+            WrappedSession wrappedSession) {
+        Object attribute = wrappedSession
+                .getAttribute(getSessionAttributeName());
+        if (attribute instanceof VaadinSession) {
+            VaadinSession session = (VaadinSession) attribute;
+            boolean open = session
+                    .getStateWithoutLock() == VaadinSessionState.OPEN;
+            if (open && session.getService() == this
+                    && session.getSession() != null
+                    && !session.isDeserializedAsEmpty()) {
+                return session;
+            }
+        }
+        return null;
+    }
+
     /**
      * Finds or creates a Vaadin session. Assumes necessary synchronization has
      * been done by the caller to ensure this is not called simultaneously by
@@ -919,6 +1119,9 @@ public abstract class VaadinService implements Serializable {
         VaadinSession.setCurrent(session);
 
         storeSession(session, request.getWrappedSession());
+        if (sessionSweeper != null) {
+            sessionSweeper.register(session);
+        }
 
         // Initial WebBrowser data comes from the request
         session.setBrowser(new WebBrowser(request));
@@ -1298,7 +1501,7 @@ public abstract class VaadinService implements Serializable {
      *
      * @param session
      */
-    private void removeClosedUIs(final VaadinSession session) {
+    void removeClosedUIs(final VaadinSession session) {
         List<UI> uis = new ArrayList<>(session.getUIs());
         for (final UI ui : uis) {
             if (ui.isClosing()) {
@@ -1310,11 +1513,59 @@ public abstract class VaadinService implements Serializable {
         }
     }
 
+    /**
+     * Passivates those UIs in the given session which have been idle for
+     * longer than
+     * {@link InitParameters#SERVLET_PARAMETER_UI_PASSIVATION_TIMEOUT}. Does
+     * nothing if passivation has not been enabled.
+     *
+     * @param session
+     *            the locked session
+     */
+    void passivateIdleUIs(VaadinSession session) {
+        if (uiPassivator != null) {
+            uiPassivator.passivateIdleUIs(session);
+        }
+    }
+
+    /**
+     * Restores those passivated UIs in the given session whose heartbeat has
+     * expired, so that they can be closed by {@link #closeInactiveUIs}.
+     *
+     * @param session
+     *            the locked session
+     */
+    void restoreExpiredPassivatedUIs(VaadinSession session) {
+        if (uiPassivator != null) {
+            int timeout = getHeartbeatTimeout();
+            uiPassivator.restoreExpiredUIs(session,
+                    timeout < 0 ? -1 : TimeUnit.SECONDS.toMillis(timeout));
+        }
+    }
+
+    /**
+     * Restores a passivated UI to the given session.
+     *
+     * @param session
+     *            the locked session
+     * @param uiId
+     *            the id of the UI
+     * @return the restored UI or <code>null</code> if it could not be restored
+     */
+    UI restorePassivatedUI(VaadinSession session, int uiId) {
+        if (uiPassivator == null) {
+            // Passivation disabled after a restart
+            session.removePassivatedUI(uiId);
+            return null;
+        }
+        return uiPassivator.restore(session, uiId);
+    }
+
     /**
      * Closes those UIs in the given session for which {@link #isUIActive}
      * yields false.
      */
-    private void closeInactiveUIs(VaadinSession session) {
+    void closeInactiveUIs(VaadinSession session) {
         final String sessionId = session.getSession().getId();
         for (final UI ui : session.getUIs()) {
             if (!isUIActive(ui) && !ui.isClosing()) {
@@ -1464,9 +1715,23 @@ public abstract class VaadinService implements Serializable {
             VaadinSession session) {
         if (session != null) {
             assert VaadinSession.getCurrent() == session;
+            if (HandlerHelper.isRequestType(request, RequestType.HEARTBEAT)) {
+                // Heartbeats do not wait for the lock, the session is cleaned
+                // up at the end of the request holding it instead
+                if (session.getLockInstance().tryLock()) {
+                    try {
+                        cleanupSession(session);
+                    } finally {
+                        session.unlock();
+                    }
+                }
+                CurrentInstance.clearAll();
+                return;
+            }
             session.lock();
             try {
                 cleanupSession(session);
+                fireSessionReplication(session);
                 final long duration = (System.nanoTime() - (Long) request
                         .getAttribute(REQUEST_START_TIME_ATTRIBUTE)) / 1000000;
                 session.setLastRequestDuration(duration);
@@ -1477,6 +1742,31 @@ public abstract class VaadinService implements Serializable {
         CurrentInstance.clearAll();
     }
 
+    private void fireSessionReplication(VaadinSession session) {
+        if (sessionReplicationListeners.isEmpty()
+                || session.getState() != VaadinSessionState.OPEN) {
+            return;
+        }
+        SessionDelta delta;
+        try {
+            delta = SessionReplication.createDelta(session,
+                    replicationSnapshotInterval);
+        } catch (IOException e) {
+            getLogger().warn("Failed to serialize the session for replication",
+                    e);
+            return;
+        }
+        SessionReplicationEvent event = new SessionReplicationEvent(this,
+                session, delta);
+        for (SessionReplicationListener listener : sessionReplicationListeners) {
+            try {
+                listener.sessionReplication(event);
+            } catch (Exception e) {
+                session.getErrorHandler().error(new ErrorEvent(e));
+            }
+        }
+    }
+
     /**
      * Returns the request handlers that are registered with this service. The
      * iteration order of the returned collection is the same as the order in
@@ -1503,6 +1793,8 @@ public abstract class VaadinService implements Serializable {
     /**
      * Handles the incoming request and writes the response into the response
      * object. Uses {@link #getRequestHandlers()} for handling the request.
+     * Handlers implementing {@link TypedRequestHandler} are only called for
+     * requests of the types they declare.
      * <p>
      * If a session expiration is detected during request handling then each
      * {@link RequestHandler request handler} has an opportunity to handle the
@@ -1531,7 +1823,10 @@ public abstract class VaadinService implements Serializable {
                 return;
             }
 
-            for (RequestHandler handler : getRequestHandlers()) {
+            Iterable<RequestHandler> handlers = requestHandlerDispatcher == null
+                    ? getRequestHandlers()
+                    : requestHandlerDispatcher.getHandlers(request);
+            for (RequestHandler handler : handlers) {
                 if (handler.handleRequest(vaadinSession, request, response)) {
                     return;
                 }
@@ -1953,17 +2248,70 @@ public abstract class VaadinService implements Serializable {
      *            the command to run with the session locked
      * @return a future that can be used to check for task completion and to
      *         cancel the task
+     * @throws RejectedExecutionException
+     *             if the command is submitted by a background thread and the
+     *             pending access queue of the session is full
      * @see VaadinSession#access(Command)
      */
     public Future<Void> accessSession(VaadinSession session, Command command) {
-        FutureAccess future = new FutureAccess(session, command);
-        session.getPendingAccessQueue().add(future);
+        return submitAccess(session, new FutureAccess(session, command));
+    }
+
+    /**
+     * Implementation for {@link VaadinSession#accessLatest(Object, Command)}.
+     *
+     * @param session
+     *            the vaadin session to access
+     * @param key
+     *            the key identifying the commands which replace each other,
+     *            not <code>null</code>
+     * @param command
+     *            the command to run with the session locked
+     * @return a future that can be used to check for task completion and to
+     *         cancel the task
+     * @throws RejectedExecutionException
+     *             if the command is submitted by a background thread and the
+     *             pending access queue of the session is full
+     * @see VaadinSession#accessLatest(Object, Command)
+     */
+    public Future<Void> accessSessionLatest(VaadinSession session, Object key,
+            Command command) {
+        Objects.requireNonNull(key, "Key cannot be null");
+        return submitAccess(session, new FutureAccess(session, command, key));
+    }
+
+    private Future<Void> submitAccess(VaadinSession session,
+            FutureAccess future) {
+        Queue<FutureAccess> queue = session.getPendingAccessQueue();
+        if (queue instanceof PendingAccessQueue) {
+            enqueue(session, (PendingAccessQueue) queue, future);
+        } else {
+            queue.add(future);
+        }
 
         ensureAccessQueuePurged(session);
 
         return future;
     }
 
+    private void enqueue(VaadinSession session, PendingAccessQueue queue,
+            FutureAccess future) {
+        // Only tasks submitted while handling a request of the same session
+        // are user interaction, other request threads may push any amount of
+        // tasks to the session
+        if (VaadinSession.getCurrent() == session) {
+            queue.offer(future, true);
+        } else if (pendingAccessQueueLimit <= 0) {
+            queue.offer(future, false);
+        } else if (!queue.offerBackground(future, pendingAccessQueueLimit,
+                pendingAccessQueueOverflow)) {
+            throw new RejectedExecutionException(
+                    "The pending access queue of the session is full, "
+                            + pendingAccessQueueLimit
+                            + " background tasks are waiting to be run");
+        }
+    }
+
     /**
      * Makes sure the pending access queue is purged for the provided session.
      * If the session is currently locked by the current thread or some other
@@ -2073,6 +2421,12 @@ public abstract class VaadinService implements Serializable {
         ServiceDestroyEvent event = new ServiceDestroyEvent(this);
         serviceDestroyListeners
                 .forEach(listener -> listener.serviceDestroy(event));
+        if (sessionSweeper != null) {
+            sessionSweeper.stop();
+        }
+        if (uiPassivator != null) {
+            uiPassivator.destroy();
+        }
     }
 
     /**
@@ -2144,6 +2498,10 @@ public abstract class VaadinService implements Serializable {
         if (vaadinSession == null) {
             return null;
         }
+        if (sessionSweeper != null && vaadinSession.getService() == null) {
+            // Deserialized session, e.g. after a restart or failover
+            sessionSweeper.register(vaadinSession);
+        }
         vaadinSession.refreshTransients(wrappedSession, this);
         return vaadinSession;
     }
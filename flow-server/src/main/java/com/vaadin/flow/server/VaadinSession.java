@@ -29,13 +29,14 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -96,7 +97,13 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     private LinkedList<RequestHandler> requestHandlers = new LinkedList<>();
 
     private int nextUIId = 0;
-    private Map<Integer, UI> uIs = new HashMap<>();
+    // Concurrent so that a UI can be looked up without holding the lock
+    private Map<Integer, UI> uIs = new ConcurrentHashMap<>();
+
+    /**
+     * UIs removed from {@link #uIs} by {@link UIPassivator}, by UI id.
+     */
+    private final Map<Integer, PassivatedUI> passivatedUIs = new ConcurrentHashMap<>();
 
     protected WebBrowser browser = new WebBrowser();
 
@@ -106,7 +113,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     private long lastRequestTimestamp = System.currentTimeMillis();
 
-    private VaadinSessionState state = VaadinSessionState.OPEN;
+    private volatile VaadinSessionState state = VaadinSessionState.OPEN;
 
     private transient WrappedSession session;
 
@@ -119,7 +126,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * session is serialized as long as it doesn't happen while some other
      * thread has the lock.
      */
-    private transient ConcurrentLinkedQueue<FutureAccess> pendingAccessQueue = new ConcurrentLinkedQueue<>();
+    private transient PendingAccessQueue pendingAccessQueue = new PendingAccessQueue();
 
     /*
      * Despite section 6 of RFC 4122, this particular use of UUID *is* adequate
@@ -141,6 +148,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     private transient boolean deserializedAsEmpty;
 
+    private transient SessionReplication.Checkpoint replicationCheckpoint;
+
     /**
      * Creates a new VaadinSession tied to a VaadinService.
      *
@@ -387,6 +396,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
         checkHasLock();
         this.locale = locale;
+        replicationCheckpoint = null;
 
         getUIs().forEach(ui -> ui.setLocale(locale));
     }
@@ -412,6 +422,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
         checkHasLock();
         this.errorHandler = errorHandler;
+        replicationCheckpoint = null;
     }
 
     /**
@@ -429,6 +440,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void addRequestHandler(RequestHandler handler) {
         checkHasLock();
         requestHandlers.addFirst(handler);
+        replicationCheckpoint = null;
     }
 
     /**
@@ -440,6 +452,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void removeRequestHandler(RequestHandler handler) {
         checkHasLock();
         requestHandlers.remove(handler);
+        replicationCheckpoint = null;
     }
 
     /**
@@ -500,6 +513,10 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * Gets all the UIs of this session. This includes UIs that have been
      * requested but not yet initialized. UIs that receive no heartbeat requests
      * from the client are eventually removed from the session.
+     * <p>
+     * UIs which have been passivated because of inactivity, see
+     * {@link InitParameters#SERVLET_PARAMETER_UI_PASSIVATION_TIMEOUT}, are
+     * not included until they are restored.
      *
      * @return a collection of UIs belonging to this application
      */
@@ -519,9 +536,167 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public UI getUIById(int uiId) {
         checkHasLock();
+        UI ui = uIs.get(uiId);
+        if (ui == null && passivatedUIs.containsKey(uiId)) {
+            ui = getService().restorePassivatedUI(this, uiId);
+        }
+        return ui;
+    }
+
+    /**
+     * Returns a UI with the given id without requiring the session to be
+     * locked.
+     * <p>
+     * The returned UI may only be used for operations which are safe to do
+     * without the session lock, such as updating the heartbeat timestamp.
+     * <p>
+     * This is meant for framework internal use.
+     *
+     * @param uiId
+     *            The UI id
+     * @return The UI with the given id or null if not found
+     */
+    public UI getUIByIdWithoutLock(int uiId) {
         return uIs.get(uiId);
     }
 
+    /**
+     * Updates the heartbeat timestamp of a passivated UI without requiring
+     * the session to be locked. The UI is not restored.
+     * <p>
+     * This is meant for framework internal use.
+     *
+     * @param uiId
+     *            the UI id
+     * @param lastHeartbeat
+     *            the heartbeat timestamp, in milliseconds since the epoch
+     * @return <code>true</code> if the UI has been passivated and its
+     *         timestamp was updated, <code>false</code> otherwise
+     */
+    public boolean trySetPassivatedUIHeartbeatTimestamp(int uiId,
+            long lastHeartbeat) {
+        PassivatedUI passivated = passivatedUIs.get(uiId);
+        if (passivated == null) {
+            return false;
+        }
+        passivated.lastHeartbeatTimestamp = lastHeartbeat;
+        return true;
+    }
+
+    /**
+     * Gets the state of this session at its previous replication.
+     *
+     * @return the replication checkpoint, or <code>null</code> if the session
+     *         has not been replicated since it was created or deserialized
+     */
+    SessionReplication.Checkpoint getReplicationCheckpoint() {
+        return replicationCheckpoint;
+    }
+
+    /**
+     * Sets the state of this session at its latest replication.
+     *
+     * @param replicationCheckpoint
+     *            the replication checkpoint, or <code>null</code> to replicate
+     *            a full snapshot next time
+     */
+    void setReplicationCheckpoint(
+            SessionReplication.Checkpoint replicationCheckpoint) {
+        this.replicationCheckpoint = replicationCheckpoint;
+    }
+
+    /**
+     * Gets all attributes of this session.
+     *
+     * @return an unmodifiable map of the attribute values by name, not
+     *         <code>null</code>
+     */
+    Map<String, Object> getAttributeMap() {
+        return attributes.getMap();
+    }
+
+    /**
+     * Stores a value in this session without checking the lock or recording
+     * the change, e.g. when restoring a replicated session.
+     *
+     * @param name
+     *            the name of the attribute, not <code>null</code>
+     * @param value
+     *            the value, or <code>null</code> to remove the attribute
+     */
+    void restoreAttribute(String name, Object value) {
+        attributes.setAttribute(name, value);
+    }
+
+    /**
+     * Adds, replaces or removes a UI of this session without checking the
+     * lock or initializing the UI, e.g. when restoring a replicated session.
+     *
+     * @param uiId
+     *            the UI id
+     * @param ui
+     *            the UI, or <code>null</code> to remove the UI
+     */
+    void restoreUI(int uiId, UI ui) {
+        if (ui == null) {
+            uIs.remove(uiId);
+        } else {
+            uIs.put(uiId, ui);
+        }
+    }
+
+    /**
+     * Replaces the given UI with a reference to its passivated state.
+     * <p>
+     * The UI instance is detached like a closed UI, so that its detach
+     * listeners can release resources and any later attempt to access it
+     * fails. Must be called with the UI set as the current UI.
+     *
+     * @param ui
+     *            the passivated UI
+     * @param store
+     *            the store of the UI
+     * @param key
+     *            the key of the UI in the store
+     * @param sharedObjects
+     *            the objects the UI shares with the attributes of this
+     *            session, which are not part of the stored data
+     */
+    void passivateUI(UI ui, UIPassivationStore store, String key,
+            List<Object> sharedObjects) {
+        checkHasLock();
+        passivatedUIs.put(ui.getUIId(), new PassivatedUI(store, key,
+                ui.getInternals().getLastHeartbeatTimestamp(),
+                sharedObjects));
+        uIs.remove(ui.getUIId());
+        ui.getInternals().setSession(null);
+        replicationCheckpoint = null;
+    }
+
+    /**
+     * Removes the reference to a passivated UI, typically when restoring it.
+     *
+     * @param uiId
+     *            the UI id
+     * @return the passivated UI or <code>null</code> if the UI has not been
+     *         passivated
+     */
+    PassivatedUI removePassivatedUI(int uiId) {
+        checkHasLock();
+        replicationCheckpoint = null;
+        return passivatedUIs.remove(uiId);
+    }
+
+    /**
+     * Gets the passivated UIs of this session.
+     *
+     * @return an unmodifiable map of the passivated UIs by UI id
+     */
+    Map<Integer, PassivatedUI> getPassivatedUIs() {
+        checkHasLock();
+        return Collections.unmodifiableMap(passivatedUIs);
+    }
+
     /**
      * Checks if the current thread has exclusive access to this
      * <code>VaadinSession</code>.
@@ -733,6 +908,9 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void setAttribute(String name, Object value) {
         checkHasLock();
         attributes.setAttribute(name, value);
+        if (replicationCheckpoint != null) {
+            replicationCheckpoint.attributeChanged(name);
+        }
     }
 
     /**
@@ -759,6 +937,9 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public <T> void setAttribute(Class<T> type, T value) {
         checkHasLock();
         attributes.setAttribute(type, value);
+        if (replicationCheckpoint != null) {
+            replicationCheckpoint.attributeChanged(type.getName());
+        }
     }
 
     /**
@@ -874,6 +1055,16 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         return state;
     }
 
+    /**
+     * Returns the lifecycle state of this session without requiring the
+     * session to be locked.
+     *
+     * @return the current state of this session
+     */
+    VaadinSessionState getStateWithoutLock() {
+        return state;
+    }
+
     /**
      * Sets the lifecycle state of this session. The allowed transitions are
      * OPEN to CLOSING and CLOSING to CLOSED.
@@ -973,11 +1164,20 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * cancel the task. To help avoiding deadlocks, {@link Future#get()} throws
      * an exception if it is detected that the current thread holds the lock for
      * some other session.
+     * <p>
+     * Commands submitted while handling a request are run before commands
+     * submitted by background threads. If a limit has been configured for the
+     * pending background commands, see
+     * {@link InitParameters#SERVLET_PARAMETER_PENDING_ACCESS_QUEUE_LIMIT}, a
+     * command submitted by a background thread may be rejected.
      *
      * @param command
      *            the command which accesses the session
      * @return a future that can be used to check for task completion and to
      *         cancel the task
+     * @throws java.util.concurrent.RejectedExecutionException
+     *             if the command is submitted by a background thread and the
+     *             pending access queue of the session is full
      * @see #lock()
      * @see #getCurrent()
      * @see #accessSynchronously(Command)
@@ -987,10 +1187,41 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         return getService().accessSession(this, command);
     }
 
+    /**
+     * Provides exclusive access to this session from outside a request
+     * handling thread, replacing any pending command submitted with the same
+     * key which has not been run yet. The replaced command is cancelled, so
+     * only the most recent command for a key is run.
+     * <p>
+     * This is meant for frequent updates of the same state from background
+     * threads, e.g. showing the latest value of a sensor, where only the most
+     * recent update matters. Otherwise this works like
+     * {@link #access(Command)}.
+     *
+     * @param key
+     *            the key identifying the commands which replace each other,
+     *            not <code>null</code>
+     * @param command
+     *            the command which accesses the session
+     * @return a future that can be used to check for task completion and to
+     *         cancel the task, cancelled if the command is replaced
+     * @throws java.util.concurrent.RejectedExecutionException
+     *             if the command is submitted by a background thread and the
+     *             pending access queue of the session is full
+     * @see #access(Command)
+     * @see UI#accessLatest(Object, Command)
+     */
+    public Future<Void> accessLatest(Object key, Command command) {
+        return getService().accessSessionLatest(this, key, command);
+    }
+
     /**
      * Gets the queue of tasks submitted using {@link #access(Command)}. It is
      * safe to call this method and access the returned queue without holding
      * the {@link #lock() session lock}.
+     * <p>
+     * The returned queue is a {@link PendingAccessQueue}, which provides
+     * metrics on the queue depth and on the time tasks wait in the queue.
      *
      * @return the queue of pending access tasks
      */
@@ -1034,7 +1265,16 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         Map<Class<?>, CurrentInstance> old = CurrentInstance.setCurrent(this);
         try {
             stream.defaultReadObject();
-            pendingAccessQueue = new ConcurrentLinkedQueue<>();
+            pendingAccessQueue = new PendingAccessQueue();
+            @SuppressWarnings("unchecked")
+            Map<Integer, byte[]> passivatedData = (Map<Integer, byte[]>) stream
+                    .readObject();
+            passivatedData.forEach((uiId, data) -> {
+                PassivatedUI passivated = passivatedUIs.get(uiId);
+                if (passivated != null) {
+                    passivated.data = data;
+                }
+            });
         } finally {
             CurrentInstance.restoreInstances(old);
         }
@@ -1054,6 +1294,23 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         stream.writeBoolean(serialize);
         if (serialize) {
             stream.defaultWriteObject();
+            // The passivation store may not be available where the session is
+            // deserialized
+            Map<Integer, byte[]> passivatedData = new HashMap<>();
+            for (Map.Entry<Integer, PassivatedUI> entry : passivatedUIs
+                    .entrySet()) {
+                try {
+                    byte[] data = entry.getValue().readData();
+                    if (data != null) {
+                        passivatedData.put(entry.getKey(), data);
+                    }
+                } catch (IOException e) {
+                    getLogger().warn("Failed to read passivated UI {}, the UI "
+                            + "is lost if the session is deserialized",
+                            entry.getKey(), e);
+                }
+            }
+            stream.writeObject(passivatedData);
         }
     }
 
@@ -1104,4 +1361,62 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     boolean isDeserializedAsEmpty() {
         return deserializedAsEmpty;
     }
+
+    /**
+     * Reference to a UI passivated by {@link UIPassivator}.
+     */
+    static class PassivatedUI implements Serializable {
+        // The store of another node is not available after deserialization,
+        // the data is serialized with the session instead
+        private final transient UIPassivationStore store;
+        private final String key;
+        private volatile long lastHeartbeatTimestamp;
+        private final List<Object> sharedObjects;
+        private transient byte[] data;
+
+        private PassivatedUI(UIPassivationStore store, String key,
+                long lastHeartbeatTimestamp, List<Object> sharedObjects) {
+            this.store = store;
+            this.key = key;
+            this.lastHeartbeatTimestamp = lastHeartbeatTimestamp;
+            this.sharedObjects = sharedObjects;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        List<Object> getSharedObjects() {
+            return sharedObjects;
+        }
+
+        long getLastHeartbeatTimestamp() {
+            return lastHeartbeatTimestamp;
+        }
+
+        /**
+         * Gets the serialized UI if it has been deserialized with the session.
+         *
+         * @return the serialized UI or <code>null</code> if it is only in the
+         *         store
+         */
+        byte[] getData() {
+            return data;
+        }
+
+        /**
+         * Reads the serialized UI without removing it from the store.
+         *
+         * @return the serialized UI or <code>null</code> if it is not
+         *         available
+         * @throws IOException
+         *             if the data could not be read from the store
+         */
+        private byte[] readData() throws IOException {
+            if (data != null || store == null) {
+                return data;
+            }
+            return store.read(key);
+        }
+    }
 }
@@ -20,8 +20,11 @@ import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.security.Principal;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import javax.annotation.security.DenyAll;
 import javax.annotation.security.PermitAll;
@@ -52,9 +55,15 @@ import com.vaadin.flow.server.VaadinServletRequest;
  * any of the roles mentioned in the annotation</li>
  * <li>{@link DenyAll} - denies access.</li>
  * </ul>
+ * <p>
+ * The annotations of a method or a class are only looked up the first time
+ * access to it is checked, the resulting access rule is cached in the checker
+ * instance.
  */
 public class AccessAnnotationChecker implements Serializable {
 
+    private transient volatile Map<AnnotatedElement, AccessRule> accessRules;
+
     /**
      * Checks if the user defined by the current active servlet request (using
      * {@link HttpServletRequest#getUserPrincipal()} and
@@ -154,7 +163,8 @@ public class AccessAnnotationChecker implements Serializable {
      */
     public boolean hasAccess(Method method, Principal principal,
             Function<String, Boolean> roleChecker) {
-        return hasAccess(getSecurityTarget(method), principal, roleChecker);
+        return getAccessRule(method, () -> getSecurityTarget(method))
+                .hasAccess(principal, roleChecker);
     }
 
     /**
@@ -172,7 +182,8 @@ public class AccessAnnotationChecker implements Serializable {
      */
     public boolean hasAccess(Class<?> cls, Principal principal,
             Function<String, Boolean> roleChecker) {
-        return hasAccess(getSecurityTarget(cls), principal, roleChecker);
+        return getAccessRule(cls, () -> getSecurityTarget(cls))
+                .hasAccess(principal, roleChecker);
     }
 
     /**
@@ -234,36 +245,21 @@ public class AccessAnnotationChecker implements Serializable {
         return cls;
     }
 
-    private boolean hasAccess(AnnotatedElement annotatedClassOrMethod,
-            Principal principal, Function<String, Boolean> roleChecker) {
-        if (annotatedClassOrMethod.isAnnotationPresent(DenyAll.class)) {
-            return false;
-        }
-        if (annotatedClassOrMethod
-                .isAnnotationPresent(AnonymousAllowed.class)) {
-            return true;
+    private AccessRule getAccessRule(AnnotatedElement methodOrClass,
+            Supplier<AnnotatedElement> securityTarget) {
+        Map<AnnotatedElement, AccessRule> rules = accessRules;
+        if (rules == null) {
+            rules = new ConcurrentHashMap<>();
+            accessRules = rules;
         }
-        if (principal == null) {
-            return false;
-        }
-        RolesAllowed rolesAllowed = annotatedClassOrMethod
-                .getAnnotation(RolesAllowed.class);
-        if (rolesAllowed == null) {
-            return annotatedClassOrMethod.isAnnotationPresent(PermitAll.class);
-        } else {
-            return roleAllowed(rolesAllowed, roleChecker);
+        AccessRule rule = rules.get(methodOrClass);
+        if (rule == null) {
+            // The security target is resolved outside of the map update, so
+            // that a failing lookup is not cached
+            rule = new AccessRule(securityTarget.get());
+            rules.putIfAbsent(methodOrClass, rule);
         }
-    }
-
-    private boolean roleAllowed(RolesAllowed rolesAllowed,
-            Function<String, Boolean> roleChecker) {
-        for (String role : rolesAllowed.value()) {
-            if (roleChecker.apply(role)) {
-                return true;
-            }
-        }
-
-        return false;
+        return rule;
     }
 
     private boolean hasSecurityAnnotation(AnnotatedElement method) {
@@ -273,4 +269,48 @@ public class AccessAnnotationChecker implements Serializable {
                 || method.isAnnotationPresent(RolesAllowed.class);
     }
 
+    /**
+     * The access rule defined by the security annotations of a method or a
+     * class.
+     */
+    private static class AccessRule implements Serializable {
+        private final boolean denyAll;
+        private final boolean anonymousAllowed;
+        private final boolean permitAll;
+        private final String[] rolesAllowed;
+
+        private AccessRule(AnnotatedElement annotatedClassOrMethod) {
+            denyAll = annotatedClassOrMethod.isAnnotationPresent(DenyAll.class);
+            anonymousAllowed = annotatedClassOrMethod
+                    .isAnnotationPresent(AnonymousAllowed.class);
+            permitAll = annotatedClassOrMethod
+                    .isAnnotationPresent(PermitAll.class);
+            RolesAllowed roles = annotatedClassOrMethod
+                    .getAnnotation(RolesAllowed.class);
+            rolesAllowed = roles == null ? null : roles.value();
+        }
+
+        private boolean hasAccess(Principal principal,
+                Function<String, Boolean> roleChecker) {
+            if (denyAll) {
+                return false;
+            }
+            if (anonymousAllowed) {
+                return true;
+            }
+            if (principal == null) {
+                return false;
+            }
+            if (rolesAllowed == null) {
+                return permitAll;
+            }
+            for (String role : rolesAllowed) {
+                if (roleChecker.apply(role)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
 }
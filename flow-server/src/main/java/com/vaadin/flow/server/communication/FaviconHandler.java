@@ -18,8 +18,10 @@ package com.vaadin.flow.server.communication;
 import javax.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
 
-import com.vaadin.flow.server.RequestHandler;
+import com.vaadin.flow.server.TypedRequestHandler;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinServletRequest;
@@ -36,7 +38,12 @@ import com.vaadin.flow.server.VaadinSession;
  * @author Vaadin Ltd
  * @since 1.0
  */
-public class FaviconHandler implements RequestHandler {
+public class FaviconHandler implements TypedRequestHandler {
+
+    @Override
+    public Set<String> getRequestTypes() {
+        return Collections.singleton(NO_REQUEST_TYPE);
+    }
 
     @Override
     public boolean handleRequest(VaadinSession session, VaadinRequest request,
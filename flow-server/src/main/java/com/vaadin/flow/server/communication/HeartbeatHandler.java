@@ -19,6 +19,8 @@ package com.vaadin.flow.server.communication;
 import javax.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
 
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.UIInternals;
@@ -26,6 +28,7 @@ import com.vaadin.flow.server.HandlerHelper;
 import com.vaadin.flow.server.HandlerHelper.RequestType;
 import com.vaadin.flow.server.SessionExpiredHandler;
 import com.vaadin.flow.server.SynchronizedRequestHandler;
+import com.vaadin.flow.server.TypedRequestHandler;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinSession;
@@ -45,13 +48,59 @@ import com.vaadin.flow.shared.ApplicationConstants;
  * @since 1.0
  */
 public class HeartbeatHandler extends SynchronizedRequestHandler
-        implements SessionExpiredHandler {
+        implements SessionExpiredHandler, TypedRequestHandler {
+
+    @Override
+    public Set<String> getRequestTypes() {
+        return Collections.singleton(RequestType.HEARTBEAT.getIdentifier());
+    }
 
     @Override
     protected boolean canHandleRequest(VaadinRequest request) {
         return HandlerHelper.isRequestType(request, RequestType.HEARTBEAT);
     }
 
+    /**
+     * Handles a heartbeat request without locking the session when the UI has
+     * no {@link com.vaadin.flow.component.HeartbeatListener}s to notify. In
+     * that case only the heartbeat timestamp of the UI needs to be updated.
+     * The same applies to UIs which have been passivated, they are not
+     * restored by heartbeat requests.
+     * Otherwise the request is handled with the session locked by
+     * {@link #synchronizedHandleRequest(VaadinSession, VaadinRequest, VaadinResponse)}.
+     */
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!canHandleRequest(request)) {
+            return false;
+        }
+
+        String uiIdString = request
+                .getParameter(ApplicationConstants.UI_ID_PARAMETER);
+        int uiId;
+        try {
+            uiId = uiIdString == null ? -1 : Integer.parseInt(uiIdString);
+        } catch (NumberFormatException e) {
+            // Let the synchronized handling deal with invalid ids
+            uiId = -1;
+        }
+        long now = System.currentTimeMillis();
+        UI ui = session.getUIByIdWithoutLock(uiId);
+        boolean updated;
+        if (ui != null) {
+            updated = ui.getInternals().trySetLastHeartbeatTimestamp(now);
+        } else {
+            // A passivated UI is kept alive without restoring it
+            updated = session.trySetPassivatedUIHeartbeatTimestamp(uiId, now);
+        }
+        if (updated) {
+            writeHeartbeatResponse(response);
+            return true;
+        }
+        return super.handleRequest(session, request, response);
+    }
+
     /**
      * Handles a heartbeat request for the given session. Reads the GET
      * parameter named {@link ApplicationConstants#UI_ID_PARAMETER} to identify
@@ -67,14 +116,7 @@ public class HeartbeatHandler extends SynchronizedRequestHandler
         if (ui != null) {
             ui.getInternals()
                     .setLastHeartbeatTimestamp(System.currentTimeMillis());
-            // Ensure that the browser does not cache heartbeat responses.
-            // iOS 6 Safari requires this
-            // (https://github.com/vaadin/framework/issues/3226)
-            response.setHeader("Cache-Control", "no-cache");
-            // If Content-Type is not set, browsers assume text/html and may
-            // complain about the empty response body
-            // (https://github.com/vaadin/framework/issues/4167)
-            response.setHeader("Content-Type", "text/plain");
+            writeHeartbeatResponse(response);
         } else {
             response.sendError(HttpServletResponse.SC_NOT_FOUND,
                     "UI not found");
@@ -83,6 +125,17 @@ public class HeartbeatHandler extends SynchronizedRequestHandler
         return true;
     }
 
+    private static void writeHeartbeatResponse(VaadinResponse response) {
+        // Ensure that the browser does not cache heartbeat responses.
+        // iOS 6 Safari requires this
+        // (https://github.com/vaadin/framework/issues/3226)
+        response.setHeader("Cache-Control", "no-cache");
+        // If Content-Type is not set, browsers assume text/html and may
+        // complain about the empty response body
+        // (https://github.com/vaadin/framework/issues/4167)
+        response.setHeader("Content-Type", "text/plain");
+    }
+
     /*
      * (non-Javadoc)
      *
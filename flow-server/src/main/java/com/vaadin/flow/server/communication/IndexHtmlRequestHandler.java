@@ -15,13 +15,21 @@
  */
 package com.vaadin.flow.server.communication;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import org.jsoup.Jsoup;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Comment;
 import org.jsoup.nodes.DataNode;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -36,7 +44,9 @@ import com.vaadin.flow.internal.BrowserLiveReload;
 import com.vaadin.flow.internal.BrowserLiveReloadAccessor;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.UsageStatisticsExporter;
+import com.vaadin.flow.component.page.AppShellConfigurator;
 import com.vaadin.flow.server.AppShellRegistry;
+import com.vaadin.flow.server.AppShellSettings;
 import com.vaadin.flow.server.BootstrapHandler;
 import com.vaadin.flow.server.Constants;
 import com.vaadin.flow.server.VaadinContext;
@@ -60,6 +70,12 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  * to the template provided in the frontend folder. The handler will calculate
  * and inject baseHref as well as the bundle scripts into the template.
  * <p>
+ * In production mode the page is precompiled into static segments once, and
+ * only the request specific parts are written between them. The page is built
+ * as a Jsoup document for every request only when it can be modified by
+ * {@link IndexHtmlRequestListener}s or
+ * {@link AppShellConfigurator#configurePage(AppShellSettings)}.
+ * <p>
  * For internal use only. May be renamed or removed in a future release.
  */
 public class IndexHtmlRequestHandler extends JavaScriptBootstrapHandler {
@@ -74,11 +90,18 @@ public class IndexHtmlRequestHandler extends JavaScriptBootstrapHandler {
     private static final String SPRING_CSRF_HEADER_NAME_ATTRIBUTE = "_csrf_header";
     private static final String SPRING_CSRF_TOKEN_ATTRIBUTE = "_csrf";
     private static final String META_TAG = "meta";
+    private static final String BASE_HREF_PLACEHOLDER = "__vaadin_base_href__";
+    private static final String INITIAL_FLOW_PLACEHOLDER = "__vaadin_initial_flow__";
+    private static final String INITIAL_JSON_PLACEHOLDER = "__vaadin_initial_json__";
 
     @Override
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
         DeploymentConfiguration config = session.getConfiguration();
+        if (config.isProductionMode() && canUsePrecompiledIndexHtml(request)) {
+            return writePrecompiledIndexHtml(session, request, response);
+        }
+
         IndexHtmlResponse indexHtmlResponse;
 
         Document indexDocument = config.isProductionMode()
@@ -148,17 +171,100 @@ public class IndexHtmlRequestHandler extends JavaScriptBootstrapHandler {
         return true;
     }
 
+    private boolean writePrecompiledIndexHtml(VaadinSession session,
+            VaadinRequest request, VaadinResponse response) {
+        PrecompiledIndexHtml indexHtml = getPrecompiledIndexHtml(request);
+
+        JsonObject initialJson = Json.createObject();
+        if (request.getService().getBootstrapInitialPredicate()
+                .includeInitialUidl(request)) {
+            includeInitialUidl(initialJson, session, request, response);
+
+            // App might be using classic server-routing, which is true
+            // unless we detect a call to JavaScriptBootstrapUI.connectClient
+            session.setAttribute(SERVER_ROUTING, Boolean.TRUE);
+        }
+
+        // The initial flow elements are rendered with a placeholder for the
+        // initial JSON, which is streamed to the response instead so that a
+        // large initial UIDL is not copied into intermediate strings
+        List<Element> initialFlowElements = createCsrfElements(initialJson,
+                session, request);
+        initialFlowElements.add(0,
+                createInitialScript(INITIAL_JSON_PLACEHOLDER));
+        Document holder = Document.createShell("");
+        holder.outputSettings().prettyPrint(false);
+        holder.head().insertChildren(0, initialFlowElements);
+        String initialFlow = holder.head().html();
+        int initialJsonIndex = initialFlow.indexOf(INITIAL_JSON_PLACEHOLDER);
+
+        response.setContentType(CONTENT_TYPE_TEXT_HTML_UTF_8);
+
+        if (UI.getCurrent() != null && indexHtml.title != null) {
+            UI.getCurrent().getInternals().setAppShellTitle(indexHtml.title);
+        }
+
+        try {
+            OutputStream out = response.getOutputStream();
+            out.write(indexHtml.beforeInitialFlow);
+            out.write(initialFlow.substring(0, initialJsonIndex)
+                    .getBytes(UTF_8));
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(out, UTF_8));
+            JsonUtils.writeJson(initialJson, writer);
+            writer.flush();
+            out.write(initialFlow
+                    .substring(initialJsonIndex
+                            + INITIAL_JSON_PLACEHOLDER.length())
+                    .getBytes(UTF_8));
+            out.write(indexHtml.beforeBaseHref);
+            out.write(new Attribute("href", getServiceUrl(request)).html()
+                    .getBytes(UTF_8));
+            out.write(indexHtml.afterBaseHref);
+        } catch (IOException e) {
+            getLogger().error("Error writing 'index.html' to response", e);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean canUsePrecompiledIndexHtml(VaadinRequest request) {
+        VaadinService service = request.getService();
+        if (service.hasIndexHtmlRequestListeners()) {
+            return false;
+        }
+        Class<? extends AppShellConfigurator> shell = AppShellRegistry
+                .getInstance(service.getContext()).getShell();
+        if (shell == null) {
+            return true;
+        }
+        try {
+            // The page can be precompiled unless the app shell may modify it
+            // differently for each request
+            return shell.getMethod("configurePage", AppShellSettings.class)
+                    .getDeclaringClass() == AppShellConfigurator.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     private void storeAppShellTitleToUI(Document indexDocument) {
         if (UI.getCurrent() != null) {
-            Element elm = indexDocument.head().selectFirst("title");
-            if (elm != null) {
-                String appShellTitle = elm.text().isEmpty() ? elm.data()
-                        : elm.text();
+            String appShellTitle = getTitle(indexDocument);
+            if (appShellTitle != null) {
                 UI.getCurrent().getInternals().setAppShellTitle(appShellTitle);
             }
         }
     }
 
+    private static String getTitle(Document indexDocument) {
+        Element elm = indexDocument.head().selectFirst("title");
+        if (elm == null) {
+            return null;
+        }
+        return elm.text().isEmpty() ? elm.data() : elm.text();
+    }
+
     private void addDevmodeGizmo(Document indexDocument, VaadinSession session,
             VaadinRequest request) {
         VaadinService service = session.getService();
@@ -181,6 +287,29 @@ public class IndexHtmlRequestHandler extends JavaScriptBootstrapHandler {
 
     private void addInitialFlow(JsonObject initialJson, Document indexDocument,
             VaadinSession session, VaadinRequest request) {
+        indexDocument.head().insertChildren(0,
+                createInitialFlowElements(initialJson, session, request));
+    }
+
+    /**
+     * Creates the elements to insert at the beginning of the head: the
+     * initial script followed by the Spring CSRF meta tags, if any.
+     */
+    private List<Element> createInitialFlowElements(JsonObject initialJson,
+            VaadinSession session, VaadinRequest request) {
+        List<Element> elements = createCsrfElements(initialJson, session,
+                request);
+        elements.add(0, createInitialScript(JsonUtil.stringify(initialJson)));
+        return elements;
+    }
+
+    /**
+     * Adds the CSRF token to the initial JSON and creates the Spring CSRF
+     * meta tags, if any.
+     */
+    private List<Element> createCsrfElements(JsonObject initialJson,
+            VaadinSession session, VaadinRequest request) {
+        List<Element> elements = new ArrayList<>();
         // Do not add the CSRF token if the request comes from the service
         // worker, to not have the token cached locally (#9537)
         String referer = request.getHeader("referer");
@@ -206,36 +335,41 @@ public class IndexHtmlRequestHandler extends JavaScriptBootstrapHandler {
                     String springCsrfTokenParameterName = springCsrfTokenJson
                             .getString(SPRING_CSRF_PARAMETER_PROPERTY);
 
-                    addMetaTagToHead(indexDocument.head(),
-                            SPRING_CSRF_TOKEN_ATTRIBUTE, springCsrfTokenString);
-                    addMetaTagToHead(indexDocument.head(),
-                            SPRING_CSRF_HEADER_NAME_ATTRIBUTE,
-                            springCsrfTokenHeaderName);
-                    addMetaTagToHead(indexDocument.head(),
+                    elements.add(createMetaTag(
                             SPRING_CSRF_PARAMETER_NAME_ATTRIBUTE,
-                            springCsrfTokenParameterName);
+                            springCsrfTokenParameterName));
+                    elements.add(createMetaTag(
+                            SPRING_CSRF_HEADER_NAME_ATTRIBUTE,
+                            springCsrfTokenHeaderName));
+                    elements.add(createMetaTag(SPRING_CSRF_TOKEN_ATTRIBUTE,
+                            springCsrfTokenString));
                 }
             }
         }
 
+        return elements;
+    }
+
+    private static Element createInitialScript(String initialJson) {
         Element elm = new Element("script");
         elm.attr("initial", "");
-        elm.appendChild(new DataNode("window.Vaadin = {TypeScript: "
-                + JsonUtil.stringify(initialJson) + "};"));
-        indexDocument.head().insertChildren(0, elm);
+        elm.appendChild(new DataNode(
+                "window.Vaadin = {TypeScript: " + initialJson + "};"));
+        return elm;
     }
 
-    private void addMetaTagToHead(Element head, String name, String value) {
+    private Element createMetaTag(String name, String value) {
         Element meta = new Element(META_TAG);
         meta.attr(NAME_ATTRIBUTE, name);
         meta.attr(CONTENT_ATTRIBUTE, value);
-        head.insertChildren(0, meta);
+        return meta;
     }
 
     private void includeInitialUidl(JsonObject initialJson,
             VaadinSession session, VaadinRequest request,
             VaadinResponse response) {
         JsonObject initial = getInitialJson(request, response, session);
+        setPreloadLinkHeader(initial, session, response);
         initialJson.put("initial", initial);
     }
 
@@ -270,6 +404,39 @@ public class IndexHtmlRequestHandler extends JavaScriptBootstrapHandler {
         }
     }
 
+    private PrecompiledIndexHtml getPrecompiledIndexHtml(
+            VaadinRequest request) {
+        VaadinService service = request.getService();
+        return service.getContext().getAttribute(PrecompiledIndexHtml.class,
+                () -> new PrecompiledIndexHtml(
+                        createIndexHtmlTemplate(request)));
+    }
+
+    /**
+     * Creates the index.html document with all the parts that do not depend
+     * on the request applied, and placeholders for the base href and the
+     * initial flow elements.
+     */
+    private Document createIndexHtmlTemplate(VaadinRequest request) {
+        VaadinService service = request.getService();
+        Document document = getCachedIndexHtmlDocument(service);
+
+        Elements base = document.head().getElementsByTag("base");
+        if (base.isEmpty()) {
+            document.head().prependElement("base").attr("href",
+                    BASE_HREF_PLACEHOLDER);
+        } else {
+            base.first().attr("href", BASE_HREF_PLACEHOLDER);
+        }
+        document.head().prependChild(new Comment(INITIAL_FLOW_PLACEHOLDER));
+
+        configureErrorDialogStyles(document);
+        setupPwa(document, service);
+        AppShellRegistry.getInstance(service.getContext())
+                .modifyIndexHtml(document, request);
+        return document;
+    }
+
     private static Document getCachedIndexHtmlDocument(VaadinService service) {
         return service.getContext().getAttribute(IndexHtmlHolder.class,
                 () -> new IndexHtmlHolder(service)).getDocument();
@@ -326,6 +493,42 @@ public class IndexHtmlRequestHandler extends JavaScriptBootstrapHandler {
         }
     }
 
+    // Holds index.html split into static byte segments around the request
+    // specific parts, see createIndexHtmlTemplate
+    //
+    // This holder is supposed to be stored as a VaadinContext attribute
+    private static final class PrecompiledIndexHtml implements Serializable {
+        private final byte[] beforeInitialFlow;
+        private final byte[] beforeBaseHref;
+        private final byte[] afterBaseHref;
+        private final String title;
+
+        private PrecompiledIndexHtml(Document template) {
+            String html = template.html();
+            String initialFlowMarker = "<!--" + INITIAL_FLOW_PLACEHOLDER
+                    + "-->";
+            String baseHrefMarker = new Attribute("href",
+                    BASE_HREF_PLACEHOLDER).html();
+
+            int initialFlowIndex = html.indexOf(initialFlowMarker);
+            int baseHrefIndex = html.indexOf(baseHrefMarker,
+                    initialFlowIndex);
+            if (initialFlowIndex < 0 || baseHrefIndex < 0) {
+                throw new IllegalStateException(
+                        "Unable to precompile 'index.html'");
+            }
+            beforeInitialFlow = html.substring(0, initialFlowIndex)
+                    .getBytes(UTF_8);
+            beforeBaseHref = html.substring(
+                    initialFlowIndex + initialFlowMarker.length(),
+                    baseHrefIndex).getBytes(UTF_8);
+            afterBaseHref = html
+                    .substring(baseHrefIndex + baseHrefMarker.length())
+                    .getBytes(UTF_8);
+            title = getTitle(template);
+        }
+    }
+
     private static Logger getLogger() {
         return LoggerFactory.getLogger(IndexHtmlRequestHandler.class);
     }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.Serializable;
+import java.util.function.Function;
+
+import com.vaadin.flow.internal.SizeBoundedLruCache;
+
+/**
+ * Cache for the contents of {@link com.vaadin.flow.shared.ui.LoadMode#INLINE}
+ * dependencies, shared by all UIs of an application.
+ * <p>
+ * The total length of the cached contents is bounded, least recently used
+ * entries are evicted first. Contents larger than a single entry limit are
+ * never cached.
+ * <p>
+ * This holder is supposed to be stored as a
+ * {@link com.vaadin.flow.server.VaadinContext} attribute and used only in
+ * production mode, where the resources cannot change.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+class InlineDependencyCache implements Serializable {
+
+    /**
+     * Maximum total length of cached contents, in characters.
+     */
+    static final long MAX_CONTENTS_LENGTH = 8L * 1024 * 1024;
+
+    /**
+     * Contents longer than this, in characters, are never cached.
+     */
+    static final int MAX_ENTRY_LENGTH = 512 * 1024;
+
+    private final SizeBoundedLruCache<String, String> contents = new SizeBoundedLruCache<>(
+            MAX_CONTENTS_LENGTH, String::length);
+
+    /**
+     * Gets the contents of the dependency with the given URL, loading them
+     * using the given loader unless already cached.
+     *
+     * @param url
+     *            the dependency URL, not <code>null</code>
+     * @param loader
+     *            loads the contents for a URL, not <code>null</code>
+     * @return the dependency contents
+     */
+    String getContents(String url, Function<String, String> loader) {
+        String cached = contents.get(url);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Load outside of the lock, concurrent loads of the same resource
+        // produce the same contents
+        String loaded = loader.apply(url);
+        if (loaded.length() <= MAX_ENTRY_LENGTH) {
+            contents.put(url, loaded);
+        }
+        return loaded;
+    }
+}
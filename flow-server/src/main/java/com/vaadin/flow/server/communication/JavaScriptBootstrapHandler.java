@@ -16,8 +16,12 @@
 
 package com.vaadin.flow.server.communication;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -25,6 +29,7 @@ import com.vaadin.flow.component.PushConfiguration;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.JavaScriptBootstrapUI;
 import com.vaadin.flow.internal.BootstrapHandlerHelper;
+import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.UsageStatistics;
 import com.vaadin.flow.internal.DevModeHandler;
 import com.vaadin.flow.internal.DevModeHandlerManager;
@@ -43,7 +48,6 @@ import com.vaadin.flow.shared.ApplicationConstants;
 import elemental.json.Json;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
-import elemental.json.impl.JsonUtil;
 
 import static com.vaadin.flow.component.internal.JavaScriptBootstrapUI.SERVER_ROUTING;
 
@@ -170,10 +174,43 @@ public class JavaScriptBootstrapHandler extends BootstrapHandler {
         HandlerHelper.setResponseNoCacheHeaders(response::setHeader,
                 response::setDateHeader);
 
-        writeResponse(response, getInitialJson(request, response, session));
+        JsonObject initial = getInitialJson(request, response, session);
+        setPreloadLinkHeader(initial, session, response);
+        writeResponse(response, initial);
         return true;
     }
 
+    /**
+     * Sets a {@code Link} header which lets the browser start loading the
+     * dependencies of the initial UIDL while the response is being processed.
+     *
+     * @param initial
+     *            the initial application JSON, see
+     *            {@link #getInitialJson(VaadinRequest, VaadinResponse, VaadinSession)}
+     * @param session
+     *            the vaadin session
+     * @param response
+     *            the response
+     */
+    void setPreloadLinkHeader(JsonObject initial, VaadinSession session,
+            VaadinResponse response) {
+        JsonObject appConfig = initial.getObject("appConfig");
+        if (appConfig == null || !appConfig.hasKey("uidl")
+                || !appConfig.hasKey(ApplicationConstants.UI_ID_PARAMETER)) {
+            return;
+        }
+        UI ui = session.getUIById((int) appConfig
+                .getNumber(ApplicationConstants.UI_ID_PARAMETER));
+        if (ui == null) {
+            return;
+        }
+        String preloadLinks = UidlWriter
+                .createPreloadLinkHeader(appConfig.getObject("uidl"), ui);
+        if (preloadLinks != null) {
+            response.setHeader("Link", preloadLinks);
+        }
+    }
+
     /**
      * Gets the service URL as a URL relative to the request URI.
      *
@@ -218,8 +255,10 @@ public class JavaScriptBootstrapHandler extends BootstrapHandler {
             throws IOException {
         response.setContentType("application/json");
         response.setStatus(HttpURLConnection.HTTP_OK);
-        response.getOutputStream()
-                .write(JsonUtil.stringify(json).getBytes("UTF-8"));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                response.getOutputStream(), StandardCharsets.UTF_8));
+        JsonUtils.writeJson(json, writer);
+        writer.flush();
     }
 
     /**
@@ -20,6 +20,8 @@ import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
 
 import org.atmosphere.cache.UUIDBroadcasterCache;
 import org.atmosphere.client.TrackMessageSizeInterceptor;
@@ -38,9 +40,9 @@ import org.slf4j.LoggerFactory;
 import com.vaadin.flow.server.HandlerHelper;
 import com.vaadin.flow.server.HandlerHelper.RequestType;
 import com.vaadin.flow.server.InitParameters;
-import com.vaadin.flow.server.RequestHandler;
 import com.vaadin.flow.server.ServiceException;
 import com.vaadin.flow.server.SessionExpiredHandler;
+import com.vaadin.flow.server.TypedRequestHandler;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinServletRequest;
@@ -61,7 +63,7 @@ import com.vaadin.flow.shared.communication.PushConstants;
  * @since 1.0
  */
 public class PushRequestHandler
-        implements RequestHandler, SessionExpiredHandler {
+        implements SessionExpiredHandler, TypedRequestHandler {
 
     private AtmosphereFramework atmosphere;
     private PushHandler pushHandler;
@@ -233,6 +235,11 @@ public class PushRequestHandler
         return atmosphere;
     }
 
+    @Override
+    public Set<String> getRequestTypes() {
+        return Collections.singleton(RequestType.PUSH.getIdentifier());
+    }
+
     @Override
     public boolean handleRequest(VaadinSession session, VaadinRequest request,
             VaadinResponse response) throws IOException {
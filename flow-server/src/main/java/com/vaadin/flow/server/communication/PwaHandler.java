@@ -15,18 +15,24 @@
  */
 package com.vaadin.flow.server.communication;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.vaadin.flow.function.SerializableSupplier;
+import com.vaadin.flow.internal.ResponseWriter;
 import com.vaadin.flow.server.PwaIcon;
 import com.vaadin.flow.server.PwaRegistry;
 import com.vaadin.flow.server.RequestHandler;
+import com.vaadin.flow.server.TypedRequestHandler;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinSession;
@@ -45,7 +51,7 @@ import com.vaadin.flow.server.VaadinSession;
  *
  * @since 1.2
  */
-public class PwaHandler implements RequestHandler {
+public class PwaHandler implements TypedRequestHandler {
     public static final String SW_RUNTIME_PRECACHE_PATH = "/sw-runtime-resources-precache.js";
     public static final String DEFAULT_OFFLINE_STUB_PATH = "offline-stub.html";
 
@@ -77,6 +83,16 @@ public class PwaHandler implements RequestHandler {
                             response.setHeader("Cache-Control",
                                     "no-cache, must-revalidate");
                         }
+                        // Revalidation does not need the image to be rendered
+                        String eTag = "\"" + icon.getFileHash() + "\"";
+                        response.setHeader("ETag", eTag);
+                        if (ResponseWriter.findMatchingETag(
+                                request.getHeader("If-None-Match"), eTag,
+                                false) != null) {
+                            response.setStatus(
+                                    HttpServletResponse.SC_NOT_MODIFIED);
+                            return true;
+                        }
                         try (OutputStream out = response.getOutputStream()) {
                             icon.write(out);
                         }
@@ -125,6 +141,11 @@ public class PwaHandler implements RequestHandler {
                 });
     }
 
+    @Override
+    public Set<String> getRequestTypes() {
+        return Collections.singleton(NO_REQUEST_TYPE);
+    }
+
     @Override
     public boolean handleRequest(VaadinSession session, VaadinRequest request,
             VaadinResponse response) throws IOException {
@@ -30,6 +30,7 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.fileupload.FileItemIterator;
 import org.apache.commons.fileupload.FileItemStream;
@@ -69,7 +70,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  */
 public class StreamReceiverHandler implements Serializable {
 
-    private static final int MAX_UPLOAD_BUFFER_SIZE = 4 * 1024;
+    private static final int MAX_UPLOAD_BUFFER_SIZE = 64 * 1024;
 
     /* Minimum interval which will be used for streaming progress events. */
     public static final int DEFAULT_STREAMING_PROGRESS_EVENT_INTERVAL_MS = 500;
@@ -97,6 +98,42 @@ public class StreamReceiverHandler implements Serializable {
         OK, ERROR
     }
 
+    /**
+     * Delivers progress events to a stream variable using
+     * {@link VaadinSession#access(com.vaadin.flow.server.Command)} so that the
+     * thread reading the upload never waits for the session lock. If new
+     * events are produced while a previous one is still waiting for the lock,
+     * only the latest one is delivered.
+     */
+    private static class ProgressPublisher implements Serializable {
+        private final VaadinSession session;
+        private final StreamVariable streamVariable;
+        private final AtomicReference<StreamingProgressEventImpl> pending = new AtomicReference<>();
+
+        private ProgressPublisher(VaadinSession session,
+                StreamVariable streamVariable) {
+            this.session = session;
+            this.streamVariable = streamVariable;
+        }
+
+        private void publish(StreamingProgressEventImpl event) {
+            if (pending.getAndSet(event) == null) {
+                session.access(this::deliver);
+            }
+        }
+
+        /**
+         * Delivers the pending event, if any. Must be called with the session
+         * locked.
+         */
+        private void deliver() {
+            StreamingProgressEventImpl event = pending.getAndSet(null);
+            if (event != null) {
+                streamVariable.onProgress(event);
+            }
+        }
+    }
+
     /**
      * Handle reception of incoming stream from the client.
      *
@@ -477,6 +514,7 @@ public class StreamReceiverHandler implements Serializable {
         StreamingStartEventImpl startedEvent = new StreamingStartEventImpl(
                 filename, type, contentLength);
         boolean success = false;
+        ProgressPublisher progressPublisher = null;
         try {
             boolean listenProgress;
             session.lock();
@@ -499,6 +537,10 @@ public class StreamReceiverHandler implements Serializable {
             }
 
             final byte[] buffer = new byte[MAX_UPLOAD_BUFFER_SIZE];
+            if (listenProgress) {
+                progressPublisher = new ProgressPublisher(session,
+                        streamVariable);
+            }
             long lastStreamingEvent = 0;
             int bytesReadToBuffer;
             do {
@@ -511,7 +553,7 @@ public class StreamReceiverHandler implements Serializable {
                     StreamingProgressEventImpl progressEvent = new StreamingProgressEventImpl(
                             filename, type, contentLength, totalBytes);
 
-                    lastStreamingEvent = updateProgress(session, streamVariable,
+                    lastStreamingEvent = updateProgress(progressPublisher,
                             progressEvent, lastStreamingEvent,
                             bytesReadToBuffer);
                 }
@@ -526,6 +568,10 @@ public class StreamReceiverHandler implements Serializable {
                     filename, type, totalBytes);
             session.lock();
             try {
+                if (progressPublisher != null) {
+                    // Progress must not be reported after the end event
+                    progressPublisher.deliver();
+                }
                 streamVariable.streamingFinished(event);
             } finally {
                 session.unlock();
@@ -535,12 +581,12 @@ public class StreamReceiverHandler implements Serializable {
             // Download is either interrupted by application code or some
             // IOException happens
             onStreamingFailed(session, filename, type, contentLength,
-                    streamVariable, out, totalBytes, e);
+                    streamVariable, out, totalBytes, progressPublisher, e);
             // Interrupted exception and IOEXception are not thrown forward:
             // it's enough to fire them via streamVariable
         } catch (final Exception e) {
             onStreamingFailed(session, filename, type, contentLength,
-                    streamVariable, out, totalBytes, e);
+                    streamVariable, out, totalBytes, progressPublisher, e);
             // Throw not IOException and interrupted exception for terminal to
             // be handled (to be passed to terminalErrorHandler): such
             // exceptions mean mistakes in the implementation logic (not upload
@@ -553,10 +599,14 @@ public class StreamReceiverHandler implements Serializable {
 
     private void onStreamingFailed(VaadinSession session, String filename,
             String type, long contentLength, StreamVariable streamVariable,
-            OutputStream out, long totalBytes, final Exception exception) {
+            OutputStream out, long totalBytes,
+            ProgressPublisher progressPublisher, final Exception exception) {
         tryToCloseStream(out);
         session.lock();
         try {
+            if (progressPublisher != null) {
+                progressPublisher.deliver();
+            }
             streamVariable.streamingFailed(new StreamingErrorEventImpl(filename,
                     type, contentLength, totalBytes, exception));
         } finally {
@@ -564,8 +614,7 @@ public class StreamReceiverHandler implements Serializable {
         }
     }
 
-    private long updateProgress(VaadinSession session,
-            StreamVariable streamVariable,
+    private long updateProgress(ProgressPublisher progressPublisher,
             StreamingProgressEventImpl progressEvent, long lastStreamingEvent,
             int bytesReadToBuffer) {
         long now = System.currentTimeMillis();
@@ -573,12 +622,7 @@ public class StreamReceiverHandler implements Serializable {
         // events are sent in intervals, or at the end of the file.
         if (lastStreamingEvent + getProgressEventInterval() <= now
                 || bytesReadToBuffer <= 0) {
-            session.lock();
-            try {
-                streamVariable.onProgress(progressEvent);
-            } finally {
-                session.unlock();
-            }
+            progressPublisher.publish(progressEvent);
             return now;
         }
         return lastStreamingEvent;
@@ -23,16 +23,18 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.server.AbstractStreamResource;
-import com.vaadin.flow.server.RequestHandler;
 import com.vaadin.flow.server.StreamReceiver;
 import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.server.TypedRequestHandler;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinSession;
@@ -46,7 +48,7 @@ import com.vaadin.flow.server.VaadinSession;
  * @author Vaadin Ltd
  * @since 1.0
  */
-public class StreamRequestHandler implements RequestHandler {
+public class StreamRequestHandler implements TypedRequestHandler {
 
     private static final char PATH_SEPARATOR = '/';
 
@@ -70,6 +72,11 @@ public class StreamRequestHandler implements RequestHandler {
         this.receiverHandler = receiverHandler;
     }
 
+    @Override
+    public Set<String> getRequestTypes() {
+        return Collections.singleton(NO_REQUEST_TYPE);
+    }
+
     @Override
     public boolean handleRequest(VaadinSession session, VaadinRequest request,
             VaadinResponse response) throws IOException {
@@ -15,18 +15,30 @@
  */
 package com.vaadin.flow.server.communication;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.server.AsyncStreamResourceWriter;
+import com.vaadin.flow.server.AsyncStreamResourceWriter.ChunkWriter;
 import com.vaadin.flow.server.StreamResource;
 import com.vaadin.flow.server.StreamResourceWriter;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.VaadinServletResponse;
 import com.vaadin.flow.server.VaadinSession;
 
 /**
@@ -79,6 +91,16 @@ public class StreamResourceHandler implements Serializable {
         } finally {
             session.unlock();
         }
+        if (writer instanceof AsyncStreamResourceWriter
+                && request instanceof VaadinServletRequest
+                && response instanceof VaadinServletResponse
+                && ((VaadinServletRequest) request).isAsyncSupported()) {
+            writeAsync((AsyncStreamResourceWriter) writer, session,
+                    (VaadinServletRequest) request,
+                    (VaadinServletResponse) response);
+            return;
+        }
+
         // don't use here "try resource" syntax sugar because in case there is
         // an exception the {@code outputStream} will be closed before "catch"
         // block which sets the status code and this code will not have any
@@ -97,4 +119,111 @@ public class StreamResourceHandler implements Serializable {
         }
     }
 
+    private void writeAsync(AsyncStreamResourceWriter writer,
+            VaadinSession session, VaadinServletRequest request,
+            VaadinServletResponse response) throws IOException {
+        ChunkWriter chunkWriter;
+        try {
+            chunkWriter = writer.start(session);
+        } catch (Exception exception) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            throw exception;
+        }
+        AsyncContext asyncContext = request.startAsync();
+        // The download may take longer than the default timeout of the
+        // container, failures are reported through the write listener
+        asyncContext.setTimeout(0);
+        ServletOutputStream outputStream = response.getOutputStream();
+        ChunkWriteListener listener = new ChunkWriteListener(chunkWriter,
+                outputStream, asyncContext);
+        asyncContext.addListener(listener);
+        outputStream.setWriteListener(listener);
+    }
+
+    /**
+     * Writes the chunks of an {@link AsyncStreamResourceWriter} download
+     * whenever the servlet container reports that the output stream is ready.
+     * The chunk writer is also closed if the asynchronous request times out,
+     * fails or is completed by the container.
+     */
+    private static class ChunkWriteListener
+            implements WriteListener, AsyncListener {
+        private final ChunkWriter chunkWriter;
+        private final ServletOutputStream outputStream;
+        private final AsyncContext asyncContext;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private ChunkWriteListener(ChunkWriter chunkWriter,
+                ServletOutputStream outputStream, AsyncContext asyncContext) {
+            this.chunkWriter = chunkWriter;
+            this.outputStream = outputStream;
+            this.asyncContext = asyncContext;
+        }
+
+        @Override
+        public void onWritePossible() throws IOException {
+            try {
+                while (outputStream.isReady()) {
+                    if (!chunkWriter.writeNext(outputStream)) {
+                        complete();
+                        return;
+                    }
+                }
+            } catch (RuntimeException exception) {
+                getLogger().error("Error writing stream resource", exception);
+                complete();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            getLogger().debug("Error writing stream resource", throwable);
+            complete();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // NOP
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            getLogger().debug("Timeout writing stream resource");
+            complete();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            onError(event.getThrowable());
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            closeWriter();
+        }
+
+        private void complete() {
+            if (completed.compareAndSet(false, true)) {
+                closeWriter();
+                asyncContext.complete();
+            }
+        }
+
+        private void closeWriter() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                chunkWriter.close();
+            } catch (IOException e) {
+                getLogger().debug("Error closing stream resource writer", e);
+            }
+        }
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(StreamResourceHandler.class.getName());
+    }
+
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.UIFootprint;
+import com.vaadin.flow.internal.JsonUtils;
+import com.vaadin.flow.server.HandlerHelper;
+import com.vaadin.flow.server.InitParameters;
+import com.vaadin.flow.server.SynchronizedRequestHandler;
+import com.vaadin.flow.server.TypedRequestHandler;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.ApplicationConstants;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+
+/**
+ * Writes a {@link UIFootprint} report of the UIs of the requesting session as
+ * JSON. The report is requested with the <code>v-r=footprint</code>
+ * parameter, optionally limited to a single UI with the
+ * {@link ApplicationConstants#UI_ID_PARAMETER} parameter.
+ * <p>
+ * Only the session of the request is inspected. The handler is registered
+ * when {@link InitParameters#SERVLET_PARAMETER_UI_FOOTPRINT_REPORT} is
+ * enabled.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since
+ */
+public class UIFootprintHandler extends SynchronizedRequestHandler
+        implements TypedRequestHandler {
+
+    /**
+     * The value of the {@link ApplicationConstants#REQUEST_TYPE_PARAMETER}
+     * parameter for footprint requests.
+     */
+    public static final String REQUEST_TYPE_FOOTPRINT = "footprint";
+
+    @Override
+    public Set<String> getRequestTypes() {
+        return Collections.singleton(REQUEST_TYPE_FOOTPRINT);
+    }
+
+    @Override
+    protected boolean canHandleRequest(VaadinRequest request) {
+        return REQUEST_TYPE_FOOTPRINT.equals(request
+                .getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER));
+    }
+
+    @Override
+    public boolean synchronizedHandleRequest(VaadinSession session,
+            VaadinRequest request, VaadinResponse response) throws IOException {
+        String uiId = request
+                .getParameter(ApplicationConstants.UI_ID_PARAMETER);
+
+        JsonArray uis = Json.createArray();
+        for (UI ui : session.getUIs()) {
+            if (uiId == null || uiId.equals(String.valueOf(ui.getUIId()))) {
+                uis.set(uis.length(), UIFootprint.collect(ui).toJson());
+            }
+        }
+
+        response.setContentType("application/json");
+        response.setStatus(HttpURLConnection.HTTP_OK);
+        HandlerHelper.setResponseNoCacheHeaders(response::setHeader,
+                response::setDateHeader);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                response.getOutputStream(), StandardCharsets.UTF_8));
+        JsonUtils.writeJson(uis, writer);
+        writer.flush();
+        return true;
+    }
+}
@@ -20,6 +20,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Collections;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -33,6 +35,7 @@ import com.vaadin.flow.server.HandlerHelper;
 import com.vaadin.flow.server.HandlerHelper.RequestType;
 import com.vaadin.flow.server.SessionExpiredHandler;
 import com.vaadin.flow.server.SynchronizedRequestHandler;
+import com.vaadin.flow.server.TypedRequestHandler;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinService;
@@ -67,7 +70,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  * @since 1.0
  */
 public class UidlRequestHandler extends SynchronizedRequestHandler
-        implements SessionExpiredHandler {
+        implements SessionExpiredHandler, TypedRequestHandler {
 
     private AtomicReference<ServerRpcHandler> rpcHandler = new AtomicReference<>();
 
@@ -83,6 +86,11 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
     private static final String CHANGES = "changes";
     private static final String EXECUTE = UIDL_KEY_EXECUTE;
 
+    @Override
+    public Set<String> getRequestTypes() {
+        return Collections.singleton(RequestType.UIDL.getIdentifier());
+    }
+
     @Override
     protected boolean canHandleRequest(VaadinRequest request) {
         return HandlerHelper.isRequestType(request, RequestType.UIDL);
@@ -110,10 +118,11 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         }
 
         StringWriter stringWriter = new StringWriter();
+        JsonObject uidl;
 
         try {
             getRpcHandler(session).handleRpc(uI, request.getReader(), request);
-            writeUidl(uI, stringWriter, false);
+            uidl = writeUidl(uI, stringWriter, false);
         } catch (JsonException e) {
             getLogger().error("Error writing JSON to response", e);
             // Refresh on client side
@@ -127,11 +136,18 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             return true;
         } catch (ResynchronizationRequiredException e) { // NOSONAR
             // Resync on the client side
-            writeUidl(uI, stringWriter, true);
+            uidl = writeUidl(uI, stringWriter, true);
         } finally {
             stringWriter.close();
         }
 
+        // Let the browser start loading new dependencies before the response
+        // has been processed
+        String preloadLinks = UidlWriter.createPreloadLinkHeader(uidl, uI);
+        if (preloadLinks != null) {
+            response.setHeader("Link", preloadLinks);
+        }
+
         commitJsonResponse(response, stringWriter.toString());
         return true;
     }
@@ -142,7 +158,8 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         commitJsonResponse(response, json);
     }
 
-    void writeUidl(UI ui, Writer writer, boolean resync) throws IOException {
+    JsonObject writeUidl(UI ui, Writer writer, boolean resync)
+            throws IOException {
         JsonObject uidl = createUidl(ui, resync);
 
         if (ui instanceof JavaScriptBootstrapUI) {
@@ -152,6 +169,7 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         // some dirt to prevent cross site scripting
         String responseString = "for(;;);[" + uidl.toJson() + "]";
         writer.write(responseString);
+        return uidl;
     }
 
     JsonObject createUidl(UI ui, boolean resync) {
@@ -25,6 +25,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +53,7 @@ import com.vaadin.flow.internal.change.NodeChange;
 import com.vaadin.flow.internal.nodefeature.ComponentMapping;
 import com.vaadin.flow.internal.nodefeature.ReturnChannelMap;
 import com.vaadin.flow.internal.nodefeature.ReturnChannelRegistration;
+import com.vaadin.flow.server.BootstrapHandler.BootstrapUriResolver;
 import com.vaadin.flow.server.DependencyFilter;
 import com.vaadin.flow.server.SystemMessages;
 import com.vaadin.flow.server.VaadinService;
@@ -253,8 +255,89 @@ public class UidlWriter implements Serializable {
         return dependencyJson;
     }
 
+    /**
+     * Creates the value of a {@code Link} header which lets the browser start
+     * preloading the dependencies of the given UIDL message while the response
+     * is still being processed.
+     * <p>
+     * Only dependencies which are loaded by URL, i.e. with
+     * {@link LoadMode#EAGER} or {@link LoadMode#LAZY}, are included.
+     *
+     * @param uidl
+     *            the UIDL message, not {@code null}
+     * @param ui
+     *            the UI the message is for, not {@code null}
+     * @return the header value or {@code null} if there is nothing to preload
+     */
+    static String createPreloadLinkHeader(JsonObject uidl, UI ui) {
+        String contextRootRelativePath = ui.getInternals()
+                .getContextRootRelativePath();
+        if (contextRootRelativePath == null) {
+            return null;
+        }
+        BootstrapUriResolver resolver = null;
+        StringBuilder links = new StringBuilder();
+        for (LoadMode loadMode : EnumSet.of(LoadMode.EAGER, LoadMode.LAZY)) {
+            if (!uidl.hasKey(loadMode.name())) {
+                continue;
+            }
+            JsonArray dependencies = uidl.getArray(loadMode.name());
+            for (int i = 0; i < dependencies.length(); i++) {
+                JsonObject dependency = dependencies.getObject(i);
+                String preload = getPreloadParameters(
+                        dependency.getString(Dependency.KEY_TYPE));
+                if (preload == null
+                        || !dependency.hasKey(Dependency.KEY_URL)) {
+                    continue;
+                }
+                if (resolver == null) {
+                    resolver = new BootstrapUriResolver(
+                            contextRootRelativePath, ui.getSession());
+                }
+                String url = resolver.resolveVaadinUri(
+                        dependency.getString(Dependency.KEY_URL));
+                if (url.indexOf('>') >= 0) {
+                    continue;
+                }
+                if (links.length() > 0) {
+                    links.append(", ");
+                }
+                links.append('<').append(url).append(">; ").append(preload);
+            }
+        }
+        return links.length() > 0 ? links.toString() : null;
+    }
+
+    private static String getPreloadParameters(String dependencyType) {
+        if (Dependency.Type.JS_MODULE.name().equals(dependencyType)) {
+            return "rel=modulepreload";
+        } else if (Dependency.Type.JAVASCRIPT.name().equals(dependencyType)) {
+            return "rel=preload; as=script";
+        } else if (Dependency.Type.STYLESHEET.name().equals(dependencyType)) {
+            return "rel=preload; as=style";
+        }
+        // Dynamic imports are expressions, not URLs
+        return null;
+    }
+
     private static String getDependencyContents(String url,
             ResolveContext context) {
+        VaadinService service = context.getService();
+        if (service.getDeploymentConfiguration().isProductionMode()) {
+            // Resources do not change in production mode, so the contents can
+            // be shared by all UIs instead of being read for every response
+            return service.getContext()
+                    .getAttribute(InlineDependencyCache.class,
+                            InlineDependencyCache::new)
+                    .getContents(url,
+                            dependencyUrl -> readDependencyContents(
+                                    dependencyUrl, context));
+        }
+        return readDependencyContents(url, context);
+    }
+
+    private static String readDependencyContents(String url,
+            ResolveContext context) {
         try (InputStream inlineResourceStream = getInlineResourceStream(url,
                 context)) {
             return IOUtils.toString(inlineResourceStream,
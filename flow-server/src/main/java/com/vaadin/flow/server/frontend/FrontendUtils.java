@@ -196,6 +196,12 @@ public class FrontendUtils {
      */
     public static final String BOOTSTRAP_FILE_NAME = "vaadin.ts";
 
+    /**
+     * File name of the content hash manifest generated by webpack for the
+     * production bundle files.
+     */
+    public static final String CONTENT_HASHES_JSON = "content-hashes.json";
+
     /**
      * File name of the index.html in client side.
      */
@@ -1146,6 +1152,22 @@ public class FrontendUtils {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Parse "content-hashes.json" file contents obtained from webpack and
+     * extract the content hash of every listed request path.
+     *
+     * @param contentHashesJson
+     *            "content-hashes.json" file contents
+     * @return map of paths, each starting with "/", to the hashes of their
+     *         contents
+     */
+    public static Map<String, String> parseContentHashes(
+            String contentHashesJson) {
+        JsonObject hashes = Json.parse(contentHashesJson);
+        return Arrays.stream(hashes.keys()).collect(Collectors
+                .toMap(key -> "/" + key, key -> hashes.getString(key)));
+    }
+
     /**
      * Tries to parse the given package's frontend version or if it doesn't
      * exist, returns {@code null}. In case the value cannot be parsed, logs an
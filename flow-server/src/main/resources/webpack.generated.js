@@ -19,6 +19,8 @@ const ThemeLiveReloadPlugin = require('@vaadin/theme-live-reload-plugin');
 const { ApplicationThemePlugin, processThemeResources, extractThemeName, findParentThemes } = require('@vaadin/application-theme-plugin');
 
 const path = require('path');
+const crypto = require('crypto');
+const zlib = require('zlib');
 
 // this matches /themes/my-theme/ and is used to check css url handling and file path build.
 const themePartRegex = /(\\|\/)themes\1[\s\S]*?\1/;
@@ -120,6 +122,33 @@ if (useClientSideIndexFileForBootstrapping) {
   webPackEntries.bundle = fileNameOfTheFlowGeneratedMainEntryPoint;
 }
 
+// Writes a JSON file mapping the hashed bundle files to the SHA-256 hash of
+// their contents. The file is used by flow to serve these files with immutable
+// cache headers and strong ETags.
+const contentHashesFile = 'content-hashes.json';
+const contentHashesPlugin = {
+  apply: (compiler) => {
+    compiler.hooks.emit.tap('ContentHashesPlugin', (compilation) => {
+      const hashes = {};
+      Object.keys(compilation.assets)
+        .filter(name => name.startsWith(`${VAADIN}/${build}/`) && !/\.(gz|br|map)$/.test(name))
+        .forEach(name => {
+          hashes[name] = crypto.createHash('sha256')
+            .update(compilation.assets[name].source())
+            .digest('base64')
+            .replace(/\+/g, '-')
+            .replace(/\//g, '_')
+            .replace(/=+$/, '');
+        });
+      const json = JSON.stringify(hashes, null, 2);
+      compilation.assets[contentHashesFile] = {
+        source: () => json,
+        size: () => json.length
+      };
+    });
+  }
+};
+
 const appShellUrl = '.';
 let appShellManifestEntry = undefined;
 
@@ -357,6 +386,21 @@ module.exports = {
     // Generate compressed bundles when not devMode
     !devMode && new CompressionPlugin(),
 
+    // Generate Brotli compressed bundles when not devMode and supported by node
+    !devMode && zlib.brotliCompress && new CompressionPlugin({
+      filename: '[path].br[query]',
+      algorithm: 'brotliCompress',
+      test: /\.(js|css|html|svg|json)$/,
+      compressionOptions: {
+        params: {
+          [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY
+        }
+      }
+    }),
+
+    // Generate content hashes of the bundle files when not devMode
+    !devMode && contentHashesPlugin,
+
     enableTypeScript && new ForkTsCheckerWebpackPlugin({
       typescript: {
         configFile: tsconfigJsonFile
@@ -916,6 +916,27 @@ public class UITest {
         assertEquals("Handler should have run once", 1, runCount.get());
     }
 
+    @Test
+    public void accessLatest_sameKeyWhileLocked_onlyLatestTaskRun() {
+        List<String> runTasks = new ArrayList<>();
+
+        MockUI ui = createAccessableTestUI();
+        MockUI otherUi = new MockUI(ui.getSession());
+        CurrentInstance.clearAll();
+
+        ui.getSession().lock();
+        try {
+            ui.accessLatest("label", () -> runTasks.add("first"));
+            ui.accessLatest("label", () -> runTasks.add("second"));
+            // Keys are scoped to the UI
+            otherUi.accessLatest("label", () -> runTasks.add("other UI"));
+        } finally {
+            ui.getSession().unlock();
+        }
+
+        assertEquals(Arrays.asList("second", "other UI"), runTasks);
+    }
+
     @Test
     public void navigate_useParameterizedTarget_noOptionalAnnotation_navigationSucceded() {
         AtomicReference<String> loc = new AtomicReference<>();
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.internal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentEvent;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.UIFootprint.Entry;
+import com.vaadin.flow.dom.Element;
+
+import elemental.json.JsonObject;
+
+public class UIFootprintTest {
+
+    @Tag("div")
+    private static class TestComponent extends Component {
+    }
+
+    private static class TestEvent extends ComponentEvent<TestComponent> {
+        private TestEvent(TestComponent source) {
+            super(source, false);
+        }
+    }
+
+    @Test
+    public void collect_nodesAccountedToClosestComponent() {
+        UI ui = new UI();
+        for (int i = 0; i < 3; i++) {
+            TestComponent component = new TestComponent();
+            component.getElement().appendChild(new Element("span"),
+                    Element.createText("text"));
+            component.getElement().setAttribute("title", "Title " + i);
+            component.getElement().addEventListener("click", event -> {
+            });
+            ComponentUtil.addListener(component, TestEvent.class,
+                    event -> {
+                    });
+            ui.add(component);
+        }
+
+        UIFootprint footprint = UIFootprint.collect(ui);
+
+        Entry entry = footprint.getEntries().stream()
+                .filter(e -> e.getType()
+                        .equals(TestComponent.class.getName()))
+                .findFirst().get();
+        Assert.assertEquals(3, entry.getComponentCount());
+        // The component element, the span and the text node
+        Assert.assertEquals(9, entry.getNodeCount());
+        Assert.assertEquals(3, entry.getDomListenerCount());
+        Assert.assertEquals(3, entry.getComponentListenerCount());
+        Assert.assertTrue(entry.getFeatureEntryCount() >= 3);
+
+        Assert.assertEquals(ui.getUIId(), footprint.getUIId());
+        Assert.assertTrue(footprint.getTotal().getNodeCount() > 9);
+        Assert.assertTrue(
+                footprint.getTotal().getComponentListenerCount() >= 3);
+    }
+
+    @Test
+    public void collect_textNodeWithoutComponentMapping_accountedToParent() {
+        UI ui = new UI();
+        TestComponent component = new TestComponent();
+        component.getElement().setText("text");
+        ui.add(component);
+        ui.getElement().appendChild(Element.createText("ui text"));
+
+        UIFootprint footprint = UIFootprint.collect(ui);
+
+        Entry entry = footprint.getEntries().stream()
+                .filter(e -> e.getType()
+                        .equals(TestComponent.class.getName()))
+                .findFirst().get();
+        // The component element and its text node
+        Assert.assertEquals(2, entry.getNodeCount());
+        Entry uiEntry = footprint.getEntries().stream()
+                .filter(e -> e.getType().equals(UI.class.getName()))
+                .findFirst().get();
+        Assert.assertTrue(uiEntry.getNodeCount() >= 2);
+    }
+
+    @Test
+    public void toJson_containsTotalsAndTypes() {
+        UI ui = new UI();
+        ui.add(new TestComponent());
+
+        JsonObject json = UIFootprint.collect(ui).toJson();
+
+        Assert.assertEquals(ui.getUIId(), (int) json.getNumber("uiId"));
+        Assert.assertTrue(json.getNumber("nodes") >= 2);
+        Assert.assertEquals(2, json.getArray("componentTypes").length());
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.vaadin.flow.internal;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -34,6 +36,7 @@ import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
 import elemental.json.impl.JreJsonNull;
+import elemental.json.impl.JsonUtil;
 
 public class JsonUtilsTest {
     @Test
@@ -407,4 +410,22 @@ public class JsonUtilsTest {
         Assert.assertEquals("bean2", json.getObject("two").getString("string"));
     }
 
+    @Test
+    public void writeJson_sameAsStringify() throws IOException {
+        JsonObject json = Json.createObject();
+        json.put("string", "quote \" and </script>");
+        json.put("integer", 42);
+        json.put("decimal", 3.14);
+        json.put("boolean", true);
+        json.put("null", Json.createNull());
+        json.put("empty", Json.createObject());
+        json.put("array", createTestArray1());
+        json.put("object", createTestObject1());
+
+        StringWriter writer = new StringWriter();
+        JsonUtils.writeJson(json, writer);
+
+        Assert.assertEquals(JsonUtil.stringify(json), writer.toString());
+    }
+
 }
@@ -18,6 +18,7 @@ package com.vaadin.flow.internal;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
@@ -25,6 +26,7 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -35,6 +37,9 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPOutputStream;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.WriteListener;
@@ -45,7 +50,10 @@ import org.apache.commons.fileupload.MultipartStream;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
 
@@ -91,6 +99,9 @@ public class ResponseWriterTest {
                 FAULTY_CLASS_PATH_GZ, fileJsGzippedContents));
     }
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private ServletContext servletContext;
     private HttpServletRequest request;
     private HttpServletResponse response;
@@ -126,14 +137,21 @@ public class ResponseWriterTest {
     public static class CapturingServletOutputStream
             extends ServletOutputStream {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        WriteListener writeListener;
 
         @Override
         public void write(int b) throws IOException {
             baos.write(b);
         }
 
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            baos.write(b, off, len);
+        }
+
         @Override
         public void setWriteListener(WriteListener writeListener) {
+            this.writeListener = writeListener;
         }
 
         @Override
@@ -316,6 +334,31 @@ public class ResponseWriterTest {
         assertResponse(fileJsBrotliContents);
     }
 
+    @Test
+    public void writeDataBrotli_eTagGetsEncodingSuffix() throws IOException {
+        responseWriter.overrideAcceptsBrotliResource = Boolean.TRUE;
+        Mockito.when(response.getHeader("ETag")).thenReturn("\"abc\"");
+
+        makePathsAvailable(PATH_JS, PATH_BR);
+
+        assertResponse(fileJsBrotliContents);
+        Mockito.verify(response).setHeader("ETag", "\"abc-br\"");
+    }
+
+    @Test
+    public void findMatchingETag_listWeakOrWildcard_matched() {
+        Assert.assertEquals("\"abc\"", ResponseWriter
+                .findMatchingETag("\"foo\", W/\"abc\"", "\"abc\"", false));
+        Assert.assertEquals("\"abc\"",
+                ResponseWriter.findMatchingETag("*", "\"abc\"", false));
+        Assert.assertEquals("\"abc-gzip\"", ResponseWriter
+                .findMatchingETag("\"abc-gzip\"", "\"abc\"", true));
+        Assert.assertNull(ResponseWriter.findMatchingETag("\"abc-gzip\"",
+                "\"abc\"", false));
+        Assert.assertNull(
+                ResponseWriter.findMatchingETag(null, "\"abc\"", false));
+    }
+
     @Test
     public void writeDataNoBrotliVersion() throws IOException {
         responseWriter.overrideAcceptsBrotliResource = Boolean.TRUE;
@@ -539,6 +582,97 @@ public class ResponseWriterTest {
         assertStatus(206);
     }
 
+    @Test
+    public void writeFileFromFileSystem() throws IOException {
+        File file = temporaryFolder.newFile("file.js");
+        Files.write(file.toPath(), fileJsContents);
+
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        responseWriter.writeResponseContents(PATH_JS, file.toURI().toURL(),
+                request, response);
+
+        Assert.assertArrayEquals(fileJsContents, out.getOutput());
+        Assert.assertEquals(fileJsContents.length,
+                responseContentLength.get());
+    }
+
+    @Test
+    public void writeByteRangeFromFileSystem() throws IOException {
+        File file = temporaryFolder.newFile("file.js");
+        Files.write(file.toPath(), fileJsContents);
+        mockRequestHeaders(new Pair<>("Range", "bytes=10-"));
+
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        responseWriter.writeResponseContents(PATH_JS, file.toURI().toURL(),
+                request, response);
+
+        Assert.assertArrayEquals(
+                Arrays.copyOfRange(fileJsContents, 10, fileJsContents.length),
+                out.getOutput());
+        Assert.assertEquals(6L, responseContentLength.get());
+        assertStatus(206);
+    }
+
+    @Test
+    public void writeLargeFileFromFileSystem_asyncSupported_writtenWithWriteListener()
+            throws IOException {
+        byte[] contents = new byte[3 * 1024 * 1024];
+        Arrays.fill(contents, (byte) 'x');
+        File file = temporaryFolder.newFile("large.js");
+        Files.write(file.toPath(), contents);
+
+        AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+        Mockito.when(request.isAsyncSupported()).thenReturn(true);
+        Mockito.when(request.startAsync()).thenReturn(asyncContext);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        responseWriter.writeResponseContents("/large.js",
+                file.toURI().toURL(), request, response);
+
+        Assert.assertEquals(0, out.getOutput().length);
+        Assert.assertNotNull(out.writeListener);
+
+        Mockito.verify(asyncContext).setTimeout(0);
+        Mockito.verify(asyncContext)
+                .addListener(Mockito.any(AsyncListener.class));
+
+        out.writeListener.onWritePossible();
+
+        Assert.assertArrayEquals(contents, out.getOutput());
+        Assert.assertEquals(contents.length, responseContentLength.get());
+        Mockito.verify(asyncContext).complete();
+    }
+
+    @Test
+    public void writeLargeFileFromFileSystem_asyncTimeout_completedOnce()
+            throws IOException {
+        byte[] contents = new byte[3 * 1024 * 1024];
+        File file = temporaryFolder.newFile("large.js");
+        Files.write(file.toPath(), contents);
+
+        AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+        Mockito.when(request.isAsyncSupported()).thenReturn(true);
+        Mockito.when(request.startAsync()).thenReturn(asyncContext);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        responseWriter.writeResponseContents("/large.js",
+                file.toURI().toURL(), request, response);
+
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor
+                .forClass(AsyncListener.class);
+        Mockito.verify(asyncContext).addListener(listener.capture());
+
+        listener.getValue().onTimeout(new AsyncEvent(asyncContext));
+        listener.getValue().onError(new AsyncEvent(asyncContext,
+                new IOException("Connection reset")));
+
+        Mockito.verify(asyncContext).complete();
+    }
+
     private void assertResponse(byte[] expectedResponse) throws IOException {
         assertResponse(PATH_JS, expectedResponse);
     }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SizeBoundedLruCacheTest {
+
+    private final SizeBoundedLruCache<String, String> cache = new SizeBoundedLruCache<>(
+            10, String::length);
+
+    @Test
+    public void put_limitExceeded_leastRecentlyUsedEvicted() {
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        // Accessing makes "a" the most recently used entry
+        Assert.assertEquals("aaaa", cache.get("a"));
+
+        cache.put("c", "cccc");
+
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("aaaa", cache.get("a"));
+        Assert.assertEquals("cccc", cache.get("c"));
+        Assert.assertEquals(8, cache.getSize());
+    }
+
+    @Test
+    public void put_sameKey_sizeReplaced() {
+        cache.put("a", "aaaa");
+        cache.put("a", "aa");
+
+        Assert.assertEquals("aa", cache.get("a"));
+        Assert.assertEquals(2, cache.getSize());
+    }
+
+    @Test
+    public void put_valueLargerThanLimit_notCached() {
+        cache.put("a", "aaaa");
+        cache.put("large", "xxxxxxxxxxx");
+
+        Assert.assertNull(cache.get("large"));
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(0, cache.getSize());
+    }
+}
@@ -18,7 +18,9 @@ package com.vaadin.flow.internal.nodefeature;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -27,8 +29,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Assert;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.StateNodeTest;
 import com.vaadin.flow.internal.StateTree;
@@ -36,6 +41,7 @@ import com.vaadin.flow.internal.change.MapPutChange;
 import com.vaadin.flow.internal.change.MapRemoveChange;
 import com.vaadin.flow.internal.change.NodeChange;
 import com.vaadin.flow.server.Command;
+import com.vaadin.flow.testcategory.SlowTests;
 
 import elemental.json.Json;
 import elemental.json.JsonValue;
@@ -392,6 +398,122 @@ public class NodeMapTest
         Assert.assertTrue(nodeMap.usesSingleMap());
     }
 
+    @Test
+    public void put_fewValues_usesArrayValues() {
+        for (int i = 0; i < NodeMap.MAX_ARRAY_VALUES; i++) {
+            nodeMap.put("key" + i, "value" + i);
+        }
+        nodeMap.put("key0", "changed");
+
+        Assert.assertTrue(nodeMap.usesArrayValues());
+        Assert.assertEquals(NodeMap.MAX_ARRAY_VALUES,
+                nodeMap.getPropertyNames().count());
+        Assert.assertEquals("changed", nodeMap.get("key0"));
+        Assert.assertEquals("value7", nodeMap.get("key7"));
+
+        nodeMap.put("key" + NodeMap.MAX_ARRAY_VALUES, "value");
+
+        Assert.assertFalse(nodeMap.usesArrayValues());
+        Assert.assertEquals(NodeMap.MAX_ARRAY_VALUES + 1,
+                nodeMap.getPropertyNames().count());
+        Assert.assertEquals("changed", nodeMap.get("key0"));
+    }
+
+    @Test
+    public void remove_arrayValues_remainingValuesKept() {
+        nodeMap.put("foo", "1");
+        nodeMap.put("bar", "2");
+        nodeMap.put("baz", "3");
+
+        Assert.assertEquals("2", nodeMap.remove("bar"));
+        Assert.assertNull(nodeMap.remove("bar"));
+
+        Assert.assertTrue(nodeMap.usesArrayValues());
+        Assert.assertFalse(nodeMap.contains("bar"));
+        Assert.assertEquals("1", nodeMap.get("foo"));
+        Assert.assertEquals("3", nodeMap.get("baz"));
+        Assert.assertArrayEquals(new Object[] { "foo", "baz" },
+                nodeMap.getPropertyNames().toArray());
+
+        nodeMap.remove("foo");
+        nodeMap.remove("baz");
+
+        Assert.assertFalse(nodeMap.usesArrayValues());
+        Assert.assertFalse(nodeMap.keySet().iterator().hasNext());
+    }
+
+    @Test
+    public void serialize_arrayValues_valuesPreserved() {
+        nodeMap.put("foo", "1");
+        nodeMap.put("bar", "2");
+
+        NodeMap copy = SerializationUtils
+                .deserialize(SerializationUtils.serialize(nodeMap));
+
+        Assert.assertEquals("1", copy.get("foo"));
+        Assert.assertEquals("2", copy.get("bar"));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void keySetIterator_arrayValuesModified_throws() {
+        nodeMap.put("foo", "1");
+        nodeMap.put("bar", "2");
+
+        Iterator<String> iterator = nodeMap.keySet().iterator();
+        iterator.next();
+        nodeMap.put("baz", "3");
+        iterator.next();
+    }
+
+    @Test
+    @Category(SlowTests.class)
+    public void benchmark_heapPerElement_arrayValuesSmallerThanHashMap() {
+        long arrayValues = heapPerElement(NodeMap.MAX_ARRAY_VALUES);
+        long hashMapValues = heapPerElement(NodeMap.MAX_ARRAY_VALUES + 1);
+
+        LoggerFactory.getLogger(NodeMapTest.class).info(
+                "Heap per element with {} styles: {} bytes, with {} styles: "
+                        + "{} bytes",
+                NodeMap.MAX_ARRAY_VALUES, arrayValues,
+                NodeMap.MAX_ARRAY_VALUES + 1, hashMapValues);
+        // One more style with a shared value only costs a few bytes, unless
+        // the map switches to a hash table
+        Assert.assertTrue(
+                "Elements with " + NodeMap.MAX_ARRAY_VALUES
+                        + " styles should take less heap than with one more",
+                arrayValues < hashMapValues);
+    }
+
+    private static long heapPerElement(int styleCount) {
+        String[] names = { "width", "height", "margin", "padding", "color",
+                "display", "position", "top", "left" };
+        int count = 20000;
+        Runtime runtime = Runtime.getRuntime();
+        long before = usedMemory(runtime);
+
+        Element[] elements = new Element[count];
+        for (int i = 0; i < count; i++) {
+            Element element = new Element("div");
+            for (int j = 0; j < styleCount; j++) {
+                element.getStyle().set(names[j], "0");
+            }
+            elements[i] = element;
+        }
+
+        long perElement = (usedMemory(runtime) - before) / count;
+        // Keeps the elements reachable until measured
+        Assert.assertEquals(styleCount,
+                elements[count - 1].getStyle().getNames().count());
+        return perElement;
+    }
+
+    private static long usedMemory(Runtime runtime) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
     @Test
     public void streamSingleNullValue() {
         nodeMap.put("foo", null);
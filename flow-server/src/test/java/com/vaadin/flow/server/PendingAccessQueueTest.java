@@ -0,0 +1,164 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.server.PendingAccessQueue.OverflowPolicy;
+
+public class PendingAccessQueueTest {
+
+    private final PendingAccessQueue queue = new PendingAccessQueue();
+
+    @Test
+    public void poll_interactiveTasksBeforeBackgroundTasks() {
+        FutureAccess background1 = createTask();
+        FutureAccess interactive = createTask();
+        FutureAccess background2 = createTask();
+
+        queue.offer(background1, false);
+        queue.offer(interactive, true);
+        queue.offer(background2, false);
+
+        Assert.assertEquals(3, queue.size());
+        Assert.assertEquals(2, queue.getBackgroundSize());
+        Assert.assertSame(interactive, queue.peek());
+        Assert.assertSame(interactive, queue.poll());
+        Assert.assertSame(background1, queue.poll());
+        Assert.assertSame(background2, queue.poll());
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(3, queue.getMaxSize());
+    }
+
+    @Test
+    public void offerBackground_full_rejected() {
+        Assert.assertTrue(queue.offerBackground(createTask(), 1,
+                OverflowPolicy.REJECT));
+        Assert.assertFalse(queue.offerBackground(createTask(), 1,
+                OverflowPolicy.REJECT));
+
+        // Interactive tasks are not limited
+        queue.offer(createTask(), true);
+
+        Assert.assertEquals(2, queue.size());
+        Assert.assertEquals(1, queue.getRejectedCount());
+    }
+
+    @Test
+    public void offerBackground_full_oldestDiscarded() {
+        FutureAccess oldest = createTask();
+        FutureAccess newest = createTask();
+
+        queue.offerBackground(oldest, 1, OverflowPolicy.DISCARD_OLDEST);
+        Assert.assertTrue(queue.offerBackground(newest, 1,
+                OverflowPolicy.DISCARD_OLDEST));
+
+        Assert.assertTrue(oldest.isCancelled());
+        Assert.assertEquals(1, queue.getDiscardedCount());
+        Assert.assertSame(newest, queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void poll_waitTimeRecorded() throws InterruptedException {
+        queue.offer(createTask(), false);
+        Thread.sleep(20);
+        queue.poll();
+
+        Assert.assertTrue(queue.getMaxWaitTime() >= 20);
+        Assert.assertEquals(queue.getMaxWaitTime(),
+                queue.getAverageWaitTime());
+    }
+
+    @Test
+    public void offer_sameKey_pendingTaskReplacedInPlace() {
+        FutureAccess first = createTask("key");
+        FutureAccess other = createTask("other");
+        FutureAccess second = createTask("key");
+        FutureAccess third = createTask("key");
+
+        queue.offer(first, false);
+        queue.offer(other, false);
+        queue.offer(second, true);
+        queue.offer(third, false);
+
+        Assert.assertTrue(first.isCancelled());
+        Assert.assertTrue(second.isCancelled());
+        Assert.assertFalse(third.isCancelled());
+        Assert.assertFalse(other.isCancelled());
+        Assert.assertEquals(2, queue.getReplacedCount());
+        Assert.assertEquals(2, queue.size());
+        Assert.assertSame(third, queue.peek());
+        Assert.assertSame(third, queue.poll());
+        Assert.assertSame(other, queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void offer_sameKeyAfterPoll_polledTaskNotCancelled() {
+        FutureAccess first = createTask("key");
+        queue.offer(first, false);
+        Assert.assertSame(first, queue.poll());
+
+        FutureAccess second = createTask("key");
+        queue.offer(second, false);
+
+        Assert.assertFalse(first.isCancelled());
+        Assert.assertEquals(0, queue.getReplacedCount());
+        Assert.assertSame(second, queue.poll());
+    }
+
+    @Test
+    public void offerBackground_fullWithSameKey_replacedInsteadOfRejected() {
+        FutureAccess first = createTask("key");
+        FutureAccess second = createTask("key");
+
+        queue.offerBackground(first, 1, OverflowPolicy.REJECT);
+        Assert.assertTrue(
+                queue.offerBackground(second, 1, OverflowPolicy.REJECT));
+
+        Assert.assertTrue(first.isCancelled());
+        Assert.assertEquals(0, queue.getRejectedCount());
+        Assert.assertSame(second, queue.poll());
+    }
+
+    @Test
+    public void offerBackground_rejected_keyNotRetained() {
+        FutureAccess pending = createTask();
+        FutureAccess rejected = createTask("key");
+        queue.offerBackground(pending, 1, OverflowPolicy.REJECT);
+        Assert.assertFalse(
+                queue.offerBackground(rejected, 1, OverflowPolicy.REJECT));
+        queue.poll();
+
+        FutureAccess accepted = createTask("key");
+        queue.offer(accepted, false);
+
+        Assert.assertEquals(0, queue.getReplacedCount());
+        Assert.assertSame(accepted, queue.poll());
+    }
+
+    private static FutureAccess createTask() {
+        return createTask(null);
+    }
+
+    private static FutureAccess createTask(Object key) {
+        return new FutureAccess(null, () -> {
+        }, key);
+    }
+}
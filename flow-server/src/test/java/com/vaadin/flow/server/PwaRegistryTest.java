@@ -18,16 +18,22 @@ package com.vaadin.flow.server;
 import javax.servlet.ServletContext;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
 @PWA(name = "foo", shortName = "bar")
 public class PwaRegistryTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void pwaIconIsGeneratedBasedOnClasspathIcon_servletContextHasNoResources()
             throws IOException {
@@ -50,4 +56,40 @@ public class PwaRegistryTest {
         // the default image has 47 on the position 36
         Assert.assertEquals(26, stream.toByteArray()[36]);
     }
+
+    @Test
+    public void pwaIconIsRendered_servletContextHasTempDir_iconIsCachedOnDisk()
+            throws IOException {
+        File tempDir = temporaryFolder.getRoot();
+        ServletContext context = Mockito.mock(ServletContext.class);
+        Mockito.when(context.getAttribute(ServletContext.TEMPDIR))
+                .thenReturn(tempDir);
+
+        PwaRegistry registry = new PwaRegistry(
+                PwaRegistryTest.class.getAnnotation(PWA.class), context);
+        File cacheDir = new File(tempDir, "vaadin-pwa-icons");
+        // Icons are not rendered before they are requested
+        Assert.assertFalse(cacheDir.exists());
+
+        PwaIcon pwaIcon = registry.getIcons().stream()
+                .filter(icon -> icon.getWidth() == 32).findFirst().get();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        pwaIcon.write(stream);
+
+        File[] cachedIcons = cacheDir.listFiles();
+        Assert.assertNotNull(cachedIcons);
+        Assert.assertEquals(1, cachedIcons.length);
+        Assert.assertTrue(cachedIcons[0].getName().endsWith("-32x32.png"));
+
+        // Another registry for the same logo uses the cached image
+        PwaRegistry other = new PwaRegistry(
+                PwaRegistryTest.class.getAnnotation(PWA.class), context);
+        PwaIcon otherIcon = other.getIcons().stream()
+                .filter(icon -> icon.getWidth() == 32).findFirst().get();
+        Assert.assertEquals(pwaIcon.getHref(), otherIcon.getHref());
+        ByteArrayOutputStream otherStream = new ByteArrayOutputStream();
+        otherIcon.write(otherStream);
+        Assert.assertArrayEquals(stream.toByteArray(),
+                otherStream.toByteArray());
+    }
 }
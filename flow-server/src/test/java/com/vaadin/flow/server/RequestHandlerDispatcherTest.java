@@ -0,0 +1,86 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.shared.ApplicationConstants;
+
+public class RequestHandlerDispatcherTest {
+
+    private static class TestTypedHandler implements TypedRequestHandler {
+        private final String type;
+
+        private TestTypedHandler(String type) {
+            this.type = type;
+        }
+
+        @Override
+        public Set<String> getRequestTypes() {
+            return Collections.singleton(type);
+        }
+
+        @Override
+        public boolean handleRequest(VaadinSession session,
+                VaadinRequest request, VaadinResponse response) {
+            return false;
+        }
+    }
+
+    private final RequestHandler untyped = (session, request,
+            response) -> false;
+    private final RequestHandler uidl = new TestTypedHandler("uidl");
+    private final RequestHandler heartbeat = new TestTypedHandler("heartbeat");
+    private final RequestHandler noType = new TestTypedHandler(
+            TypedRequestHandler.NO_REQUEST_TYPE);
+
+    private final RequestHandlerDispatcher dispatcher = new RequestHandlerDispatcher(
+            Arrays.asList(uidl, untyped, heartbeat, noType));
+
+    @Test
+    public void getHandlers_typedRequest_untypedAndMatchingHandlersInOrder() {
+        Assert.assertEquals(Arrays.asList(uidl, untyped),
+                dispatcher.getHandlers(createRequest("uidl")));
+        Assert.assertEquals(Arrays.asList(untyped, heartbeat),
+                dispatcher.getHandlers(createRequest("heartbeat")));
+    }
+
+    @Test
+    public void getHandlers_requestWithoutType_noTypeHandlersIncluded() {
+        Assert.assertEquals(Arrays.asList(untyped, noType),
+                dispatcher.getHandlers(createRequest(null)));
+    }
+
+    @Test
+    public void getHandlers_unknownType_onlyUntypedHandlers() {
+        Assert.assertEquals(Collections.singletonList(untyped),
+                dispatcher.getHandlers(createRequest("foo")));
+    }
+
+    private static VaadinRequest createRequest(String type) {
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request
+                .getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER))
+                .thenReturn(type);
+        return request;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.testcategory.SlowTests;
+
+public class SessionExternalizerTest {
+
+    private final SessionExternalizer externalizer = new SessionExternalizer();
+
+    private static class Versioned implements Serializable {
+        private static final long serialVersionUID = 0x0102030405060708L;
+
+        private int value = 42;
+    }
+
+    @Test
+    public void roundTrip_valuesPreserved() throws Exception {
+        List<Object> value = Arrays.asList("foo", new String("foo"), 42,
+                int.class, new int[] { 1, 2 }, null);
+
+        @SuppressWarnings("unchecked")
+        List<Object> copy = (List<Object>) roundTrip(value);
+
+        Assert.assertEquals("foo", copy.get(0));
+        Assert.assertSame(copy.get(0), copy.get(1));
+        Assert.assertEquals(42, copy.get(2));
+        Assert.assertEquals(int.class, copy.get(3));
+        Assert.assertArrayEquals(new int[] { 1, 2 }, (int[]) copy.get(4));
+        Assert.assertNull(copy.get(5));
+    }
+
+    @Test
+    public void roundTrip_elementTree_preserved() throws Exception {
+        Element root = createElementTree(10);
+
+        Element copy = (Element) roundTrip(root);
+
+        Assert.assertEquals(10, copy.getChildCount());
+        Element child = copy.getChild(3);
+        Assert.assertEquals("vaadin-button", child.getTag());
+        Assert.assertEquals("primary", child.getAttribute("theme"));
+        Assert.assertEquals("Button 3", child.getText());
+        Assert.assertSame(copy.getNode(), child.getParent().getNode());
+    }
+
+    @Test
+    public void toBytes_elementTree_smallerThanJavaSerialization()
+            throws IOException {
+        Element root = createElementTree(100);
+
+        Assert.assertTrue(externalizer.toBytes(root).length < javaSerialize(
+                root).length);
+    }
+
+    @Test(expected = InvalidClassException.class)
+    public void fromBytes_serialVersionUIDDiffers_rejected() throws Exception {
+        byte[] data = externalizer.toBytes(new Versioned());
+        byte[] uid = ByteBuffer.allocate(Long.BYTES)
+                .putLong(Versioned.serialVersionUID).array();
+        int index = indexOf(data, uid);
+        Assert.assertTrue(index >= 0);
+        // Simulate data written by a different version of the class
+        data[index + Long.BYTES - 1]++;
+
+        externalizer.fromBytes(data, getClass().getClassLoader());
+    }
+
+    @Test
+    @Category(SlowTests.class)
+    public void benchmark_elementTree() throws Exception {
+        Element root = createElementTree(5000);
+        int rounds = 20;
+
+        long javaStart = System.nanoTime();
+        int javaSize = 0;
+        for (int i = 0; i < rounds; i++) {
+            javaSize = javaSerialize(root).length;
+        }
+        long javaTime = System.nanoTime() - javaStart;
+
+        long compactStart = System.nanoTime();
+        byte[] data = null;
+        for (int i = 0; i < rounds; i++) {
+            data = externalizer.toBytes(root);
+        }
+        long compactTime = System.nanoTime() - compactStart;
+
+        long readStart = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            externalizer.fromBytes(data, null);
+        }
+        long readTime = System.nanoTime() - readStart;
+
+        LoggerFactory.getLogger(SessionExternalizerTest.class).info(
+                "Java serialization: {} bytes, {} us. Compact: {} bytes, "
+                        + "{} us, deserialization {} us",
+                javaSize, javaTime / rounds / 1000, data.length,
+                compactTime / rounds / 1000, readTime / rounds / 1000);
+        Assert.assertTrue(data.length < javaSize);
+    }
+
+    private Object roundTrip(Object value)
+            throws IOException, ClassNotFoundException {
+        return externalizer.fromBytes(externalizer.toBytes(value),
+                getClass().getClassLoader());
+    }
+
+    private static int indexOf(byte[] data, byte[] part) {
+        for (int i = 0; i + part.length <= data.length; i++) {
+            if (Arrays.equals(part,
+                    Arrays.copyOfRange(data, i, i + part.length))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] javaSerialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Element createElementTree(int children) {
+        Element root = new Element("div");
+        for (int i = 0; i < children; i++) {
+            Element button = new Element("vaadin-button");
+            button.setAttribute("theme", "primary");
+            button.setProperty("disabled", false);
+            button.getStyle().set("margin", "0");
+            button.setText("Button " + i);
+            root.appendChild(button);
+        }
+        return root;
+    }
+}
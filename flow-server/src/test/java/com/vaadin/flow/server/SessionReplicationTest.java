@@ -0,0 +1,202 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.startup.ApplicationConfiguration;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
+
+public class SessionReplicationTest {
+
+    private MockServletServiceSessionSetup mocks;
+    private VaadinSession session;
+
+    @Before
+    public void setUp() throws Exception {
+        mocks = new MockServletServiceSessionSetup();
+        // Sessions are only serialized in production mode
+        ApplicationConfiguration configuration = Mockito
+                .mock(ApplicationConfiguration.class);
+        Mockito.when(configuration.isProductionMode()).thenReturn(true);
+        Mockito.when(mocks.getServletContext()
+                .getAttribute(ApplicationConfiguration.class.getName()))
+                .thenReturn(configuration);
+        session = new AlwaysLockedVaadinSession(mocks.getService());
+    }
+
+    @After
+    public void tearDown() {
+        mocks.cleanup();
+    }
+
+    @Test
+    public void createDelta_onlyChangedUIsIncluded() throws IOException {
+        UI changed = createUI();
+        UI unchanged = createUI();
+
+        SessionDelta snapshot = SessionReplication.createDelta(session, 20);
+        Assert.assertTrue(snapshot.isFullSnapshot());
+        Assert.assertNotNull(snapshot.getSessionData());
+        Assert.assertTrue(snapshot.getUIData().isEmpty());
+
+        changed.getElement().setProperty("foo", "bar");
+        SessionDelta delta = SessionReplication.createDelta(session, 20);
+
+        Assert.assertFalse(delta.isFullSnapshot());
+        Assert.assertNull(delta.getSessionData());
+        Assert.assertEquals(Collections.singleton(changed.getUIId()),
+                delta.getUIData().keySet());
+        Assert.assertTrue(delta.getRemovedUIs().isEmpty());
+
+        removeUI(unchanged);
+        delta = SessionReplication.createDelta(session, 20);
+
+        Assert.assertTrue(delta.getUIData().isEmpty());
+        Assert.assertEquals(Collections.singleton(unchanged.getUIId()),
+                delta.getRemovedUIs());
+    }
+
+    @Test
+    public void createDelta_snapshotIntervalReached_fullSnapshot()
+            throws IOException {
+        createUI();
+
+        Assert.assertTrue(
+                SessionReplication.createDelta(session, 1).isFullSnapshot());
+        Assert.assertFalse(
+                SessionReplication.createDelta(session, 1).isFullSnapshot());
+        SessionDelta snapshot = SessionReplication.createDelta(session, 1);
+        Assert.assertTrue(snapshot.isFullSnapshot());
+        Assert.assertNotNull(snapshot.getSessionData());
+    }
+
+    @Test
+    public void createDelta_onlySetAttributesIncluded() throws IOException {
+        session.setAttribute("unchanged", "foo");
+        session.setAttribute("removed", "bar");
+        SessionReplication.createDelta(session, 20);
+
+        session.setAttribute("changed", "baz");
+        session.setAttribute("removed", null);
+        SessionDelta delta = SessionReplication.createDelta(session, 20);
+
+        Assert.assertFalse(delta.isFullSnapshot());
+        Assert.assertEquals(Collections.singleton("changed"),
+                delta.getAttributeData().keySet());
+        Assert.assertEquals(Collections.singleton("removed"),
+                delta.getRemovedAttributes());
+
+        delta = SessionReplication.createDelta(session, 20);
+        Assert.assertTrue(delta.getAttributeData().isEmpty());
+        Assert.assertTrue(delta.getRemovedAttributes().isEmpty());
+    }
+
+    @Test
+    public void createDelta_requestHandlerAdded_fullSnapshot()
+            throws IOException {
+        SessionReplication.createDelta(session, 20);
+        session.addRequestHandler(
+                (vaadinSession, request, response) -> false);
+
+        Assert.assertTrue(
+                SessionReplication.createDelta(session, 20).isFullSnapshot());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void apply_deltaWithoutSnapshot_throws() throws IOException {
+        createUI();
+        SessionReplication.createDelta(session, 20);
+        SessionDelta delta = SessionReplication.createDelta(session, 20);
+
+        ReplicatedSession replicated = new ReplicatedSession();
+        Assert.assertFalse(replicated.hasSnapshot());
+        replicated.apply(delta);
+    }
+
+    @Test
+    public void apply_snapshotAndDelta_hasSnapshot() throws IOException {
+        createUI();
+        ReplicatedSession replicated = new ReplicatedSession();
+
+        replicated.apply(SessionReplication.createDelta(session, 20));
+        replicated.apply(SessionReplication.createDelta(session, 20));
+
+        Assert.assertTrue(replicated.hasSnapshot());
+    }
+
+    @Test
+    public void restore_snapshotAndDeltas_latestStateRestored()
+            throws Exception {
+        UI changed = createUI();
+        UI removed = createUI();
+        session.setAttribute("attribute", "snapshot");
+        ReplicatedSession replicated = new ReplicatedSession();
+        replicated.apply(SessionReplication.createDelta(session, 20));
+
+        changed.getElement().setProperty("foo", "bar");
+        session.setAttribute("attribute", "delta");
+        removeUI(removed);
+        replicated.apply(SessionReplication.createDelta(session, 20));
+
+        VaadinSession restored = replicated.restore(null);
+
+        // Not initialized by a service, unlock() would run pending tasks
+        restored.getLockInstance().lock();
+        try {
+            Assert.assertEquals("delta", restored.getAttribute("attribute"));
+            Assert.assertEquals(1, restored.getUIs().size());
+            UI restoredUI = restored.getUIById(changed.getUIId());
+            Assert.assertEquals("bar",
+                    restoredUI.getElement().getProperty("foo"));
+            Assert.assertNull(restored.getUIById(removed.getUIId()));
+        } finally {
+            restored.getLockInstance().unlock();
+        }
+    }
+
+    private void removeUI(UI ui) {
+        // Removed UIs are detached as the current UI
+        UI.setCurrent(ui);
+        try {
+            session.removeUI(ui);
+        } finally {
+            UI.setCurrent(null);
+        }
+    }
+
+    private UI createUI() {
+        UI ui = new UI();
+        ui.getInternals().setSession(session);
+        VaadinServletRequest request = Mockito
+                .mock(VaadinServletRequest.class);
+        Mockito.when(request.getHttpServletRequest())
+                .thenReturn(Mockito.mock(HttpServletRequest.class));
+        ui.doInit(request, session.getNextUIid());
+        session.addUI(ui);
+        return ui;
+    }
+}
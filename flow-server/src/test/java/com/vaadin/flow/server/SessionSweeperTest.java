@@ -0,0 +1,82 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.Collections;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class SessionSweeperTest {
+
+    private final VaadinService service = Mockito.mock(VaadinService.class);
+    private final VaadinSession session = Mockito.mock(VaadinSession.class);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final SessionSweeper sweeper = new SessionSweeper(service);
+
+    @Before
+    public void setUp() {
+        Mockito.when(session.getStateWithoutLock())
+                .thenReturn(VaadinSessionState.OPEN);
+        Mockito.when(session.getState()).thenReturn(VaadinSessionState.OPEN);
+        Mockito.when(session.getSession())
+                .thenReturn(Mockito.mock(WrappedSession.class));
+        Mockito.when(session.getLockInstance()).thenReturn(lock);
+        Mockito.when(session.getUIs()).thenReturn(Collections.emptyList());
+        Mockito.doAnswer(invocation -> {
+            lock.unlock();
+            return null;
+        }).when(session).unlock();
+
+        sweeper.register(session);
+    }
+
+    @Test
+    public void sweep_openSession_inactiveUIsClosedAndRemoved() {
+        sweeper.sweep();
+
+        Mockito.verify(service).closeInactiveUIs(session);
+        Mockito.verify(service).removeClosedUIs(session);
+        Assert.assertFalse(lock.isLocked());
+        Assert.assertEquals(1, sweeper.getSweepCount());
+    }
+
+    @Test
+    public void sweep_lockedSession_skipped() throws InterruptedException {
+        Thread holder = new Thread(lock::lock);
+        holder.start();
+        holder.join();
+
+        sweeper.sweep();
+
+        Mockito.verify(service, Mockito.never()).closeInactiveUIs(session);
+        Mockito.verify(service, Mockito.never()).removeClosedUIs(session);
+    }
+
+    @Test
+    public void sweep_unregisteredSession_skipped() {
+        sweeper.unregister(session);
+
+        sweeper.sweep();
+
+        Mockito.verify(service, Mockito.never()).closeInactiveUIs(session);
+        Assert.assertEquals(1, sweeper.getSweepCount());
+    }
+}
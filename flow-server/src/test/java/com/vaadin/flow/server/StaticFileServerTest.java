@@ -26,6 +26,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
@@ -1145,6 +1146,126 @@ public class StaticFileServerTest implements Serializable {
                 responseCode.get());
     }
 
+    @Test
+    public void serveStaticResource_cacheEnabled_eTagWrittenAndMatchingRequestNotModified()
+            throws IOException {
+        Mockito.when(configuration.getBooleanProperty(
+                InitParameters.SERVLET_PARAMETER_STATIC_RESOURCE_CACHE, false))
+                .thenReturn(true);
+        fileServer = new OverrideableStaticFileServer(servletService);
+
+        setupRequestURI("", "/some", "/file.js");
+        byte[] fileData = "function() {eval('foo');};"
+                .getBytes(StandardCharsets.UTF_8);
+        Mockito.when(servletService.getStaticResource("/some/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/some/file.js",
+                        fileData, 123000L));
+
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertArrayEquals(fileData, out.getOutput());
+        Assert.assertEquals(fileData.length, responseContentLength.get());
+        Assert.assertEquals(123000L,
+                dateHeaders.get("Last-Modified").longValue());
+        String eTag = headers.get("ETag");
+        Assert.assertNotNull(eTag);
+
+        out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Mockito.when(request.getHeader("If-None-Match")).thenReturn(eTag);
+
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals(0, out.getOutput().length);
+        Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED,
+                responseCode.get());
+        Mockito.verify(servletService, Mockito.times(1))
+                .getStaticResource("/some/file.js");
+    }
+
+    @Test
+    public void serveStaticResource_cacheEnabled_gzippedVariantHasOwnETag()
+            throws IOException {
+        Mockito.when(configuration.getBooleanProperty(
+                InitParameters.SERVLET_PARAMETER_STATIC_RESOURCE_CACHE, false))
+                .thenReturn(true);
+        fileServer = new OverrideableStaticFileServer(servletService);
+
+        setupRequestURI("", "/some", "/file.js");
+        byte[] fileData = "function() {eval('foo');};"
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] gzippedData = "fake gzip".getBytes(StandardCharsets.UTF_8);
+        Mockito.when(servletService.getStaticResource("/some/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/some/file.js",
+                        fileData));
+        Mockito.when(servletService.getStaticResource("/some/file.js.gz"))
+                .thenReturn(createFileURLWithDataAndLength(
+                        "/some/file.js.gz", gzippedData));
+
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertArrayEquals(fileData, out.getOutput());
+        String eTag = headers.get("ETag");
+
+        out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertArrayEquals(gzippedData, out.getOutput());
+        Assert.assertEquals("gzip", headers.get("Content-Encoding"));
+        Assert.assertEquals(
+                eTag.substring(0, eTag.length() - 1) + "-gzip\"",
+                headers.get("ETag"));
+
+        // The identity ETag does not validate the gzipped representation
+        out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Mockito.when(request.getHeader("If-None-Match")).thenReturn(eTag);
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertArrayEquals(gzippedData, out.getOutput());
+    }
+
+    @Test
+    public void serveStaticResource_contentHashedFile_immutableCacheHeadersAndETag()
+            throws IOException {
+        String pathInfo = "/VAADIN/build/vaadin-bundle-1234.cache.js";
+        byte[] hashes = ("{\"VAADIN/build/vaadin-bundle-1234.cache.js\":"
+                + " \"abc\"}").getBytes(StandardCharsets.UTF_8);
+        ClassLoader classLoader = new ClassLoader(
+                getClass().getClassLoader()) {
+            @Override
+            public InputStream getResourceAsStream(String name) {
+                if ((WEBAPP_RESOURCE_PREFIX + "/content-hashes.json")
+                        .equals(name)) {
+                    return new ByteArrayInputStream(hashes);
+                }
+                return super.getResourceAsStream(name);
+            }
+        };
+        Mockito.doAnswer(invocationOnMock -> classLoader).when(servletService)
+                .getClassLoader();
+        fileServer = new OverrideableStaticFileServer(servletService);
+
+        setupRequestURI("", "", pathInfo);
+        Mockito.when(servletService.getStaticResource(pathInfo))
+                .thenReturn(createFileURLWithDataAndLength(pathInfo,
+                        "function() {};".getBytes(StandardCharsets.UTF_8)));
+        Mockito.when(request.getHeader("If-None-Match"))
+                .thenReturn("\"abc\"");
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals("max-age=31536000, immutable",
+                headers.get("Cache-Control"));
+        Assert.assertEquals("\"abc\"", headers.get("ETag"));
+        Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED,
+                responseCode.get());
+        Assert.assertEquals(0, out.getOutput().length);
+    }
+
     @Test
     public void serveStaticResourceFromWebjarWithIncorrectPath()
             throws IOException {
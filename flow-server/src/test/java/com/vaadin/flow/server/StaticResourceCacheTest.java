@@ -0,0 +1,66 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vaadin.flow.server.StaticResourceCache.CachedResource;
+
+public class StaticResourceCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final StaticResourceCache cache = new StaticResourceCache(10);
+
+    @Test
+    public void getContents_evicted_readAgainAndCached() throws IOException {
+        URL first = createFile("first.js", "aaaaaaaa");
+        URL second = createFile("second.js", "bbbbbbbb");
+        CachedResource firstResource = cache.get("/first.js", null,
+                path -> first);
+        // Evicts the contents of the first resource
+        CachedResource secondResource = cache.get("/second.js", null,
+                path -> second);
+
+        Assert.assertArrayEquals(
+                "aaaaaaaa".getBytes(StandardCharsets.UTF_8),
+                cache.getContents(firstResource));
+
+        new File(first.getFile()).delete();
+        Assert.assertArrayEquals(
+                "aaaaaaaa".getBytes(StandardCharsets.UTF_8),
+                cache.getContents(firstResource));
+        Assert.assertArrayEquals(
+                "bbbbbbbb".getBytes(StandardCharsets.UTF_8),
+                cache.getContents(secondResource));
+    }
+
+    private URL createFile(String name, String contents) throws IOException {
+        File file = temporaryFolder.newFile(name);
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return file.toURI().toURL();
+    }
+}
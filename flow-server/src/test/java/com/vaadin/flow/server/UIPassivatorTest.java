@@ -0,0 +1,240 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.startup.ApplicationConfiguration;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
+
+public class UIPassivatorTest {
+
+    private MockServletServiceSessionSetup mocks;
+    private VaadinSession session;
+    private final Map<String, byte[]> stored = new HashMap<>();
+    private boolean failLoad;
+
+    private final UIPassivator passivator = new UIPassivator(
+            new UIPassivationStore() {
+                @Override
+                public void store(String key, byte[] data) {
+                    stored.put(key, data);
+                }
+
+                @Override
+                public byte[] load(String key) throws IOException {
+                    if (failLoad) {
+                        throw new IOException("Cannot load");
+                    }
+                    return stored.remove(key);
+                }
+
+                @Override
+                public void remove(String key) {
+                    stored.remove(key);
+                }
+            }, 1000);
+
+    public static class Counter implements Serializable {
+        private int attached;
+        private int detached;
+    }
+
+    @Tag("div")
+    public static class TrackingComponent extends Component {
+        private final Counter counter;
+
+        public TrackingComponent(Counter counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        protected void onAttach(AttachEvent attachEvent) {
+            counter.attached++;
+        }
+
+        @Override
+        protected void onDetach(DetachEvent detachEvent) {
+            counter.detached++;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        mocks = new MockServletServiceSessionSetup();
+        session = new AlwaysLockedVaadinSession(mocks.getService());
+    }
+
+    @After
+    public void tearDown() {
+        mocks.cleanup();
+    }
+
+    @Test
+    public void passivateIdleUIs_idleUI_passivatedAndRestored() {
+        UI ui = createUI();
+        ui.getElement().setProperty("foo", "bar");
+        ui.getInternals().setLastRequestTimestamp(0);
+
+        passivator.passivateIdleUIs(session);
+
+        Assert.assertTrue(session.getUIs().isEmpty());
+        Assert.assertEquals(1, stored.size());
+
+        UI restored = passivator.restore(session, ui.getUIId());
+
+        Assert.assertNotSame(ui, restored);
+        Assert.assertSame(session, restored.getSession());
+        Assert.assertEquals("bar", restored.getElement().getProperty("foo"));
+        Assert.assertTrue(session.getUIs().contains(restored));
+        Assert.assertTrue(session.getPassivatedUIs().isEmpty());
+        Assert.assertTrue(stored.isEmpty());
+    }
+
+    @Test
+    public void passivateIdleUIs_idleUI_detachedAndRestoredCopyReattached() {
+        Counter counter = new Counter();
+        session.setAttribute(Counter.class, counter);
+        UI ui = createUI();
+        ui.add(new TrackingComponent(counter));
+        ui.getInternals().setLastRequestTimestamp(0);
+        Assert.assertEquals(1, counter.attached);
+
+        passivator.passivateIdleUIs(session);
+
+        Assert.assertEquals(1, counter.detached);
+        Assert.assertNull(ui.getSession());
+
+        UI restored = passivator.restore(session, ui.getUIId());
+
+        // The counter is shared with the session and therefore not copied
+        Assert.assertEquals(2, counter.attached);
+        TrackingComponent component = (TrackingComponent) restored
+                .getChildren().findFirst().get();
+        Assert.assertSame(counter, component.counter);
+    }
+
+    @Test
+    public void restore_loadFails_passivatedUIRemoved() {
+        UI ui = createUI();
+        ui.getInternals().setLastRequestTimestamp(0);
+        passivator.passivateIdleUIs(session);
+        failLoad = true;
+
+        Assert.assertNull(passivator.restore(session, ui.getUIId()));
+        Assert.assertTrue(session.getPassivatedUIs().isEmpty());
+        Assert.assertTrue(stored.isEmpty());
+    }
+
+    @Test
+    public void restore_sessionSerializedWithPassivatedUI_restoredWithoutStore()
+            throws Exception {
+        // Sessions are only serialized in production mode
+        ApplicationConfiguration configuration = Mockito
+                .mock(ApplicationConfiguration.class);
+        Mockito.when(configuration.isProductionMode()).thenReturn(true);
+        Mockito.when(mocks.getServletContext()
+                .getAttribute(ApplicationConfiguration.class.getName()))
+                .thenReturn(configuration);
+        UI ui = createUI();
+        ui.getElement().setProperty("foo", "bar");
+        ui.getInternals().setLastRequestTimestamp(0);
+        passivator.passivateIdleUIs(session);
+
+        byte[] sessionData = UISerializer.serializeSession(session);
+        // Still available to the original session
+        Assert.assertEquals(1, stored.size());
+        // As if deserialized on another node
+        stored.clear();
+        VaadinSession copy = Mockito
+                .spy(UISerializer.deserializeSession(sessionData, null));
+        Mockito.doReturn(mocks.getService()).when(copy).getService();
+        copy.lock();
+        try {
+            UI restored = passivator.restore(copy, ui.getUIId());
+
+            Assert.assertEquals("bar",
+                    restored.getElement().getProperty("foo"));
+            Assert.assertTrue(copy.getPassivatedUIs().isEmpty());
+        } finally {
+            copy.unlock();
+        }
+    }
+
+    @Test
+    public void passivateIdleUIs_recentlyActiveUI_notPassivated() {
+        UI ui = createUI();
+
+        passivator.passivateIdleUIs(session);
+
+        Assert.assertTrue(session.getUIs().contains(ui));
+        Assert.assertTrue(stored.isEmpty());
+    }
+
+    @Test
+    public void passivateIdleUIs_pollingUI_notPassivated() {
+        UI ui = createUI();
+        ui.setPollInterval(1000);
+        ui.getInternals().setLastRequestTimestamp(0);
+
+        passivator.passivateIdleUIs(session);
+
+        Assert.assertTrue(session.getUIs().contains(ui));
+        Assert.assertTrue(stored.isEmpty());
+    }
+
+    @Test
+    public void restoreExpiredUIs_expiredHeartbeat_restored() {
+        UI ui = createUI();
+        ui.getInternals().setLastRequestTimestamp(0);
+        passivator.passivateIdleUIs(session);
+
+        passivator.restoreExpiredUIs(session, 60000);
+        Assert.assertTrue(session.getUIs().isEmpty());
+
+        session.trySetPassivatedUIHeartbeatTimestamp(ui.getUIId(), 0);
+        passivator.restoreExpiredUIs(session, 60000);
+        Assert.assertEquals(1, session.getUIs().size());
+    }
+
+    private UI createUI() {
+        UI ui = new UI();
+        ui.getInternals().setSession(session);
+        VaadinServletRequest request = Mockito
+                .mock(VaadinServletRequest.class);
+        Mockito.when(request.getHttpServletRequest())
+                .thenReturn(Mockito.mock(HttpServletRequest.class));
+        ui.doInit(request, session.getNextUIid());
+        session.addUI(ui);
+        return ui;
+    }
+}
@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -269,6 +270,40 @@ public class VaadinServiceTest {
                 "Original value", CurrentInstance.get(String.class));
     }
 
+    @Test
+    public void accessSession_requestOfAnotherSession_limitedAsBackgroundTask() {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                InitParameters.SERVLET_PARAMETER_PENDING_ACCESS_QUEUE_LIMIT,
+                "1");
+        VaadinService service = new MockVaadinServletService(configuration);
+        MockVaadinSession session = new MockVaadinSession(service);
+        MockVaadinSession otherSession = new MockVaadinSession(service);
+        // Keeps the tasks in the queue
+        session.lock();
+        CurrentInstance.set(VaadinRequest.class,
+                Mockito.mock(VaadinRequest.class));
+        try {
+            VaadinSession.setCurrent(otherSession);
+            service.accessSession(session, () -> {
+            });
+            try {
+                service.accessSession(session, () -> {
+                });
+                Assert.fail("Task from another session should be limited");
+            } catch (RejectedExecutionException expected) {
+                // expected
+            }
+
+            VaadinSession.setCurrent(session);
+            service.accessSession(session, () -> {
+            });
+            Assert.assertEquals(2, session.getPendingAccessQueue().size());
+        } finally {
+            CurrentInstance.clearAll();
+        }
+    }
+
     @Test
     public void testBootstrapListenersCreation() throws ServiceException {
         // in this test the actual behavior of the listeners is not evaluated.
@@ -338,6 +338,28 @@ public class AccessAnnotationCheckerTest {
         }
     }
 
+    @Test
+    public void accessRuleIsResolvedOnlyOnce() throws Exception {
+        AccessAnnotationChecker checker = Mockito
+                .spy(new AccessAnnotationChecker());
+        Method method = RolesAllowedUserClass.class
+                .getMethod("rolesAllowedUser");
+
+        Assert.assertTrue(checker.hasAccess(method,
+                createRequest(USER_PRINCIPAL, "user")));
+        Assert.assertFalse(checker.hasAccess(method,
+                createRequest(USER_PRINCIPAL, "admin")));
+        Assert.assertFalse(checker.hasAccess(method, createRequest(null)));
+        Assert.assertTrue(checker.hasAccess(RolesAllowedUserClass.class,
+                createRequest(USER_PRINCIPAL, "user")));
+        Assert.assertFalse(checker.hasAccess(RolesAllowedUserClass.class,
+                createRequest(USER_PRINCIPAL)));
+
+        Mockito.verify(checker, Mockito.times(1)).getSecurityTarget(method);
+        Mockito.verify(checker, Mockito.times(1))
+                .getSecurityTarget(RolesAllowedUserClass.class);
+    }
+
     static HttpServletRequest createRequest(Principal userPrincipal,
             String... roles) {
         Set<String> roleSet = new HashSet<>();
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.UIInternals;
+import com.vaadin.flow.server.HandlerHelper.RequestType;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.ApplicationConstants;
+
+public class HeartbeatHandlerTest {
+
+    private final HeartbeatHandler handler = new HeartbeatHandler();
+
+    private final VaadinSession session = Mockito.mock(VaadinSession.class);
+    private final VaadinService service = Mockito.mock(VaadinService.class);
+    private final VaadinRequest request = Mockito.mock(VaadinRequest.class);
+    private final VaadinResponse response = Mockito.mock(VaadinResponse.class);
+    private final UI ui = Mockito.mock(UI.class);
+    private final UIInternals internals = Mockito.mock(UIInternals.class);
+
+    @Before
+    public void setUp() {
+        Mockito.when(request.getParameter(
+                ApplicationConstants.REQUEST_TYPE_PARAMETER))
+                .thenReturn(RequestType.HEARTBEAT.getIdentifier());
+        Mockito.when(
+                request.getParameter(ApplicationConstants.UI_ID_PARAMETER))
+                .thenReturn("1");
+        Mockito.when(session.getService()).thenReturn(service);
+        Mockito.when(session.getUIByIdWithoutLock(1)).thenReturn(ui);
+        Mockito.when(service.findUI(request)).thenReturn(ui);
+        Mockito.when(ui.getInternals()).thenReturn(internals);
+    }
+
+    @Test
+    public void handleRequest_noHeartbeatListeners_timestampSetWithoutLock()
+            throws IOException {
+        Mockito.when(internals.trySetLastHeartbeatTimestamp(Mockito.anyLong()))
+                .thenReturn(true);
+
+        Assert.assertTrue(handler.handleRequest(session, request, response));
+
+        Mockito.verify(session, Mockito.never()).lock();
+        Mockito.verify(internals, Mockito.never())
+                .setLastHeartbeatTimestamp(Mockito.anyLong());
+        Mockito.verify(response).setHeader("Cache-Control", "no-cache");
+        Mockito.verify(response).setHeader("Content-Type", "text/plain");
+    }
+
+    @Test
+    public void handleRequest_heartbeatListeners_timestampSetWithLock()
+            throws IOException {
+        Mockito.when(internals.trySetLastHeartbeatTimestamp(Mockito.anyLong()))
+                .thenReturn(false);
+
+        Assert.assertTrue(handler.handleRequest(session, request, response));
+
+        Mockito.verify(session).lock();
+        Mockito.verify(internals)
+                .setLastHeartbeatTimestamp(Mockito.anyLong());
+        Mockito.verify(session).unlock();
+        Mockito.verify(response).setHeader("Content-Type", "text/plain");
+    }
+
+    @Test
+    public void handleRequest_unknownUI_notFoundWithLock() throws IOException {
+        Mockito.when(session.getUIByIdWithoutLock(1)).thenReturn(null);
+        Mockito.when(service.findUI(request)).thenReturn(null);
+
+        Assert.assertTrue(handler.handleRequest(session, request, response));
+
+        Mockito.verify(session).lock();
+        Mockito.verify(response).sendError(404, "UI not found");
+    }
+}
@@ -31,6 +31,7 @@ import java.util.stream.Collectors;
 import org.jsoup.Jsoup;
 import org.jsoup.internal.StringUtil;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.junit.After;
 import org.junit.Assert;
@@ -236,6 +237,32 @@ public class IndexHtmlRequestHandlerTest {
                         .canHandleRequest(createVaadinRequest("/.htaccess")));
     }
 
+    @Test
+    public void productionMode_noListeners_precompiledPageMatchesDocumentPage()
+            throws IOException {
+        deploymentConfiguration.setProductionMode(true);
+
+        indexHtmlRequestHandler.synchronizedHandleRequest(session,
+                createVaadinRequest("/"), response);
+        String precompiled = responseOutput
+                .toString(StandardCharsets.UTF_8.name());
+
+        responseOutput.reset();
+        service.addIndexHtmlRequestListener(evt -> {
+            // Forces the page to be built as a document
+        });
+        indexHtmlRequestHandler.synchronizedHandleRequest(session,
+                createVaadinRequest("/"), response);
+        String document = responseOutput
+                .toString(StandardCharsets.UTF_8.name());
+
+        Assert.assertEquals(document, precompiled);
+        Element head = Jsoup.parse(precompiled).head();
+        Assert.assertTrue(head.child(0).hasAttr("initial"));
+        Assert.assertEquals(1, head.getElementsByTag("base").size());
+        Assert.assertFalse(precompiled.contains("__vaadin"));
+    }
+
     @Test
     public void bootstrapListener_addListener_responseIsModified()
             throws IOException {
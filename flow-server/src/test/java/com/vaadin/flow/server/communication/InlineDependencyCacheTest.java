@@ -0,0 +1,87 @@
+/*
+ * Copyright 2000-2021 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InlineDependencyCacheTest {
+
+    private final InlineDependencyCache cache = new InlineDependencyCache();
+    private final List<String> loaded = new ArrayList<>();
+
+    @Test
+    public void getContents_sameUrl_loadedOnce() {
+        Assert.assertEquals("contents of a.css", get("a.css"));
+        Assert.assertEquals("contents of a.css", get("a.css"));
+        Assert.assertEquals("contents of b.css", get("b.css"));
+
+        Assert.assertEquals(Arrays.asList("a.css", "b.css"), loaded);
+    }
+
+    @Test
+    public void getContents_tooLargeContents_notCached() {
+        String large = StringUtils.repeat('x',
+                InlineDependencyCache.MAX_ENTRY_LENGTH + 1);
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals(large, cache.getContents("large.css", url -> {
+                loaded.add(url);
+                return large;
+            }));
+        }
+
+        Assert.assertEquals(Arrays.asList("large.css", "large.css"), loaded);
+    }
+
+    @Test
+    public void getContents_totalLimitExceeded_leastRecentlyUsedEvicted() {
+        String contents = StringUtils
+                .repeat('x', InlineDependencyCache.MAX_ENTRY_LENGTH);
+        int fitting = (int) (InlineDependencyCache.MAX_CONTENTS_LENGTH
+                / contents.length());
+        for (int i = 0; i <= fitting; i++) {
+            cache.getContents(i + ".css", url -> {
+                loaded.add(url);
+                return contents;
+            });
+        }
+        loaded.clear();
+
+        // The first entry has been evicted, the last one is still cached
+        cache.getContents(fitting + ".css", url -> {
+            loaded.add(url);
+            return contents;
+        });
+        cache.getContents("0.css", url -> {
+            loaded.add(url);
+            return contents;
+        });
+
+        Assert.assertEquals(Arrays.asList("0.css"), loaded);
+    }
+
+    private String get(String url) {
+        return cache.getContents(url, dependencyUrl -> {
+            loaded.add(dependencyUrl);
+            return "contents of " + dependencyUrl;
+        });
+    }
+}
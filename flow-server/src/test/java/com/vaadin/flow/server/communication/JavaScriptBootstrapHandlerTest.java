@@ -32,13 +32,18 @@ import com.vaadin.flow.component.page.Push;
 import com.vaadin.flow.dom.NodeVisitor.ElementType;
 import com.vaadin.flow.dom.TestNodeVisitor;
 import com.vaadin.flow.dom.impl.BasicElementStateProvider;
+import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.server.AppShellRegistry;
 import com.vaadin.flow.server.MockServletServiceSessionSetup;
 import com.vaadin.flow.server.MockServletServiceSessionSetup.TestVaadinServletResponse;
 import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinServletContext;
 import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.ApplicationConstants;
 import com.vaadin.flow.shared.communication.PushMode;
+import com.vaadin.flow.shared.ui.Dependency;
+import com.vaadin.flow.shared.ui.LoadMode;
 
 import elemental.json.Json;
 import elemental.json.JsonObject;
@@ -123,6 +128,30 @@ public class JavaScriptBootstrapHandlerTest {
         Assert.assertFalse(json.hasKey("pushScript"));
     }
 
+    @Test
+    public void setPreloadLinkHeader_initialUidlWithDependency_linkHeaderSet() {
+        UI ui = new UI();
+        ui.getInternals().setContextRoot("./");
+        VaadinSession uiSession = Mockito.mock(VaadinSession.class);
+        Mockito.when(uiSession.getUIById(3)).thenReturn(ui);
+        VaadinResponse vaadinResponse = Mockito.mock(VaadinResponse.class);
+
+        JsonObject uidl = Json.createObject();
+        uidl.put(LoadMode.EAGER.name(), JsonUtils.createArray(new Dependency(
+                Dependency.Type.JS_MODULE, "module.js", LoadMode.EAGER)
+                        .toJson()));
+        JsonObject appConfig = Json.createObject();
+        appConfig.put(ApplicationConstants.UI_ID_PARAMETER, 3);
+        appConfig.put("uidl", uidl);
+        JsonObject initial = Json.createObject();
+        initial.put("appConfig", appConfig);
+
+        jsInitHandler.setPreloadLinkHeader(initial, uiSession, vaadinResponse);
+
+        Mockito.verify(vaadinResponse).setHeader("Link",
+                "<module.js>; rel=modulepreload");
+    }
+
     @Test
     public void should_initialize_UI() throws Exception {
         VaadinRequest request = mocks.createRequest(mocks, "/", "v-r=init&foo");
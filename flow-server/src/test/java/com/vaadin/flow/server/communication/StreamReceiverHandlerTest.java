@@ -21,6 +21,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -404,6 +405,26 @@ public class StreamReceiverHandlerTest {
         Mockito.verify(response, Mockito.times(0)).setStatus(Mockito.anyInt());
     }
 
+    @Test
+    public void handleFileUploadValidationAndData_listenProgress_progressQueuedWithoutLockAndDeliveredBeforeFinish()
+            throws UploadException {
+        when(streamVariable.listenProgress()).thenReturn(true);
+        outputStream = new ByteArrayOutputStream();
+
+        handler.handleFileUploadValidationAndData(session,
+                createInputStream("foobar"), streamReceiver, "foo.txt",
+                "text/plain", 6, stateNode);
+
+        // The mocked session never runs the queued command
+        verify(session).access(Mockito.any());
+        InOrder inOrder = Mockito.inOrder(streamVariable);
+        ArgumentCaptor<StreamVariable.StreamingProgressEvent> progressEvent = ArgumentCaptor
+                .forClass(StreamVariable.StreamingProgressEvent.class);
+        inOrder.verify(streamVariable).onProgress(progressEvent.capture());
+        inOrder.verify(streamVariable).streamingFinished(Mockito.any());
+        Assert.assertEquals(6, progressEvent.getValue().getBytesReceived());
+    }
+
     @Test
     public void handleFileUploadValidationAndData_inputStreamThrowsIOException_exceptionIsNotRethrown_exceptionIsNotHandlerByErrorHandler()
             throws UploadException {
@@ -15,17 +15,29 @@
  */
 package com.vaadin.flow.server.communication;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletResponse;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import com.vaadin.flow.internal.ResponseWriterTest.CapturingServletOutputStream;
+import com.vaadin.flow.server.AsyncStreamResourceWriter;
 import com.vaadin.flow.server.InputStreamFactory;
 import com.vaadin.flow.server.MockVaadinServletService;
 import com.vaadin.flow.server.MockVaadinSession;
@@ -106,4 +118,96 @@ public class StreamResourceHandlerTest {
         Mockito.verify(response)
                 .setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
     }
+
+    @Test
+    public void asyncWriter_asyncSupported_chunksWrittenByWriteListener()
+            throws IOException {
+        AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+        Mockito.when(request.isAsyncSupported()).thenReturn(true);
+        Mockito.when(request.startAsync()).thenReturn(asyncContext);
+        CapturingServletOutputStream out = Mockito
+                .spy(new CapturingServletOutputStream());
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        AtomicBoolean closed = new AtomicBoolean();
+        StreamResource res = new StreamResource("report.txt",
+                createChunkedWriter(closed));
+        handler.handleRequest(session, request, response, res);
+
+        Assert.assertEquals(0, out.getOutput().length);
+        ArgumentCaptor<WriteListener> listener = ArgumentCaptor
+                .forClass(WriteListener.class);
+        Mockito.verify(out).setWriteListener(listener.capture());
+
+        listener.getValue().onWritePossible();
+
+        Assert.assertEquals("chunk 0\nchunk 1\nchunk 2\n",
+                new String(out.getOutput(), StandardCharsets.UTF_8));
+        Assert.assertTrue(closed.get());
+        Mockito.verify(asyncContext).complete();
+    }
+
+    @Test
+    public void asyncWriter_asyncTimeout_writerClosedAndCompleted()
+            throws IOException {
+        AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+        Mockito.when(request.isAsyncSupported()).thenReturn(true);
+        Mockito.when(request.startAsync()).thenReturn(asyncContext);
+        Mockito.when(response.getOutputStream())
+                .thenReturn(new CapturingServletOutputStream());
+
+        AtomicBoolean closed = new AtomicBoolean();
+        StreamResource res = new StreamResource("report.txt",
+                createChunkedWriter(closed));
+        handler.handleRequest(session, request, response, res);
+
+        Mockito.verify(asyncContext).setTimeout(0);
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor
+                .forClass(AsyncListener.class);
+        Mockito.verify(asyncContext).addListener(listener.capture());
+
+        listener.getValue().onTimeout(new AsyncEvent(asyncContext));
+        listener.getValue().onComplete(new AsyncEvent(asyncContext));
+
+        Assert.assertTrue(closed.get());
+        Mockito.verify(asyncContext).complete();
+    }
+
+    @Test
+    public void asyncWriter_asyncNotSupported_chunksWrittenOnRequestThread()
+            throws IOException {
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        AtomicBoolean closed = new AtomicBoolean();
+        StreamResource res = new StreamResource("report.txt",
+                createChunkedWriter(closed));
+        handler.handleRequest(session, request, response, res);
+
+        Assert.assertEquals("chunk 0\nchunk 1\nchunk 2\n",
+                new String(out.getOutput(), StandardCharsets.UTF_8));
+        Assert.assertTrue(closed.get());
+        Mockito.verify(request, Mockito.never()).startAsync();
+    }
+
+    private static AsyncStreamResourceWriter createChunkedWriter(
+            AtomicBoolean closed) {
+        return session -> {
+            AtomicInteger chunk = new AtomicInteger();
+            return new AsyncStreamResourceWriter.ChunkWriter() {
+                @Override
+                public boolean writeNext(OutputStream stream)
+                        throws IOException {
+                    stream.write(("chunk " + chunk.get() + "\n")
+                            .getBytes(StandardCharsets.UTF_8));
+                    return chunk.incrementAndGet() < 3;
+                }
+
+                @Override
+                public void close() {
+                    closed.set(true);
+                }
+            };
+        };
+    }
 }
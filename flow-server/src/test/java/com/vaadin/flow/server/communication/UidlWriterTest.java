@@ -60,6 +60,7 @@ import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -284,6 +285,40 @@ public class UidlWriterTest {
                 response.getBoolean(ApplicationConstants.RESYNCHRONIZE_ID));
     }
 
+    @Test
+    public void createPreloadLinkHeader_urlDependencies_linksResolvedByType() {
+        UI ui = new UI();
+        ui.getInternals().setContextRoot("../");
+
+        JsonObject uidl = Json.createObject();
+        uidl.put(LoadMode.EAGER.name(), JsonUtils.createArray(
+                new Dependency(Dependency.Type.JAVASCRIPT, "context://eager.js",
+                        LoadMode.EAGER).toJson()));
+        uidl.put(LoadMode.LAZY.name(), JsonUtils.createArray(
+                new Dependency(Dependency.Type.STYLESHEET, "lazy.css",
+                        LoadMode.LAZY).toJson(),
+                new Dependency(Dependency.Type.JS_MODULE, "module.js",
+                        LoadMode.LAZY).toJson()));
+        JsonObject inline = Json.createObject();
+        inline.put(Dependency.KEY_TYPE, Dependency.Type.STYLESHEET.name());
+        inline.put(Dependency.KEY_CONTENTS, "inline.css");
+        uidl.put(LoadMode.INLINE.name(), JsonUtils.createArray(inline));
+
+        assertEquals(
+                "<../eager.js>; rel=preload; as=script, "
+                        + "<lazy.css>; rel=preload; as=style, "
+                        + "<module.js>; rel=modulepreload",
+                UidlWriter.createPreloadLinkHeader(uidl, ui));
+    }
+
+    @Test
+    public void createPreloadLinkHeader_noDependencies_noHeader() {
+        UI ui = new UI();
+        ui.getInternals().setContextRoot("./");
+
+        assertNull(UidlWriter.createPreloadLinkHeader(Json.createObject(), ui));
+    }
+
     private void assertInlineDependencies(List<JsonObject> inlineDependencies) {
         assertThat("Should have an inline dependency", inlineDependencies,
                 hasSize(1));
@@ -25,6 +25,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -291,6 +292,19 @@ public class FrontendUtilsTest {
                 wrappedCommand);
     }
 
+    @Test
+    public void parseContentHashes_returnsHashesByPath() {
+        String contentHashesJson = "{\"VAADIN/build/vaadin-bundle-1234.cache.js\":"
+                + " \"abc\", \"VAADIN/build/vaadin-2-5678.cache.js\": \"def\"}";
+        Map<String, String> hashes = FrontendUtils
+                .parseContentHashes(contentHashesJson);
+        Assert.assertEquals(2, hashes.size());
+        Assert.assertEquals("abc",
+                hashes.get("/VAADIN/build/vaadin-bundle-1234.cache.js"));
+        Assert.assertEquals("def",
+                hashes.get("/VAADIN/build/vaadin-2-5678.cache.js"));
+    }
+
     @Test
     public void parseManifestJson_returnsValidPaths() {
         String manifestJson = "{\"index.html\": \"index.html\", \"sw.js\": "
@@ -100,6 +100,7 @@ public abstract class ClassesSerializableTest extends ClassFinder {
                 "com\\.vaadin\\.flow\\.internal\\.UsageStatistics(\\$.*)?",
                 "com\\.vaadin\\.flow\\.internal\\.nodefeature\\.NodeFeatureRegistry",
                 "com\\.vaadin\\.flow\\.internal\\.nodefeature\\.NodeFeatures",
+                "com\\.vaadin\\.flow\\.internal\\.nodefeature\\.NodeMap\\$ArrayKeyIterator",
                 "com\\.vaadin\\.flow\\.internal\\.CustomElementNameValidator",
                 "com\\.vaadin\\.flow\\.router\\.HighlightActions",
                 "com\\.vaadin\\.flow\\.router\\.HighlightConditions",
@@ -110,6 +111,15 @@ public abstract class ClassesSerializableTest extends ClassFinder {
                 "com\\.vaadin\\.flow\\.internal\\.nodefeature\\.NodeProperties",
                 "com\\.vaadin\\.flow\\.internal\\.AnnotationReader",
                 "com\\.vaadin\\.flow\\.server\\.StaticFileHandlerFactory",
+                "com\\.vaadin\\.flow\\.server\\.SessionSweeper",
+                "com\\.vaadin\\.flow\\.server\\.UIPassivator(\\$.*)?",
+                "com\\.vaadin\\.flow\\.server\\.UIPassivationStore",
+                "com\\.vaadin\\.flow\\.server\\.FileUIPassivationStore",
+                "com\\.vaadin\\.flow\\.server\\.SessionExternalizer\\$Compact.*",
+                "com\\.vaadin\\.flow\\.server\\.UISerializer(\\$.*)?",
+                "com\\.vaadin\\.flow\\.server\\.SessionReplication",
+                "com\\.vaadin\\.flow\\.server\\.communication\\.StreamResourceHandler\\$ChunkWriteListener",
+                "com\\.vaadin\\.flow\\.internal\\.ResponseWriter\\$FileWriteListener",
                 "com\\.vaadin\\.flow\\.server\\.communication\\.ServerRpcHandler\\$LazyInvocationHandlers",
                 "com\\.vaadin\\.flow\\.server\\.VaadinServletRequest",
                 "com\\.vaadin\\.flow\\.server\\.VaadinServletResponse",
@@ -169,6 +179,7 @@ public abstract class ClassesSerializableTest extends ClassFinder {
                 "com\\.vaadin\\.flow\\.templatemodel\\.PropertyFilter",
                 "com\\.vaadin\\.flow\\.internal\\.ReflectTools(\\$.*)?",
                 "com\\.vaadin\\.flow\\.server\\.FutureAccess",
+                "com\\.vaadin\\.flow\\.server\\.PendingAccessQueue",
                 "com\\.vaadin\\.flow\\.internal\\.nodefeature\\.ElementPropertyMap\\$PutResult",
                 "com\\.vaadin\\.flow\\.client\\.osgi\\.OSGiClientStaticResource(\\$.*)?",
                 "com\\.vaadin\\.flow\\.osgi\\.support\\.OsgiVaadinContributor(\\$.*)?",
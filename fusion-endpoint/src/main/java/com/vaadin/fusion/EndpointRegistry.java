@@ -17,12 +17,15 @@ package com.vaadin.fusion;
 
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
+import com.googlecode.gentyref.GenericTypeReflector;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ClassUtils;
 
@@ -36,17 +39,23 @@ public class EndpointRegistry {
      */
     public static class VaadinEndpointData {
         final Map<String, Method> methods = new HashMap<>();
+        private final Map<Method, Type[]> parameterTypes = new ConcurrentHashMap<>();
         private final Object vaadinEndpointObject;
+        private final Class<?> endpointType;
 
         private VaadinEndpointData(Object vaadinEndpointObject,
-                Method... endpointMethods) {
+                Class<?> endpointType, Method... endpointMethods) {
             this.vaadinEndpointObject = vaadinEndpointObject;
+            this.endpointType = endpointType;
             Stream.of(endpointMethods)
                     .filter(method -> method.getDeclaringClass() != Object.class
                             && !method.isBridge())
-                    .forEach(method -> methods.put(
-                            method.getName().toLowerCase(Locale.ENGLISH),
-                            method));
+                    .forEach(method -> {
+                        methods.put(
+                                method.getName().toLowerCase(Locale.ENGLISH),
+                                method);
+                        getParameterTypes(method);
+                    });
         }
 
         /**
@@ -65,6 +74,32 @@ public class EndpointRegistry {
         public Object getEndpointObject() {
             return vaadinEndpointObject;
         }
+
+        /**
+         * Gets the type of the endpoint, i.e. the user class of the endpoint
+         * object in case it is a proxy.
+         *
+         * @return the endpoint type
+         */
+        public Class<?> getEndpointType() {
+            return endpointType;
+        }
+
+        /**
+         * Gets the exact parameter types of the given endpoint method, with
+         * the generic type variables resolved against the endpoint type.
+         * <p>
+         * The types are resolved once per method and cached afterwards.
+         *
+         * @param method
+         *            the endpoint method to get parameter types for
+         * @return the resolved parameter types of the method
+         */
+        Type[] getParameterTypes(Method method) {
+            return parameterTypes.computeIfAbsent(method,
+                    key -> GenericTypeReflector.getExactParameterTypes(key,
+                            endpointType));
+        }
     }
 
     private EndpointNameChecker endpointNameChecker;
@@ -115,7 +150,8 @@ public class EndpointRegistry {
         AccessibleObject.setAccessible(endpointPublicMethods, true);
 
         vaadinEndpoints.put(endpointName.toLowerCase(Locale.ENGLISH),
-                new VaadinEndpointData(endpointBean, endpointPublicMethods));
+                new VaadinEndpointData(endpointBean, beanType,
+                        endpointPublicMethods));
 
     }
 
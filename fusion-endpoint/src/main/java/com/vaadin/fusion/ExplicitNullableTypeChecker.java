@@ -99,6 +99,28 @@ public class ExplicitNullableTypeChecker {
         return null;
     }
 
+    /**
+     * Validates the given value for the given expected type of a value
+     * provided by the reflected element, e.g. the type argument of a
+     * {@link java.util.concurrent.CompletionStage} returned by a method.
+     *
+     * @param value
+     *            the value to validate
+     * @param annotatedElement
+     *            the entity to be type checked
+     * @param expectedType
+     *            the declared type expected for the value
+     * @return error message when the value is null while the expected type does
+     *         not explicitly allow null, or null meaning the value is OK.
+     */
+    public String checkValueForAnnotatedElement(Object value,
+            AnnotatedElement annotatedElement, Type expectedType) {
+        if (!isRequired(annotatedElement)) {
+            return null;
+        }
+        return checkValueForType(value, expectedType);
+    }
+
     String checkValueForType(Object value, Type expectedType) {
         return new ExplicitNullableTypeCheckerHelper().checkValueForType(value,
                 expectedType);
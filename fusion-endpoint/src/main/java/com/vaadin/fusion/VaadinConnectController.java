@@ -17,6 +17,7 @@ package com.vaadin.fusion;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
 import javax.validation.Validator;
@@ -25,14 +26,20 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -41,8 +48,9 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.googlecode.gentyref.GenericTypeReflector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -51,15 +59,17 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.jackson.JacksonProperties;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.ResolvableType;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
-import org.springframework.util.ClassUtils;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 
 import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.server.VaadinRequest;
@@ -89,6 +99,20 @@ import com.vaadin.fusion.exception.EndpointValidationException.ValidationErrorDa
  * the method has parameters, the request body should contain a valid JSON with
  * all parameters in the same order as they are declared in the method. The
  * parameter types should also correspond for the request to be successful.
+ * <p>
+ * Several calls can also be sent in a single POST request to
+ * {@literal http://${base_url}/batch}, see
+ * {@link #serveEndpointBatch(ArrayNode, HttpServletRequest)}.
+ * <p>
+ * Methods returning a {@link CompletionStage}, such as a
+ * {@link java.util.concurrent.CompletableFuture}, are handled asynchronously
+ * when the servlet supports it: the request thread is released and the
+ * response is sent once the returned stage completes.
+ * <p>
+ * Methods returning a {@link Stream} or an {@link java.util.Iterator} are
+ * serialized as JSON arrays, item by item, directly into the response without
+ * collecting the items or the response body in memory first. Returned streams
+ * are closed once serialized.
  */
 @RestController
 @Import({ VaadinConnectControllerConfiguration.class,
@@ -96,6 +120,7 @@ import com.vaadin.fusion.exception.EndpointValidationException.ValidationErrorDa
 @ConditionalOnBean(annotation = Endpoint.class)
 public class VaadinConnectController {
     static final String ENDPOINT_METHODS = "/{endpoint}/{method}";
+    static final String ENDPOINT_BATCH = "/batch";
 
     /**
      * A qualifier to override the request and response default json mapper.
@@ -110,6 +135,8 @@ public class VaadinConnectController {
             .buildDefaultValidatorFactory().getValidator();
     private final ExplicitNullableTypeChecker explicitNullableTypeChecker;
     private final ApplicationContext applicationContext;
+    private final Map<Type, ObjectReader> parameterReaders = new ConcurrentHashMap<>();
+    private final Map<Method, Boolean> constrainedMethods = new ConcurrentHashMap<>();
 
     EndpointRegistry endpointRegistry;
 
@@ -187,14 +214,168 @@ public class VaadinConnectController {
      *            called has parameters
      * @param request
      *            the current request which triggers the endpoint call
-     * @return execution result as a JSON string or an error message string
+     * @param response
+     *            the response to write {@link Stream} and
+     *            {@link java.util.Iterator} return values into, or
+     *            <code>null</code> to return them in the response body string
+     * @return execution result as a JSON string or an error message string,
+     *         or <code>null</code> if the method returned a
+     *         {@link CompletionStage} that is handled asynchronously or a
+     *         value that was written directly into the response
      */
     @PostMapping(path = ENDPOINT_METHODS, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     public ResponseEntity<String> serveEndpoint(
             @PathVariable("endpoint") String endpointName,
             @PathVariable("method") String methodName,
             @RequestBody(required = false) ObjectNode body,
+            HttpServletRequest request, HttpServletResponse response) {
+        return completeResponse(callEndpoint(endpointName, methodName, body,
+                request, response), request);
+    }
+
+    /**
+     * Processes a Vaadin endpoint request without writing into the response
+     * directly, see
+     * {@link #serveEndpoint(String, String, ObjectNode, HttpServletRequest, HttpServletResponse)}.
+     *
+     * @param endpointName
+     *            the name of an endpoint to address the calls to, not case
+     *            sensitive
+     * @param methodName
+     *            the method name to execute on an endpoint, not case sensitive
+     * @param body
+     *            optional request body, that should be specified if the method
+     *            called has parameters
+     * @param request
+     *            the current request which triggers the endpoint call
+     * @return execution result as a JSON string or an error message string,
+     *         or <code>null</code> if the method returned a
+     *         {@link CompletionStage} that is handled asynchronously
+     */
+    public ResponseEntity<String> serveEndpoint(String endpointName,
+            String methodName, ObjectNode body, HttpServletRequest request) {
+        return serveEndpoint(endpointName, methodName, body, request, null);
+    }
+
+    /**
+     * Captures and processes a batch of Vaadin endpoint calls sent in a single
+     * request.
+     * <p>
+     * The request body should be a JSON array of call objects, each having the
+     * <code>endpoint</code> and <code>method</code> names, and optionally the
+     * <code>params</code> object, with the same semantics as the path
+     * variables and the request body of
+     * {@link #serveEndpoint(String, String, ObjectNode, HttpServletRequest)}.
+     * The calls are started one after the other, in the order they are
+     * listed, and each of them is access checked separately. Calls returning
+     * a {@link CompletionStage} do not hold up the following calls, so
+     * asynchronous calls run concurrently, and the response is sent once all
+     * of them have completed, without holding the request thread when the
+     * servlet supports asynchronous processing.
+     * <p>
+     * The response is a JSON array with one result object per call, in the
+     * same order, each having the HTTP <code>status</code> code that the call
+     * would have got if sent separately, and the JSON <code>body</code> of the
+     * call response, if any.
+     *
+     * @param calls
+     *            the calls to execute
+     * @param request
+     *            the current request which triggers the endpoint calls
+     * @return the JSON array of the call results, or <code>null</code> if the
+     *         results are sent asynchronously
+     */
+    @PostMapping(path = ENDPOINT_BATCH, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<String> serveEndpointBatch(
+            @RequestBody ArrayNode calls, HttpServletRequest request) {
+        List<CompletableFuture<String>> results = new ArrayList<>(
+                calls.size());
+        for (JsonNode call : calls) {
+            results.add(serveBatchedCall(call, request));
+        }
+        CompletableFuture<ResponseEntity<String>> response = CompletableFuture
+                .allOf(results.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> ResponseEntity.ok(results.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.joining(",", "[", "]"))));
+        return completeResponse(response, request);
+    }
+
+    private CompletableFuture<String> serveBatchedCall(JsonNode call,
             HttpServletRequest request) {
+        CompletableFuture<ResponseEntity<String>> response;
+        JsonNode params = call.get("params");
+        if (!call.path("endpoint").isTextual()
+                || !call.path("method").isTextual()
+                || (params != null && !params.isNull()
+                        && !params.isObject())) {
+            response = CompletableFuture.completedFuture(ResponseEntity
+                    .badRequest().body(createErrorObject(
+                            "Invalid endpoint call: " + call)));
+        } else {
+            response = callEndpoint(call.get("endpoint").asText(),
+                    call.get("method").asText(),
+                    params instanceof ObjectNode ? (ObjectNode) params : null,
+                    request, null);
+        }
+        return response.thenApply(VaadinConnectController::createBatchResult);
+    }
+
+    private static String createBatchResult(ResponseEntity<String> response) {
+        StringBuilder result = new StringBuilder("{\"status\":")
+                .append(response.getStatusCodeValue());
+        if (response.getBody() != null) {
+            result.append(",\"body\":").append(response.getBody());
+        }
+        return result.append('}').toString();
+    }
+
+    /**
+     * Returns the given response, waiting for it if asynchronous processing
+     * is not supported, or sends it using Spring asynchronous request
+     * processing once it is completed, in which case <code>null</code> is
+     * returned.
+     */
+    private ResponseEntity<String> completeResponse(
+            CompletableFuture<ResponseEntity<String>> response,
+            HttpServletRequest request) {
+        if (response.isDone() || !request.isAsyncSupported()) {
+            return response.join();
+        }
+
+        DeferredResult<ResponseEntity<String>> deferredResult = new DeferredResult<>();
+        try {
+            WebAsyncUtils.getAsyncManager(request)
+                    .startDeferredResultProcessing(deferredResult);
+        } catch (Exception e) {
+            throw new IllegalStateException(
+                    "Unable to start asynchronous processing of an endpoint request",
+                    e);
+        }
+        response.whenComplete((result, error) -> {
+            if (error == null) {
+                deferredResult.setResult(result);
+            } else {
+                deferredResult.setErrorResult(error);
+            }
+        });
+        return null;
+    }
+
+    private String createErrorObject(String errorMessage) {
+        try {
+            return createResponseErrorObject(errorMessage);
+        } catch (JsonProcessingException unexpected) {
+            throw new IllegalStateException(String.format(
+                    "Unexpected: Failed to serialize a plain Java string '%s' into a JSON. "
+                            + "Double check the provided mapper's configuration.",
+                    errorMessage), unexpected);
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<String>> callEndpoint(
+            String endpointName, String methodName, ObjectNode body,
+            HttpServletRequest request, HttpServletResponse response) {
         getLogger().debug("Endpoint: {}, method: {}, request body: {}",
                 endpointName, methodName, body);
 
@@ -202,7 +383,8 @@ public class VaadinConnectController {
                 .get(endpointName);
         if (vaadinEndpointData == null) {
             getLogger().debug("Endpoint '{}' not found", endpointName);
-            return ResponseEntity.notFound().build();
+            return CompletableFuture
+                    .completedFuture(ResponseEntity.notFound().build());
         }
 
         Method methodToInvoke = vaadinEndpointData.getMethod(methodName)
@@ -210,7 +392,8 @@ public class VaadinConnectController {
         if (methodToInvoke == null) {
             getLogger().debug("Method '{}' not found in endpoint '{}'",
                     methodName, endpointName);
-            return ResponseEntity.notFound().build();
+            return CompletableFuture
+                    .completedFuture(ResponseEntity.notFound().build());
         }
 
         try {
@@ -222,52 +405,57 @@ public class VaadinConnectController {
             CurrentInstance.set(VaadinRequest.class,
                     new VaadinServletRequest(request, service));
             return invokeVaadinEndpointMethod(endpointName, methodName,
-                    methodToInvoke, body, vaadinEndpointData, request);
+                    methodToInvoke, body, vaadinEndpointData, request,
+                    response);
         } catch (JsonProcessingException e) {
-            String errorMessage = String.format(
-                    "Failed to serialize endpoint '%s' method '%s' response. "
-                            + "Double check method's return type or specify a custom mapper bean with qualifier '%s'",
-                    endpointName, methodName,
-                    VAADIN_ENDPOINT_MAPPER_BEAN_QUALIFIER);
-            getLogger().error(errorMessage, e);
-            try {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(createResponseErrorObject(errorMessage));
-            } catch (JsonProcessingException unexpected) {
-                throw new IllegalStateException(String.format(
-                        "Unexpected: Failed to serialize a plain Java string '%s' into a JSON. "
-                                + "Double check the provided mapper's configuration.",
-                        errorMessage), unexpected);
-            }
+            return CompletableFuture.completedFuture(
+                    createSerializationErrorResponse(endpointName, methodName,
+                            e));
         } finally {
             CurrentInstance.set(VaadinRequest.class, null);
         }
     }
 
-    private ResponseEntity<String> invokeVaadinEndpointMethod(
+    private ResponseEntity<String> createSerializationErrorResponse(
+            String endpointName, String methodName,
+            JsonProcessingException e) {
+        String errorMessage = String.format(
+                "Failed to serialize endpoint '%s' method '%s' response. "
+                        + "Double check method's return type or specify a custom mapper bean with qualifier '%s'",
+                endpointName, methodName,
+                VAADIN_ENDPOINT_MAPPER_BEAN_QUALIFIER);
+        getLogger().error(errorMessage, e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorObject(errorMessage));
+    }
+
+    private CompletableFuture<ResponseEntity<String>> invokeVaadinEndpointMethod(
             String endpointName, String methodName, Method methodToInvoke,
             ObjectNode body, VaadinEndpointData vaadinEndpointData,
-            HttpServletRequest request) throws JsonProcessingException {
+            HttpServletRequest request, HttpServletResponse response)
+            throws JsonProcessingException {
         VaadinConnectAccessChecker accessChecker = getAccessChecker(
                 request.getServletContext());
         String checkError = accessChecker.check(methodToInvoke, request);
         if (checkError != null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+            return CompletableFuture.completedFuture(ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
                     .body(createResponseErrorObject(String.format(
                             "Endpoint '%s' method '%s' request cannot be accessed, reason: '%s'",
-                            endpointName, methodName, checkError)));
+                            endpointName, methodName, checkError))));
         }
 
         Map<String, JsonNode> requestParameters = getRequestParameters(body);
-        Type[] javaParameters = getJavaParameters(methodToInvoke, ClassUtils
-                .getUserClass(vaadinEndpointData.getEndpointObject()));
+        Type[] javaParameters = vaadinEndpointData
+                .getParameterTypes(methodToInvoke);
         if (javaParameters.length != requestParameters.size()) {
-            return ResponseEntity.badRequest()
+            return CompletableFuture.completedFuture(ResponseEntity
+                    .badRequest()
                     .body(createResponseErrorObject(String.format(
                             "Incorrect number of parameters for endpoint '%s' method '%s', "
                                     + "expected: %s, got: %s",
                             endpointName, methodName, javaParameters.length,
-                            requestParameters.size())));
+                            requestParameters.size()))));
         }
 
         Object[] vaadinEndpointParameters;
@@ -279,23 +467,28 @@ public class VaadinConnectController {
             getLogger().debug(
                     "Endpoint '{}' method '{}' received invalid response",
                     endpointName, methodName, e);
-            return ResponseEntity.badRequest().body(vaadinEndpointMapper
-                    .writeValueAsString(e.getSerializationData()));
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(vaadinEndpointMapper
+                            .writeValueAsString(e.getSerializationData())));
         }
 
-        Set<ConstraintViolation<Object>> methodParameterConstraintViolations = validator
-                .forExecutables()
-                .validateParameters(vaadinEndpointData.getEndpointObject(),
-                        methodToInvoke, vaadinEndpointParameters);
+        boolean methodConstrained = isMethodConstrained(vaadinEndpointData,
+                methodToInvoke);
+        Set<ConstraintViolation<Object>> methodParameterConstraintViolations = methodConstrained
+                ? validator.forExecutables().validateParameters(
+                        vaadinEndpointData.getEndpointObject(), methodToInvoke,
+                        vaadinEndpointParameters)
+                : Collections.emptySet();
         if (!methodParameterConstraintViolations.isEmpty()) {
-            return ResponseEntity.badRequest().body(vaadinEndpointMapper
-                    .writeValueAsString(new EndpointValidationException(
-                            String.format(
-                                    "Validation error in endpoint '%s' method '%s'",
-                                    endpointName, methodName),
-                            createMethodValidationErrors(
-                                    methodParameterConstraintViolations))
-                                            .getSerializationData()));
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(vaadinEndpointMapper
+                            .writeValueAsString(new EndpointValidationException(
+                                    String.format(
+                                            "Validation error in endpoint '%s' method '%s'",
+                                            endpointName, methodName),
+                                    createMethodValidationErrors(
+                                            methodParameterConstraintViolations))
+                                                    .getSerializationData())));
         }
 
         Object returnValue;
@@ -310,21 +503,55 @@ public class VaadinConnectController {
                     endpointName, methodName,
                     listMethodParameterTypes(javaParameters));
             getLogger().debug(errorMessage, e);
-            return ResponseEntity.badRequest()
-                    .body(createResponseErrorObject(errorMessage));
+            return CompletableFuture.completedFuture(ResponseEntity
+                    .badRequest().body(createResponseErrorObject(errorMessage)));
         } catch (IllegalAccessException e) {
             String errorMessage = String.format(
                     "Endpoint '%s' method '%s' access failure", endpointName,
                     methodName);
             getLogger().error(errorMessage, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createResponseErrorObject(errorMessage));
+            return CompletableFuture.completedFuture(ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createResponseErrorObject(errorMessage)));
         } catch (InvocationTargetException e) {
-            return handleMethodExecutionError(endpointName, methodName, e);
+            return CompletableFuture.completedFuture(handleMethodExecutionError(
+                    endpointName, methodName, e.getCause()));
+        }
+
+        ResponseEntity<String> returnValueError = checkReturnValue(
+                endpointName, methodName, methodToInvoke, vaadinEndpointData,
+                returnValue, explicitNullableTypeChecker
+                        .checkValueForAnnotatedElement(returnValue,
+                                methodToInvoke));
+        if (returnValueError != null) {
+            return CompletableFuture.completedFuture(returnValueError);
+        }
+        if (returnValue instanceof CompletionStage) {
+            return handleAsyncReturnValue(endpointName, methodName,
+                    methodToInvoke, vaadinEndpointData,
+                    (CompletionStage<?>) returnValue);
         }
+        if (response != null && (returnValue instanceof Stream
+                || returnValue instanceof Iterator)) {
+            return CompletableFuture.completedFuture(writeReturnValue(
+                    endpointName, methodName, returnValue, response));
+        }
+        return CompletableFuture.completedFuture(
+                ResponseEntity.ok(writeReturnValue(returnValue)));
+    }
 
-        String implicitNullError = this.explicitNullableTypeChecker
-                .checkValueForAnnotatedElement(returnValue, methodToInvoke);
+    /**
+     * Checks a value returned by an endpoint method, or the value a returned
+     * {@link CompletionStage} completed with, using the given result of the
+     * explicit nullable type check and the return value constraints of the
+     * method.
+     *
+     * @return an error response, or <code>null</code> if the value can be sent
+     */
+    private ResponseEntity<String> checkReturnValue(String endpointName,
+            String methodName, Method methodToInvoke,
+            VaadinEndpointData vaadinEndpointData, Object returnValue,
+            String implicitNullError) throws JsonProcessingException {
         if (implicitNullError != null) {
             EndpointException returnValueException = new EndpointException(
                     String.format(
@@ -337,31 +564,168 @@ public class VaadinConnectController {
                             returnValueException.getSerializationData()));
         }
 
-        Set<ConstraintViolation<Object>> returnValueConstraintViolations = validator
-                .forExecutables()
-                .validateReturnValue(vaadinEndpointData.getEndpointObject(),
-                        methodToInvoke, returnValue);
+        Set<ConstraintViolation<Object>> returnValueConstraintViolations = isMethodConstrained(
+                vaadinEndpointData, methodToInvoke)
+                        ? validator.forExecutables().validateReturnValue(
+                                vaadinEndpointData.getEndpointObject(),
+                                methodToInvoke, returnValue)
+                        : Collections.emptySet();
         if (!returnValueConstraintViolations.isEmpty()) {
             getLogger().error(
                     "Endpoint '{}' method '{}' had returned a value that has validation errors: '{}', this might cause bugs on the client side. Fix the method implementation.",
                     endpointName, methodName, returnValueConstraintViolations);
         }
-        return ResponseEntity
-                .ok(vaadinEndpointMapper.writeValueAsString(returnValue));
+        return null;
+    }
+
+    /**
+     * Creates the response once the given completion stage is done, without
+     * waiting for it.
+     */
+    private CompletableFuture<ResponseEntity<String>> handleAsyncReturnValue(
+            String endpointName, String methodName, Method methodToInvoke,
+            VaadinEndpointData vaadinEndpointData,
+            CompletionStage<?> returnValue) {
+        CompletableFuture<ResponseEntity<String>> response = new CompletableFuture<>();
+        returnValue.whenComplete((value, error) -> {
+            try {
+                response.complete(createAsyncResponse(endpointName,
+                        methodName, methodToInvoke, vaadinEndpointData, value,
+                        error));
+            } catch (RuntimeException e) {
+                response.completeExceptionally(e);
+            }
+        });
+        return response;
+    }
+
+    private ResponseEntity<String> createAsyncResponse(String endpointName,
+            String methodName, Method methodToInvoke,
+            VaadinEndpointData vaadinEndpointData, Object value,
+            Throwable error) {
+        try {
+            if (error == null) {
+                // The completed value gets the same checks as synchronously
+                // returned values, against the type the stage completes with
+                ResponseEntity<String> valueError = checkReturnValue(
+                        endpointName, methodName, methodToInvoke,
+                        vaadinEndpointData, value,
+                        explicitNullableTypeChecker
+                                .checkValueForAnnotatedElement(value,
+                                        methodToInvoke,
+                                        getCompletedValueType(
+                                                methodToInvoke)));
+                return valueError != null ? valueError
+                        : ResponseEntity.ok(writeReturnValue(value));
+            }
+            Throwable cause = error instanceof CompletionException
+                    && error.getCause() != null ? error.getCause() : error;
+            return handleMethodExecutionError(endpointName, methodName, cause);
+        } catch (JsonProcessingException e) {
+            return createSerializationErrorResponse(endpointName, methodName,
+                    e);
+        }
+    }
+
+    private static Type getCompletedValueType(Method method) {
+        return getResolvedType(ResolvableType.forMethodReturnType(method)
+                .as(CompletionStage.class).getGeneric());
+    }
+
+    /**
+     * Gets a type with all type variables resolved, since e.g. the type
+     * argument of a <code>CompletableFuture&lt;String&gt;</code> seen as a
+     * {@link CompletionStage} is declared as the type variable of
+     * {@link CompletionStage}.
+     */
+    private static Type getResolvedType(ResolvableType type) {
+        // Wildcards and unresolvable types resolve to Object
+        Class<?> rawType = type.resolve(Object.class);
+        if (!type.hasGenerics()) {
+            return rawType;
+        }
+        ResolvableType[] generics = Arrays.stream(type.getGenerics())
+                .map(generic -> ResolvableType
+                        .forType(getResolvedType(generic)))
+                .toArray(ResolvableType[]::new);
+        return ResolvableType.forClassWithGenerics(rawType, generics)
+                .getType();
+    }
+
+    private String writeReturnValue(Object returnValue)
+            throws JsonProcessingException {
+        if (returnValue instanceof Stream) {
+            // Serialize the stream item by item instead of collecting it, and
+            // release the resources (e.g. a database cursor) it holds
+            try (Stream<?> stream = (Stream<?>) returnValue) {
+                return vaadinEndpointMapper
+                        .writeValueAsString(stream.iterator());
+            }
+        }
+        return vaadinEndpointMapper.writeValueAsString(returnValue);
+    }
+
+    /**
+     * Writes the given stream or iterator into the response item by item, so
+     * that neither the items nor the serialized response are kept in memory.
+     * If the serialization fails before anything has been sent, an error
+     * response is returned instead.
+     */
+    private ResponseEntity<String> writeReturnValue(String endpointName,
+            String methodName, Object returnValue, HttpServletResponse response)
+            throws JsonProcessingException {
+        Iterator<?> items = returnValue instanceof Stream
+                ? ((Stream<?>) returnValue).iterator()
+                : (Iterator<?>) returnValue;
+        try {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+            vaadinEndpointMapper.writeValue(response.getOutputStream(), items);
+            return null;
+        } catch (JsonProcessingException e) {
+            if (!response.isCommitted()) {
+                response.reset();
+                throw e;
+            }
+            getLogger().error(
+                    "Failed to serialize endpoint '{}' method '{}' response after it was partially sent",
+                    endpointName, methodName, e);
+            return null;
+        } catch (IOException e) {
+            getLogger().debug(
+                    "Failed to send endpoint '{}' method '{}' response",
+                    endpointName, methodName, e);
+            return null;
+        } finally {
+            if (returnValue instanceof Stream) {
+                ((Stream<?>) returnValue).close();
+            }
+        }
+    }
+
+    private boolean isMethodConstrained(VaadinEndpointData vaadinEndpointData,
+            Method method) {
+        // Bean validation metadata never changes for a method, so there is no
+        // need to go through the validator when nothing is constrained
+        return constrainedMethods.computeIfAbsent(method,
+                key -> validator
+                        .getConstraintsForClass(
+                                vaadinEndpointData.getEndpointType())
+                        .getConstraintsForMethod(key.getName(),
+                                key.getParameterTypes()) != null);
     }
 
-    private Type[] getJavaParameters(Method methodToInvoke, Type classType) {
-        return Stream.of(GenericTypeReflector
-                .getExactParameterTypes(methodToInvoke, classType))
-                .toArray(Type[]::new);
+    private ObjectReader getParameterReader(Type parameterType) {
+        return parameterReaders.computeIfAbsent(parameterType,
+                type -> vaadinEndpointMapper.readerFor(vaadinEndpointMapper
+                        .getTypeFactory().constructType(type)));
     }
 
     private ResponseEntity<String> handleMethodExecutionError(
-            String endpointName, String methodName, InvocationTargetException e)
+            String endpointName, String methodName, Throwable e)
             throws JsonProcessingException {
-        if (EndpointException.class.isAssignableFrom(e.getCause().getClass())) {
-            EndpointException endpointException = ((EndpointException) e
-                    .getCause());
+        if (EndpointException.class.isAssignableFrom(e.getClass())) {
+            EndpointException endpointException = (EndpointException) e;
             getLogger().debug("Endpoint '{}' method '{}' aborted the execution",
                     endpointName, methodName, endpointException);
             return ResponseEntity.badRequest()
@@ -400,9 +764,7 @@ public class VaadinConnectController {
         for (int i = 0; i < javaParameters.length; i++) {
             Type expectedType = javaParameters[i];
             try {
-                Object parameter = vaadinEndpointMapper
-                        .readerFor(vaadinEndpointMapper.getTypeFactory()
-                                .constructType(expectedType))
+                Object parameter = getParameterReader(expectedType)
                         .readValue(requestParameters.get(parameterNames[i]));
 
                 endpointParameters[i] = parameter;
@@ -125,6 +125,10 @@ class SchemaResolver {
             return createNullableWrapper(new DateTimeSchema());
         }
 
+        if (type.isCompletionStage()) {
+            return createCompletionStageSchema();
+        }
+
         if (type.isOptional()) {
             return createOptionalSchema();
         }
@@ -165,6 +169,17 @@ class SchemaResolver {
                         .resolve());
     }
 
+    private Schema createCompletionStageSchema() {
+        // Asynchronous results are sent to the client once completed, so
+        // the schema is the one of the completion value
+        List<GeneratorType> typeArguments = type.getTypeArguments();
+        if (typeArguments.isEmpty()) {
+            return createNullableWrapper(new ObjectSchema());
+        }
+        return new SchemaResolver(typeArguments.get(0), nodeAnnotations,
+                usedTypes).resolve();
+    }
+
     private Schema createNullableWrapper(Schema nestedTypeSchema) {
         return createNullableWrapper(nestedTypeSchema, !isRequired());
     }
@@ -18,6 +18,7 @@ package com.vaadin.fusion;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -389,6 +390,26 @@ public class ExplicitNullableTypeCheckerTest {
                 String.class);
     }
 
+    @Test
+    public void should_CheckGivenType_When_AnnotatedNonnullWithExpectedType()
+            throws NoSuchMethodException {
+        Method method = getClass().getMethod("stringNonnull");
+
+        Assert.assertNotNull("Should not allow null with @Nonnull",
+                explicitNullableTypeChecker.checkValueForAnnotatedElement(null,
+                        method, Integer.class));
+        Assert.assertNull("Should not check without @Nonnull",
+                explicitNullableTypeChecker.checkValueForAnnotatedElement(null,
+                        getClass().getMethod("stringNullable"),
+                        Integer.class));
+
+        explicitNullableTypeChecker = spy(explicitNullableTypeChecker);
+        explicitNullableTypeChecker.checkValueForAnnotatedElement(1, method,
+                Integer.class);
+        verify(explicitNullableTypeChecker).checkValueForType(1,
+                Integer.class);
+    }
+
     @Test
     public void should_ReturnNull_When_GivenNonNull_Generic_BeanProperties() {
         final Person person = new Person();
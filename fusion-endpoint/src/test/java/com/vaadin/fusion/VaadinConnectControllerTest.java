@@ -8,6 +8,8 @@ import java.security.Principal;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 import javax.annotation.security.DenyAll;
@@ -38,6 +40,11 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -45,6 +52,7 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.type.SimpleType;
 import com.fasterxml.jackson.databind.type.TypeFactory;
@@ -59,6 +67,7 @@ import com.vaadin.fusion.exception.EndpointValidationException;
 import com.vaadin.flow.server.startup.ApplicationConfiguration;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -143,6 +152,22 @@ public class VaadinConnectControllerTest {
             return "Hello, no user!";
         }
 
+        private final CompletableFuture<String> pendingResult = new CompletableFuture<>();
+
+        public CompletableFuture<String> testAsyncMethod(int parameter) {
+            return CompletableFuture.completedFuture(parameter + "-test");
+        }
+
+        public CompletableFuture<String> testPendingAsyncMethod() {
+            return pendingResult;
+        }
+
+        public CompletableFuture<String> testFailingAsyncMethod() {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            result.completeExceptionally(new EndpointException("OOPS"));
+            return result;
+        }
+
         @PermitAll
         public String getUserName() {
             return VaadinService.getCurrentRequest().getUserPrincipal()
@@ -177,6 +202,15 @@ public class VaadinConnectControllerTest {
         }
     }
 
+    @Endpoint
+    public static class StreamTestClass {
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        public Stream<String> testStreamMethod() {
+            return Stream.of("a", "b").onClose(() -> closed.set(true));
+        }
+    }
+
     @Rule
     public final ExpectedException exception = ExpectedException.none();
 
@@ -1180,6 +1214,184 @@ public class VaadinConnectControllerTest {
                 response.getBody());
     }
 
+    @Test
+    public void should_ReturnResultAsynchronously_When_MethodReturnsCompletionStage()
+            throws Exception {
+        MockHttpServletRequest request = createAsyncRequest();
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        TestClass endpoint = new TestClass();
+
+        ResponseEntity<String> response = createVaadinController(endpoint)
+                .serveEndpoint(TEST_ENDPOINT_NAME, "testPendingAsyncMethod",
+                        createRequestParameters("{}"), request);
+
+        assertNull(response);
+        assertFalse(asyncManager.hasConcurrentResult());
+
+        endpoint.pendingResult.complete("pending-test");
+
+        assertTrue(asyncManager.hasConcurrentResult());
+        ResponseEntity<?> asyncResponse = (ResponseEntity<?>) asyncManager
+                .getConcurrentResult();
+        assertEquals(HttpStatus.OK, asyncResponse.getStatusCode());
+        assertEquals("\"pending-test\"", asyncResponse.getBody());
+    }
+
+    @Test
+    public void should_ReturnResultDirectly_When_CompletionStageIsAlreadyDone() {
+        MockHttpServletRequest request = createAsyncRequest();
+
+        ResponseEntity<String> response = createVaadinController(
+                TEST_ENDPOINT).serveEndpoint(TEST_ENDPOINT_NAME,
+                        "testAsyncMethod",
+                        createRequestParameters("{\"value\": 222}"), request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"222-test\"", response.getBody());
+        assertFalse(WebAsyncUtils.getAsyncManager(request)
+                .isConcurrentHandlingStarted());
+    }
+
+    @Test
+    public void should_WaitForResult_When_MethodReturnsCompletionStageAndAsyncIsNotSupported() {
+        ResponseEntity<String> response = createVaadinController(
+                TEST_ENDPOINT).serveEndpoint(TEST_ENDPOINT_NAME,
+                        "testAsyncMethod",
+                        createRequestParameters("{\"value\": 222}"),
+                        requestMock);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"222-test\"", response.getBody());
+    }
+
+    @Test
+    public void should_CheckCompletedValue_When_MethodReturnsCompletionStage()
+            throws NoSuchMethodException {
+        ExplicitNullableTypeChecker explicitNullableTypeChecker = mock(
+                ExplicitNullableTypeChecker.class);
+        Method asyncMethod = TestClass.class.getMethod("testAsyncMethod",
+                int.class);
+        when(explicitNullableTypeChecker.checkValueForAnnotatedElement(
+                "222-test", asyncMethod, String.class))
+                        .thenReturn("Got null");
+
+        ResponseEntity<String> response = createVaadinController(
+                TEST_ENDPOINT, null, null, null, explicitNullableTypeChecker)
+                        .serveEndpoint(TEST_ENDPOINT_NAME, "testAsyncMethod",
+                                createRequestParameters("{\"value\": 222}"),
+                                requestMock);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,
+                response.getStatusCode());
+        assertTrue(response.getBody().contains("Unexpected return value"));
+    }
+
+    @Test
+    public void should_Return400_When_CompletionStageFailsWithEndpointException() {
+        ResponseEntity<String> response = createVaadinController(
+                TEST_ENDPOINT).serveEndpoint(TEST_ENDPOINT_NAME,
+                        "testFailingAsyncMethod", createRequestParameters("{}"),
+                        requestMock);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(response.getBody().contains("OOPS"));
+    }
+
+    @Test
+    public void should_ReturnAllResults_When_CallsAreBatched()
+            throws Exception {
+        ArrayNode calls = new ObjectMapper().readValue(String.format(
+                "[{\"endpoint\": \"%1$s\", \"method\": \"%2$s\", \"params\": {\"value\": 1}},"
+                        + "{\"endpoint\": \"%1$s\", \"method\": \"missing\"},"
+                        + "{\"endpoint\": \"%1$s\", \"method\": \"%2$s\", \"params\": {\"value\": 2}},"
+                        + "{\"method\": \"%2$s\"}]",
+                TEST_ENDPOINT_NAME, TEST_METHOD.getName()), ArrayNode.class);
+
+        ResponseEntity<String> response = createVaadinController(
+                TEST_ENDPOINT).serveEndpointBatch(calls, requestMock);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        JsonNode results = new ObjectMapper().readTree(response.getBody());
+        assertEquals(4, results.size());
+        assertEquals(200, results.get(0).get("status").asInt());
+        assertEquals("1-test", results.get(0).get("body").asText());
+        assertEquals(404, results.get(1).get("status").asInt());
+        assertNull(results.get(1).get("body"));
+        assertEquals(200, results.get(2).get("status").asInt());
+        assertEquals("2-test", results.get(2).get("body").asText());
+        assertEquals(400, results.get(3).get("status").asInt());
+        assertTrue(results.get(3).get("body").has("message"));
+    }
+
+    @Test
+    public void should_NotWaitForPendingCall_When_CallsAreBatched()
+            throws Exception {
+        MockHttpServletRequest request = createAsyncRequest();
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        TestClass endpoint = new TestClass();
+        ArrayNode calls = new ObjectMapper().readValue(String.format(
+                "[{\"endpoint\": \"%1$s\", \"method\": \"testPendingAsyncMethod\"},"
+                        + "{\"endpoint\": \"%1$s\", \"method\": \"%2$s\", \"params\": {\"value\": 1}}]",
+                TEST_ENDPOINT_NAME, TEST_METHOD.getName()), ArrayNode.class);
+
+        ResponseEntity<String> response = createVaadinController(endpoint)
+                .serveEndpointBatch(calls, request);
+
+        assertNull(response);
+        assertFalse(asyncManager.hasConcurrentResult());
+
+        endpoint.pendingResult.complete("pending-test");
+
+        assertTrue(asyncManager.hasConcurrentResult());
+        ResponseEntity<?> asyncResponse = (ResponseEntity<?>) asyncManager
+                .getConcurrentResult();
+        JsonNode results = new ObjectMapper()
+                .readTree((String) asyncResponse.getBody());
+        assertEquals(2, results.size());
+        assertEquals("pending-test", results.get(0).get("body").asText());
+        assertEquals("1-test", results.get(1).get("body").asText());
+    }
+
+    @Test
+    public void should_ConvertStreamIntoArray() {
+        ResponseEntity<?> response = createVaadinController(
+                new IterableEndpoint()).serveEndpoint("IterableEndpoint",
+                        "getFooStream", createRequestParameters("{}"),
+                        requestMock);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("[{\"bar\":\"bar\"},{\"bar\":\"bar\"}]",
+                response.getBody());
+    }
+
+    @Test
+    public void should_ConvertIteratorIntoArray() {
+        ResponseEntity<?> response = createVaadinController(
+                new IterableEndpoint()).serveEndpoint("IterableEndpoint",
+                        "getFooIterator", createRequestParameters("{}"),
+                        requestMock);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("[{\"bar\":\"bar\"},{\"bar\":\"bar\"}]",
+                response.getBody());
+    }
+
+    @Test
+    public void should_WriteStreamIntoResponseAndCloseIt() throws Exception {
+        StreamTestClass endpoint = new StreamTestClass();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ResponseEntity<String> result = createVaadinController(endpoint)
+                .serveEndpoint(StreamTestClass.class.getSimpleName(),
+                        "testStreamMethod", createRequestParameters("{}"),
+                        requestMock, response);
+
+        assertNull(result);
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals("[\"a\",\"b\"]", response.getContentAsString());
+        assertTrue(endpoint.closed.get());
+    }
+
     private void assertEndpointInfoPresent(String responseBody) {
         assertTrue(String.format(
                 "Response body '%s' should have endpoint information in it",
@@ -1189,6 +1401,15 @@ public class VaadinConnectControllerTest {
                 responseBody), responseBody.contains(TEST_METHOD.getName()));
     }
 
+    private MockHttpServletRequest createAsyncRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        WebAsyncUtils.getAsyncManager(request)
+                .setAsyncWebRequest(new StandardServletAsyncWebRequest(request,
+                        new MockHttpServletResponse()));
+        return request;
+    }
+
     private ObjectNode createRequestParameters(String jsonBody) {
         try {
             return new ObjectMapper().readValue(jsonBody, ObjectNode.class);
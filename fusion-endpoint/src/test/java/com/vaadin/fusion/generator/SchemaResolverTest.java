@@ -26,6 +26,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import com.github.javaparser.ast.type.Type;
 import com.github.javaparser.resolution.declarations.ResolvedTypeParameterDeclaration;
@@ -138,6 +139,28 @@ public class SchemaResolverTest {
         Assert.assertTrue(usedTypes.isEmpty());
     }
 
+    @Test
+    public void should_ReturnCompletionValueSchema_When_GivenTypeIsACompletableFuture() {
+        ResolvedType resolvedType = mockReferencedTypeOf(
+                CompletableFuture.class);
+        ResolvedReferenceType resolvedReferenceType = resolvedType
+                .asReferenceType();
+
+        List<Pair<ResolvedTypeParameterDeclaration, ResolvedType>> pairs = Collections
+                .singletonList(
+                        new Pair<>(null, mockReferencedTypeOf(String.class)));
+        when(resolvedReferenceType.getTypeParametersMap()).thenReturn(pairs);
+
+        Map<String, GeneratorType> usedTypes = new HashMap<>();
+        SchemaResolver schemaResolver = new SchemaResolver(
+                new GeneratorType(resolvedType), usedTypes);
+        Schema schema = schemaResolver.resolve();
+
+        Assert.assertTrue(schema instanceof StringSchema);
+        Assert.assertTrue(schema.getNullable());
+        Assert.assertTrue(usedTypes.isEmpty());
+    }
+
     @Test
     public void should_ReturnNotNullableBoolean_When_GivenTypeIsAPrimitiveBoolean() {
         ResolvedType resolvedType = mockPrimitiveTypeOf(
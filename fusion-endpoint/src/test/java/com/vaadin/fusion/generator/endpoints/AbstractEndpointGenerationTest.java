@@ -41,6 +41,7 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -50,6 +51,7 @@ import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.models.Components;
@@ -406,7 +408,11 @@ public abstract class AbstractEndpointGenerationTest
                             typeArguments);
                 } else {
                     assertTrue(Iterable.class
-                            .isAssignableFrom(expectedSchemaClass));
+                            .isAssignableFrom(expectedSchemaClass)
+                            || Iterator.class
+                                    .isAssignableFrom(expectedSchemaClass)
+                            || Stream.class
+                                    .isAssignableFrom(expectedSchemaClass));
                     Type itemType = expectedSchemaClass.getTypeParameters()[0];
                     assertSchema(((ArraySchema) actualSchema).getItems(),
                             applyTypeArguments(itemType, typeArguments),
@@ -17,6 +17,8 @@
 package com.vaadin.fusion.generator.endpoints.iterableendpoint;
 
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 import com.vaadin.flow.server.auth.AnonymousAllowed;
 import com.vaadin.fusion.Endpoint;
@@ -32,4 +34,12 @@ public class IterableEndpoint {
     public Iterable<Foo> getFoos() {
         return Arrays.asList(new Foo(), new Foo());
     }
+
+    public Stream<Foo> getFooStream() {
+        return Stream.of(new Foo(), new Foo());
+    }
+
+    public Iterator<Foo> getFooIterator() {
+        return Arrays.asList(new Foo(), new Foo()).iterator();
+    }
 }
@@ -8,11 +8,23 @@
 import client from './connect-client.default';
 import Foo from './com/vaadin/fusion/generator/endpoints/iterableendpoint/IterableEndpoint/Foo';
 
+function _getFooIterator(): Promise<ReadonlyArray<Foo | undefined> | undefined> {
+    return client.call('IterableEndpoint', 'getFooIterator');
+}
+export {_getFooIterator as getFooIterator};
+
+function _getFooStream(): Promise<ReadonlyArray<Foo | undefined> | undefined> {
+    return client.call('IterableEndpoint', 'getFooStream');
+}
+export {_getFooStream as getFooStream};
+
 function _getFoos(): Promise<ReadonlyArray<Foo | undefined> | undefined> {
     return client.call('IterableEndpoint', 'getFoos');
 }
 export {_getFoos as getFoos};
 
 export const IterableEndpoint = Object.freeze({
+    getFooIterator: _getFooIterator,
+    getFooStream: _getFooStream,
     getFoos: _getFoos,
 });
\ No newline at end of file